@@ -0,0 +1,73 @@
+package com.quinn.interview.breakword.benchmark;
+
+import com.quinn.interview.breakword.api.ITrieNode;
+import com.quinn.interview.breakword.model.BreakResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * the growth of the cases of a result by num of possible breaks (2 ^ n cases):
+ * all the cases at once, the lazy stream of them, and one case by its index
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllCasesBenchmark {
+
+    @Param({"4", "8", "12", "16"})
+    private int possibleBreaks;
+
+    private BreakResult result;
+
+    private long index;
+
+    @Setup
+    public void setup() {
+        result = new BreakResult(possibleBreaks * 8);
+        for (int i = 0; i < possibleBreaks; i++) {
+            result.append('s').append('a').append('m').append(ITrieNode.SPLIT_OF_POSSIBLE_BREAK)
+                    .append('s').append('u').append('n').append('g');
+            if (i < possibleBreaks - 1) {
+                result.append(ITrieNode.SPLIT_OF_NORMAL_BREAK);
+            }
+        }
+    }
+
+    @Benchmark
+    public String[] allCases() {
+        return result.allCases();
+    }
+
+    /**
+     * every case made and consumed (count() of the sized stream would skip making them)
+     */
+    @Benchmark
+    public void casesStream(Blackhole blackhole) {
+        result.cases().forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public String caseAt() {
+        index = (index + 1) & (result.caseCount() - 1);
+        return result.caseAt(index);
+    }
+
+}
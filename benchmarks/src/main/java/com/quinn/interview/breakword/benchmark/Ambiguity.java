@@ -0,0 +1,98 @@
+package com.quinn.interview.breakword.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * how ambiguous the lines are for the dictionary
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public enum Ambiguity {
+
+    /**
+     * random words of 3 to 10 letters of a to z: a few prefixes are shared, few possible breaks
+     */
+    LOW,
+
+    /**
+     * all the words of 1 to 4 letters of a and b: every position can end a word, many possible breaks
+     */
+    HIGH,
+
+    /**
+     * the words of 1 to 64 'a' and the lines of 'a' only: every position can end a word along the path and
+     * from the root, the worst case of the greedy walks (see the memo of the path in AbstractStateTrieNode)
+     */
+    ADVERSARIAL;
+
+    /**
+     * the longest word of ADVERSARIAL
+     */
+    private static final int ADVERSARIAL_LONGEST = 64;
+
+    /**
+     * the words of the dictionary
+     *
+     * @param size num of words for LOW
+     * @return the words
+     */
+    String[] words(int size) {
+        if (this == LOW) {
+            return BenchmarkData.randomWords(size, 3, 10, 26, BenchmarkData.SEED);
+        }
+        if (this == ADVERSARIAL) {
+            String[] words = new String[ADVERSARIAL_LONGEST];
+            StringBuilder word = new StringBuilder();
+            for (int i = 0; i < words.length; i++) {
+                words[i] = word.append('a').toString();
+            }
+            return words;
+        }
+        List<String> words = new ArrayList<>();
+        for (int length = 1; length <= 4; length++) {
+            for (int bits = 0; bits < 1 << length; bits++) {
+                char[] chars = new char[length];
+                for (int i = 0; i < length; i++) {
+                    chars[i] = (char) ('a' + (bits >>> i & 1));
+                }
+                words.add(new String(chars));
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    /**
+     * lines made of the words, with a random letter now and then (a wrong word)
+     *
+     * @param words  the words of the dictionary
+     * @param size   num of lines
+     * @param length the length of every line
+     * @return the lines
+     */
+    String[] lines(String[] words, int size, int length) {
+        String[] lines = new String[size];
+        if (this == ADVERSARIAL) {
+            char[] chars = new char[length];
+            Arrays.fill(chars, 'a');
+            Arrays.fill(lines, new String(chars));
+            return lines;
+        }
+        Random random = new Random(BenchmarkData.SEED + length);
+        int letters = this == LOW ? 26 : 2;
+        for (int i = 0; i < size; i++) {
+            StringBuilder line = new StringBuilder(length + 16);
+            while (line.length() < length) {
+                line.append(random.nextInt(8) == 0 ? String.valueOf((char) ('a' + random.nextInt(letters)))
+                        : words[random.nextInt(words.length)]);
+            }
+            line.setLength(length);
+            lines[i] = line.toString();
+        }
+        return lines;
+    }
+
+}
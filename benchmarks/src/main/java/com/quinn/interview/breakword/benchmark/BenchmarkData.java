@@ -0,0 +1,43 @@
+package com.quinn.interview.breakword.benchmark;
+
+import java.util.Random;
+
+/**
+ * the words of the benchmarks, generated by fixed seeds so every run (and every commit)
+ * measures the same input
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+final class BenchmarkData {
+
+    static final long SEED = 20201014L;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * random words (some may repeat) of the first letters of a to z
+     *
+     * @param size      num of words
+     * @param minLength min length of a word
+     * @param maxLength max length of a word
+     * @param letters   num of letters from a
+     * @param seed      seed of the random
+     * @return the words
+     */
+    static String[] randomWords(int size, int minLength, int maxLength, int letters, long seed) {
+        Random random = new Random(seed);
+        String[] words = new String[size];
+        char[] chars = new char[maxLength];
+        for (int i = 0; i < size; i++) {
+            int length = minLength + random.nextInt(maxLength - minLength + 1);
+            for (int j = 0; j < length; j++) {
+                chars[j] = (char) ('a' + random.nextInt(letters));
+            }
+            words[i] = new String(chars, 0, length);
+        }
+        return words;
+    }
+
+}
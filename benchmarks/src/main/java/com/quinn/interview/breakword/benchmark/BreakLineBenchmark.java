@@ -0,0 +1,89 @@
+package com.quinn.interview.breakword.benchmark;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.BreakResult;
+import com.quinn.interview.breakword.model.Dictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * breakLine of every engine, mutable and frozen, by the length of the line and the ambiguity of the words
+ * <p>
+ * the lines are rotated so the branches are not learnt from one line, the time is of one line:
+ * divide it by the length for the time of a char
+ * <p>
+ * all the engines break by the same algorithm (AbstractStateTrieNode), so ADVERSARIAL measures the memo of
+ * the path once, on the storage of every engine
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BreakLineBenchmark {
+
+    private static final int LINES = 64;
+
+    @Param({"ARRAY", "MAP", "DOUBLE_ARRAY", "DAWG"})
+    private TrieNodeTypeEnum type;
+
+    @Param({"false", "true"})
+    private boolean frozen;
+
+    @Param({"64", "1024", "16384"})
+    private int length;
+
+    @Param({"LOW", "HIGH", "ADVERSARIAL"})
+    private Ambiguity ambiguity;
+
+    private Dictionary dictionary;
+
+    private String[] lines;
+
+    private BreakResult sink;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        String[] words = ambiguity.words(10000);
+        Dictionary created = Dictionary.create(type, words, false);
+        dictionary = frozen ? created.freeze() : created;
+        lines = ambiguity.lines(words, LINES, length);
+        sink = new BreakResult(length * 2);
+    }
+
+    @Benchmark
+    public BreakResult breakLine() {
+        return dictionary.breakLine(nextLine());
+    }
+
+    /**
+     * into a reused result, without the allocation of the result per line
+     */
+    @Benchmark
+    public BreakResult breakLineSink() {
+        return dictionary.breakLine(nextLine(), sink);
+    }
+
+    private String nextLine() {
+        next = (next + 1) & (LINES - 1);
+        return lines[next];
+    }
+
+}
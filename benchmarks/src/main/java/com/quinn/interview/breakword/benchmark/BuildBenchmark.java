@@ -0,0 +1,56 @@
+package com.quinn.interview.breakword.benchmark;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.Dictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * the build of a dictionary of every engine: the words added one by one, and then frozen to the flat form
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuildBenchmark {
+
+    @Param({"ARRAY", "MAP", "DOUBLE_ARRAY", "DAWG"})
+    private TrieNodeTypeEnum type;
+
+    @Param({"10000", "100000"})
+    private int words;
+
+    private String[] dict;
+
+    @Setup
+    public void setup() {
+        dict = BenchmarkData.randomWords(words, 3, 10, 26, BenchmarkData.SEED);
+    }
+
+    @Benchmark
+    public Dictionary create() {
+        return Dictionary.create(type, dict, false);
+    }
+
+    @Benchmark
+    public Dictionary createAndFreeze() {
+        return Dictionary.create(type, dict, false).freeze();
+    }
+
+}
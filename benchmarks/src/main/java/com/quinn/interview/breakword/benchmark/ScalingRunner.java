@@ -0,0 +1,59 @@
+package com.quinn.interview.breakword.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * run ThroughputBenchmark by 1, 2, 4 ... threads up to the max given (the num of processors by default),
+ * with the allocation profiled by GCProfiler, the results of every num of threads are written to
+ * target/jmh/scaling-{threads}.json, and the scaling is printed at last
+ *
+ * @author Qunhua.Liao
+ * @see ThroughputBenchmark
+ * @since 2020-10-14
+ */
+public final class ScalingRunner {
+
+    private ScalingRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        File directory = new File("target/jmh");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new RuntimeException("directory " + directory + " create failed");
+        }
+
+        List<String> summary = new ArrayList<>();
+        for (int threads = 1; threads <= maxThreads; threads <<= 1) {
+            Options options = new OptionsBuilder()
+                    .include(ThroughputBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(directory, "scaling-" + threads + ".json").getPath())
+                    .build();
+            Collection<RunResult> results = new Runner(options).run();
+            for (RunResult result : results) {
+                Result primary = result.getPrimaryResult();
+                String benchmark = result.getParams().getBenchmark();
+                summary.add(String.format("threads %3d  %-14s %-14s %14.1f %s", threads,
+                        benchmark.substring(benchmark.lastIndexOf('.') + 1), result.getParams().getParam("type"),
+                        primary.getScore(), primary.getScoreUnit()));
+            }
+        }
+        summary.forEach(System.out::println);
+    }
+
+}
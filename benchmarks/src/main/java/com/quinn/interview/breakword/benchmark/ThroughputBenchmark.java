@@ -0,0 +1,97 @@
+package com.quinn.interview.breakword.benchmark;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.BreakResult;
+import com.quinn.interview.breakword.model.Dictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * lines per second of one frozen dictionary shared by all the threads, every thread has its own lines and its own
+ * result, run by -t (or ScalingRunner) for the scaling by threads
+ *
+ * @author Qunhua.Liao
+ * @see ScalingRunner
+ * @since 2020-10-14
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThroughputBenchmark {
+
+    private static final int LINES = 256;
+
+    private static final int LENGTH = 256;
+
+    /**
+     * the dictionary, shared
+     */
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        @Param({"ARRAY", "DOUBLE_ARRAY"})
+        private TrieNodeTypeEnum type;
+
+        private String[] words;
+
+        private Dictionary dictionary;
+
+        @Setup
+        public void setup() {
+            words = Ambiguity.LOW.words(10000);
+            dictionary = Dictionary.create(type, words, false).freeze();
+        }
+
+    }
+
+    /**
+     * the lines and the result of a thread
+     */
+    @State(Scope.Thread)
+    public static class Lines {
+
+        private String[] lines;
+
+        private BreakResult sink;
+
+        private int next;
+
+        @Setup
+        public void setup(Shared shared) {
+            lines = Ambiguity.LOW.lines(shared.words, LINES, LENGTH);
+            // every thread starts at another line
+            next = (int) (Thread.currentThread().getId() & (LINES - 1));
+            sink = new BreakResult(LENGTH * 2);
+        }
+
+        private String nextLine() {
+            next = (next + 1) & (LINES - 1);
+            return lines[next];
+        }
+
+    }
+
+    @Benchmark
+    public BreakResult breakLine(Shared shared, Lines lines) {
+        return shared.dictionary.breakLine(lines.nextLine());
+    }
+
+    @Benchmark
+    public BreakResult breakLineSink(Shared shared, Lines lines) {
+        return shared.dictionary.breakLine(lines.nextLine(), lines.sink);
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.quinn.interview.breakword.api;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Interface to handle a text file(usually very large) chunk by chunk, in parallel
+ * <p>
+ * the file is split into chunks of whole lines, and every chunk is handled by one thread:
+ * startChunk(), then handle() for every line of the chunk, then endChunk(),
+ * so the state of a chunk (e.g a counter, a buffer, the results) is only touched by one thread at a time
+ * <p>
+ * the lines are ranges of the bytes of the file, they are not decoded, see BaseUtil.decode()
+ *
+ * @param <T> the state of a chunk
+ * @author Qunhua.Liao
+ * @see com.quinn.interview.util.BaseUtil#readLargeFile(java.nio.file.Path, ByteFilePartHandler,
+ * java.util.concurrent.ForkJoinPool, java.util.function.Consumer)
+ * @since 2020-10-14
+ */
+public interface ByteFilePartHandler<T> {
+
+    /**
+     * start a chunk
+     *
+     * @param index  the index of the chunk, from 0
+     * @param offset the offset of the first byte of the chunk in the file
+     * @return the state of the chunk
+     */
+    T startChunk(int index, long offset);
+
+    /**
+     * handle a line of the chunk
+     *
+     * @param chunk the state of the chunk
+     * @param bytes the bytes of the chunk (memory mapped, read only), it must not be held after the chunk ends
+     * @param from  the first byte of the line in the bytes
+     * @param to    the end of the line (exclusive), without the line end ("\n" or "\r\n")
+     */
+    void handle(T chunk, ByteBuffer bytes, int from, int to);
+
+    /**
+     * end a chunk, after all lines of the chunk are handled
+     *
+     * @param chunk the state of the chunk
+     */
+    default void endChunk(T chunk) {
+    }
+
+}
@@ -2,6 +2,7 @@ package com.quinn.interview.breakword.api;
 
 import com.quinn.interview.breakword.model.BreakResult;
 import com.quinn.interview.breakword.model.Dictionary;
+import com.quinn.interview.breakword.model.WordLattice;
 
 /**
  * Data structure to organize the word relation: which worlds can be follow this current one
@@ -50,11 +51,63 @@ public interface ITrieNode {
     void addWord(String word);
 
     /**
-     * break a line without any space, be composed of english letters only
+     * remove a word from the node
+     * usually invoked just by the root node
+     *
+     * @param word word to be removed
+     * @return false if the word does not exist
+     * @throws UnsupportedOperationException if the node is immutable (e.g a compiled flat structure)
+     */
+    boolean removeWord(String word);
+
+    /**
+     * release the storage which is not used any more, e.g after many words are removed
+     * usually invoked just by the root node
+     */
+    default void compact() {
+    }
+
+    /**
+     * break a line without any space, the chars which are not in the alphabet of the dictionary are passed through
      *
      * @param line the line to be break
      * @return result StringBuild with all possible cases
      */
     BreakResult breakLine(String line);
 
+    /**
+     * break the first length chars of the array, the same as breakLine(new String(chars, 0, length))
+     * the array is only read, so the caller can reuse it as the buffer of many lines
+     *
+     * @param chars  the buffer holding the line
+     * @param length the length of line
+     * @return result StringBuild with all possible cases
+     */
+    default BreakResult breakLine(char[] chars, int length) {
+        return breakLine(new String(chars, 0, length));
+    }
+
+    /**
+     * break the chars [from, to) of the array, and append the line with the break marks to the result
+     * the break itself allocates nothing, so the caller can reuse the array and the result for many lines
+     * (the result grows only when a line is longer than all the lines before)
+     *
+     * @param chars  the buffer holding the line
+     * @param from   the first char of the line
+     * @param to     the end of the line (exclusive), greater than from
+     * @param result the result to append
+     */
+    default void breakLine(char[] chars, int from, int to, BreakResult result) {
+        result.append(breakLine(new String(chars, from, to - from)));
+    }
+
+    /**
+     * find all words of the dictionary in the line, as a word lattice
+     * usually invoked just by the root node
+     *
+     * @param line the line to be break
+     * @return the word lattice of the line
+     */
+    WordLattice lattice(String line);
+
 }
@@ -2,6 +2,8 @@ package com.quinn.interview.breakword.api;
 
 import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
 
+import java.util.SortedSet;
+
 /**
  * this interface is designed to create different ITrieNode at runtime according by arguments
  *
@@ -25,4 +27,30 @@ public interface ITrieNodeSupplier {
      */
     ITrieNode supply(char c);
 
+    /**
+     * whether the Supplier can build the root node with all words at once (by supply(SortedSet))
+     * which is much cheaper than adding the words one by one for some implementations,
+     * the dictionary loaded from an array or a file is built in this way if supported
+     *
+     * @return true if supported
+     */
+    default boolean supportBulkBuild() {
+        return false;
+    }
+
+    /**
+     * create the root node of the dictionary with all words at once
+     * by default, the words are added to the root node one by one
+     *
+     * @param words all words of the dictionary, sorted and not repeated
+     * @return the root node
+     */
+    default ITrieNode supply(SortedSet<String> words) {
+        ITrieNode root = supply(ITrieNode.SPLIT_OF_WORD);
+        for (String word : words) {
+            root.addWord(word);
+        }
+        return root;
+    }
+
 }
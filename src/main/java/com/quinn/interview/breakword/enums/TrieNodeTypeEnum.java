@@ -4,6 +4,8 @@ package com.quinn.interview.breakword.enums;
  * enum of TrieNode Type
  * ARRAY
  * MAP
+ * DOUBLE_ARRAY
+ * DAWG
  *
  * @author Qunhua.Liao
  * @since 2020-10-14
@@ -14,6 +16,12 @@ public enum TrieNodeTypeEnum {
     ARRAY,
 
     // map
-    MAP
+    MAP,
+
+    // double array
+    DOUBLE_ARRAY,
+
+    // minimal directed acyclic word graph
+    DAWG
 
 }
@@ -0,0 +1,171 @@
+package com.quinn.interview.breakword.model;
+
+import com.quinn.interview.breakword.api.ITrieNode;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * the common part of the ITrieNode implementations which compile all words into a flat structure at once
+ * (because inserting into the flat structure one by one is too expensive or impossible)
+ * <p>
+ * the words added are collected first, and they are compiled when the first line is broken,
+ * so the dictionary loaded by Dictionary.create(..., filePath, ...) is compiled only once however large it is
+ * (or compiled directly when the supplier builds the node with all words)
+ * <p>
+ * a word added or removed after that makes the structure compiled again at the next break,
+ * so these node types suit the dictionary which is loaded once and used many times
+ * <p>
+ * the words are not kept beside the compiled structure (it would cost more than the structure itself, e.g a DAWG):
+ * only the (folded) words added or removed since the last compiling are kept, and the structure is compiled again
+ * from its own words with the changes, then the changes are released
+ *
+ * @author Qunhua.Liao
+ * @see AbstractFlatTrieNode
+ * @since 2020-10-13
+ */
+abstract class AbstractCompiledTrieNode implements ITrieNode {
+
+    AbstractCompiledTrieNode(char data) {
+        this.data = data;
+    }
+
+    @SuppressWarnings("unused")
+    protected final char data;
+
+    /**
+     * the structure compiled last, null if nothing is compiled yet
+     */
+    private AbstractFlatTrieNode last;
+
+    /**
+     * the words added since the last compiling which are not in the last structure (folded)
+     */
+    private Set<String> added = new HashSet<>();
+
+    /**
+     * the words of the last structure removed since the last compiling (folded)
+     */
+    private Set<String> removed = new HashSet<>();
+
+    /**
+     * the compiled structure of the words, null if there are words not compiled
+     */
+    private volatile AbstractFlatTrieNode compiled;
+
+    /**
+     * compile the words into the flat structure
+     *
+     * @param words all words, can be unsorted and repeated
+     * @return the flat structure
+     */
+    protected abstract AbstractFlatTrieNode compile(Collection<String> words);
+
+    @Override
+    public synchronized void addWord(String word) {
+        String folded = Dictionary.fold(word);
+        if (removed.remove(folded) || (!inLast(folded) && added.add(folded))) {
+            compiled = null;
+        }
+    }
+
+    /**
+     * remove the word, it is compiled again at the next break
+     * (the words which are the same but the case are the same word of the compiled structure)
+     */
+    @Override
+    public synchronized boolean removeWord(String word) {
+        String folded = Dictionary.fold(word);
+        if (!added.remove(folded) && !(inLast(folded) && removed.add(folded))) {
+            return false;
+        }
+        compiled = null;
+        return true;
+    }
+
+    /**
+     * compile the changes not compiled yet, so the words of them are released
+     */
+    @Override
+    public void compact() {
+        compiled();
+    }
+
+    /**
+     * add all words and compile them at once
+     *
+     * @param words words to be added
+     */
+    synchronized void addWords(Collection<String> words) {
+        if (last == null && added.isEmpty()) {
+            last = compile(words);
+            compiled = last;
+            return;
+        }
+        for (String word : words) {
+            addWord(word);
+        }
+        compiled();
+    }
+
+    /**
+     * whether the word is in the structure compiled last
+     */
+    private boolean inLast(String folded) {
+        return last != null && last.containsWord(folded);
+    }
+
+    @Override
+    public BreakResult breakLine(String line) {
+        return compiled().breakLine(line);
+    }
+
+    @Override
+    public BreakResult breakLine(char[] chars, int length) {
+        return compiled().breakLine(chars, length);
+    }
+
+    @Override
+    public void breakLine(char[] chars, int from, int to, BreakResult result) {
+        compiled().breakLine(chars, from, to, result);
+    }
+
+    @Override
+    public WordLattice lattice(String line) {
+        return compiled().lattice(line);
+    }
+
+    /**
+     * get the compiled structure, compile it if there are words not compiled
+     *
+     * @return the compiled structure
+     */
+    AbstractFlatTrieNode compiled() {
+        AbstractFlatTrieNode flat = compiled;
+        if (flat == null) {
+            synchronized (this) {
+                flat = compiled;
+                if (flat == null) {
+                    List<String> words = new ArrayList<>(added);
+                    if (last != null) {
+                        last.forEachWord((word) -> {
+                            if (!removed.contains(word)) {
+                                words.add(word);
+                            }
+                        });
+                    }
+                    flat = compile(words);
+                    last = flat;
+                    added = new HashSet<>();
+                    removed = new HashSet<>();
+                    compiled = flat;
+                }
+            }
+        }
+        return flat;
+    }
+
+}
@@ -0,0 +1,193 @@
+package com.quinn.interview.breakword.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * the common part of the ITrieNode implementations which organize the dictionary in flat primitive arrays
+ * instead of an object graph: every node is an int state, so a transition is just some array reads
+ * <p>
+ * the break algorithms are the ones of AbstractStateTrieNode, the key of a char is its lower case char,
+ * so the subclasses only decide how to find the next state of a char
+ * <p>
+ * a flat structure is compiled from all the words at once, so it is immutable and can not add word any more
+ * <p>
+ * the chars of the words are stored in lower case, and the chars of a line are looked up in the alphabet of the labels,
+ * so the case is folded like AbstractTrieNode, and a char which is not in the alphabet is passed through
+ *
+ * @author Qunhua.Liao
+ * @see AbstractStateTrieNode
+ * @since 2020-10-13
+ */
+abstract class AbstractFlatTrieNode extends AbstractStateTrieNode {
+
+    /**
+     * get the alphabet of the chars of the words
+     *
+     * @return the alphabet
+     */
+    abstract Alphabet alphabet();
+
+    /**
+     * get the next state of the code of a char
+     *
+     * @param state current state
+     * @param code  the code of the char, see code(char), the (lower case) char itself by default
+     * @return the next state, NONE if not exists
+     */
+    @Override
+    abstract int next(int state, char code);
+
+    /**
+     * get the next state of a char of a word, for the walks by the words instead of by the lines
+     *
+     * @param state current state
+     * @param c     the (lower case) char of a word, or SPLIT_OF_NORMAL_BREAK
+     * @return the next state, NONE if not exists
+     */
+    int nextChar(int state, char c) {
+        return next(state, c);
+    }
+
+    /**
+     * get the char of a word in the flat structure, the same as the char of its code in Alphabet
+     *
+     * @param c the char of the word
+     * @return the lower case of the char
+     */
+    static char fold(char c) {
+        return Character.toLowerCase(c);
+    }
+
+    /**
+     * get the chars of all words in ascending order, to compile a flat structure from
+     * the chars are stored in lower case, see fold(char)
+     *
+     * @param words words of the dictionary, can be unsorted and repeated
+     * @return chars of the words in ascending order
+     */
+    static char[][] sortedWords(Collection<String> words) {
+        char[][] sorted = new char[words.size()][];
+        int i = 0;
+        for (String word : words) {
+            char[] chars = word.toCharArray();
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = fold(chars[j]);
+            }
+            sorted[i++] = chars;
+        }
+        Arrays.sort(sorted, AbstractFlatTrieNode::compare);
+        return sorted;
+    }
+
+    private static int compare(char[] a, char[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[i]) {
+                return a[i] - b[i];
+            }
+        }
+        return a.length - b.length;
+    }
+
+    /**
+     * get the state of a word, the chars are folded like sortedWords()
+     *
+     * @param word the word
+     * @return the state after the last char of the word, NONE if not exists
+     */
+    int stateOf(String word) {
+        int state = root();
+        for (int i = 0; i < word.length() && state != NONE; i++) {
+            state = nextChar(state, fold(word.charAt(i)));
+        }
+        return state;
+    }
+
+    /**
+     * whether the word is in the flat structure
+     *
+     * @param word the word
+     * @return true if a word ends at the state of the word
+     */
+    boolean containsWord(String word) {
+        int state = stateOf(word);
+        return state != NONE && isWordEnd(state);
+    }
+
+    /**
+     * feed all words of the flat structure to the consumer in ascending order
+     * (the chars are in lower case, like sortedWords()),
+     * the states are walked depth first by a stack instead of a recursion per char
+     *
+     * @param consumer consumer of the words
+     */
+    void forEachWord(Consumer<String> consumer) {
+        char[] alphabet = alphabet().sortedChars();
+        int[] states = new int[16];
+        // the index in the alphabet of the next char to try at every depth
+        int[] nextChars = new int[16];
+        char[] word = new char[16];
+        states[0] = root();
+        int depth = 0;
+        while (depth >= 0) {
+            if (nextChars[depth] == alphabet.length) {
+                depth--;
+                continue;
+            }
+
+            char c = alphabet[nextChars[depth]++];
+            int state = nextChar(states[depth], c);
+            if (state == NONE) {
+                continue;
+            }
+            if (depth + 1 == word.length) {
+                states = Arrays.copyOf(states, word.length << 1);
+                nextChars = Arrays.copyOf(nextChars, word.length << 1);
+                word = Arrays.copyOf(word, word.length << 1);
+            }
+            word[depth++] = c;
+            states[depth] = state;
+            nextChars[depth] = 0;
+            if (isWordEnd(state)) {
+                consumer.accept(new String(word, 0, depth));
+            }
+        }
+    }
+
+    /**
+     * all words of the flat structure in ascending order
+     *
+     * @return the words
+     * @see #forEachWord(Consumer)
+     */
+    List<String> words() {
+        List<String> words = new ArrayList<>();
+        forEachWord(words::add);
+        return words;
+    }
+
+    @Override
+    public void addWord(String word) {
+        throw new UnsupportedOperationException("can not add word to a compiled dictionary");
+    }
+
+    @Override
+    public boolean removeWord(String word) {
+        throw new UnsupportedOperationException("can not remove word from a compiled dictionary");
+    }
+
+    @Override
+    char code(char c) {
+        return alphabet().fold(c);
+    }
+
+    @Override
+    int nextSpace(int state) {
+        return next(state, SPLIT_OF_NORMAL_BREAK);
+    }
+
+}
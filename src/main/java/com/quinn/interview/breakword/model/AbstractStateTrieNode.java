@@ -0,0 +1,362 @@
+package com.quinn.interview.breakword.model;
+
+import com.quinn.interview.breakword.api.ITrieNode;
+
+import java.util.Arrays;
+
+/**
+ * the break algorithms of all the ITrieNode implementations, written once on the int states of a trie:
+ * a state is a node of the object graph by its id (see AbstractTrieNode), or a state of the flat arrays
+ * (see AbstractFlatTrieNode), and the algorithms only depend on the transitions between the states:
+ * 1 root(): the state of the root node
+ * 2 code(c): the key of a char of the line, Alphabet.UNKNOWN if the char is not in the alphabet
+ * 3 next(state, code) and nextSpace(state): the state after a char, or after the space of a word
+ * 4 isWordEnd(state): whether a word of the dictionary can end at the state
+ * <p>
+ * so an engine only decides how to store the trie, and a change of the algorithms is made in one place
+ *
+ * @author Qunhua.Liao
+ * @see AbstractTrieNode
+ * @see AbstractFlatTrieNode
+ * @since 2020-10-13
+ */
+abstract class AbstractStateTrieNode implements ITrieNode {
+
+    /**
+     * the state which means no node
+     */
+    static final int NONE = -1;
+
+    /**
+     * the greedy walk of the current path is not walked yet
+     */
+    static final int NOT_WALKED = -1;
+
+    /**
+     * get the root state
+     *
+     * @return root state
+     */
+    abstract int root();
+
+    /**
+     * get the key of a char of the line, which is passed to next(int, char)
+     *
+     * @param c the char of the line
+     * @return the key of the char, Alphabet.UNKNOWN if the char is not in the alphabet
+     */
+    abstract char code(char c);
+
+    /**
+     * get the next state of the key of a char
+     *
+     * @param state current state
+     * @param code  the key of the char, see code(char), never Alphabet.UNKNOWN
+     * @return the next state, NONE if not exists
+     */
+    abstract int next(int state, char code);
+
+    /**
+     * get the next state of the space of a word (e.g "man go")
+     *
+     * @param state current state
+     * @return the next state, NONE if not exists
+     */
+    abstract int nextSpace(int state);
+
+    /**
+     * whether a word of the dictionary can end at the state
+     *
+     * @param state current state
+     * @return true if a word ends here
+     */
+    abstract boolean isWordEnd(int state);
+
+    @Override
+    public BreakResult breakLine(String line) {
+        char[] chars = line.toCharArray();
+        return breakLine(chars, chars.length);
+    }
+
+    @Override
+    public BreakResult breakLine(char[] chars, int length) {
+        BreakResult result = new BreakResult(length);
+        breakNext(chars, 0, length, result);
+        return result;
+    }
+
+    @Override
+    public void breakLine(char[] chars, int from, int to, BreakResult result) {
+        breakNext(chars, from, to, result);
+    }
+
+    /**
+     * walk the states once from every offset of the line, every state of a word end met is an edge of the lattice
+     * a word with space is walked through the space state between two chars of the line,
+     * so there can be more than one state at the same time (the frontier)
+     */
+    @Override
+    public WordLattice lattice(String line) {
+        char[] chars = line.toCharArray();
+        WordLattice.Builder builder = new WordLattice.Builder(chars);
+        int root = root();
+        int[] states = new int[4];
+        int[] marks = new int[4];
+        int[] nextStates = new int[4];
+        int[] nextMarks = new int[4];
+        for (int start = 0; start < chars.length; start++) {
+            builder.reset();
+            states[0] = root;
+            marks[0] = WordLattice.Builder.NO_MARK;
+            int size = 1;
+            for (int index = start; index < chars.length && size > 0; index++) {
+                char c = code(chars[index]);
+                if (c == Alphabet.UNKNOWN) {
+                    break;
+                }
+                int nextSize = 0;
+                for (int i = 0; i < size; i++) {
+                    int follow = next(states[i], c);
+                    int spaceState = index > start ? nextSpace(states[i]) : NONE;
+                    int spaceFollow = spaceState == NONE ? NONE : next(spaceState, c);
+                    if (nextSize + 2 > nextStates.length) {
+                        nextStates = Arrays.copyOf(nextStates, nextStates.length << 1);
+                        nextMarks = Arrays.copyOf(nextMarks, nextMarks.length << 1);
+                    }
+                    if (follow != NONE) {
+                        nextStates[nextSize] = follow;
+                        nextMarks[nextSize++] = marks[i];
+                    }
+                    if (spaceFollow != NONE) {
+                        nextStates[nextSize] = spaceFollow;
+                        nextMarks[nextSize++] = builder.mark(index, marks[i]);
+                    }
+                }
+
+                int[] swap = states;
+                states = nextStates;
+                nextStates = swap;
+                swap = marks;
+                marks = nextMarks;
+                nextMarks = swap;
+                size = nextSize;
+                for (int i = 0; i < size; i++) {
+                    if (isWordEnd(states[i])) {
+                        builder.add(start, index + 1, marks[i]);
+                    }
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * get the next state of a char in the line
+     *
+     * @param state current state
+     * @param c     the char in the line
+     * @return the next state, NONE if the char is not in the alphabet or not exists
+     */
+    private int nextOfLine(int state, char c) {
+        char code = code(c);
+        return code == Alphabet.UNKNOWN ? NONE : next(state, code);
+    }
+
+    /**
+     * break the chars one by one from root
+     * it is a loop over the chars with the current state as the only state, instead of a recursion per char,
+     * so the stack depth is constant however long the line is
+     * <p>
+     * a char which is not in the alphabet is appended as it is, like a char which can not follow the current state,
+     * and the break goes on with the chars after it; the chars of the line are appended by appendLineChar(), so one
+     * which is the same as a mark (e.g a "?" of the line) is never taken as a break
+     * <p>
+     * the greedy walk of the current path (whether the following chars end a word along it) is the same walk from
+     * every state of the path, so it is walked once per path instead of once per char: it is kept until the break
+     * leaves the path, and only the walk from the root is left for every position (at most the longest word)
+     * <p>
+     * an engine may walk its own structure instead of the states (see AbstractTrieNode), the result must be the same
+     *
+     * @param chars  chars of the line
+     * @param from   the first char of the line
+     * @param to     the end of the line (exclusive)
+     * @param result the result to append
+     */
+    void breakNext(char[] chars, int from, int to, BreakResult result) {
+        int root = root();
+        int state = root;
+        // the next state of the current char if it is found already, or NONE
+        int found = NONE;
+        // the greedy walk of the current path: NOT_WALKED, or whether it ends a word
+        int pathWalk = NOT_WALKED;
+        int index = from;
+        while (index < to) {
+            char currChar = chars[index];
+            result.appendLineChar(currChar);
+
+            int currState = found != NONE ? found : nextOfLine(state, currChar);
+            found = NONE;
+            if (index == to - 1) {
+                if (currState == NONE || !isWordEnd(currState)) {
+                    result.append(SPLIT_OF_ERROR_BREAK);
+                }
+                return;
+            }
+
+            if (currState == NONE) {
+                result.append(SPLIT_OF_ERROR_BREAK).append(SPLIT_OF_NORMAL_BREAK);
+                index++;
+                state = root;
+                pathWalk = NOT_WALKED;
+                continue;
+            }
+
+            // the next char of the line: decide whether to break by it
+            int follow = nextOfLine(currState, chars[++index]);
+            // the next char can not follow the current char
+            if (follow == NONE) {
+                int spaceState = nextSpace(currState);
+                // and the current word can not be followed by space either
+                if (spaceState == NONE) {
+                    // no word ends here: append error mark
+                    if (!isWordEnd(currState)) {
+                        result.append(SPLIT_OF_ERROR_BREAK).append(SPLIT_OF_NORMAL_BREAK);
+                    } else {
+                        result.append(SPLIT_OF_NORMAL_BREAK);
+                    }
+                    state = root;
+                    pathWalk = NOT_WALKED;
+                    continue;
+                }
+
+                // the current word can be followed by space: the path of the space is walked
+                pathWalk = walk(spaceState, chars, to, index);
+                switch (followCharCanBeDepend(pathWalk, chars, to, index)) {
+                    case 0:
+                        // the following chars can not make up a word along the space
+                        result.append(SPLIT_OF_NORMAL_BREAK);
+                        state = root;
+                        pathWalk = NOT_WALKED;
+                        continue;
+                    case 1:
+                        // the following chars can make up a word alone
+                        result.append(SPLIT_OF_POSSIBLE_BREAK);
+                        break;
+                    default:
+                        // the following chars can only follow the space
+                        result.append(SPLIT_OF_NORMAL_BREAK);
+                        break;
+                }
+                state = spaceState;
+                continue;
+            }
+
+            // the next char can follow the current char, but a word may end here too: mark as possible
+            if (isWordEnd(currState)) {
+                if (pathWalk == NOT_WALKED) {
+                    pathWalk = walk(currState, chars, to, index);
+                }
+                switch (followCharCanBeDepend(pathWalk, chars, to, index)) {
+                    case 0:
+                        // the following chars can not make up a word along the current one
+                        result.append(SPLIT_OF_NORMAL_BREAK);
+                        state = root;
+                        pathWalk = NOT_WALKED;
+                        continue;
+                    case 1:
+                        // the following chars can make up a word alone
+                        result.append(SPLIT_OF_POSSIBLE_BREAK);
+                        break;
+                    default:
+                        // the following chars can only follow the current one
+                        break;
+                }
+            } else {
+                int spaceState = nextSpace(currState);
+                if (spaceState != NONE) {
+                    if (pathWalk == NOT_WALKED) {
+                        pathWalk = walk(currState, chars, to, index);
+                    }
+                    // the following chars can not make up a word along the current one
+                    if (pathWalk == 0) {
+                        result.append(SPLIT_OF_NORMAL_BREAK);
+                        state = root;
+                        pathWalk = NOT_WALKED;
+                        continue;
+                    }
+                    result.append(SPLIT_OF_POSSIBLE_BREAK);
+                    // the break goes on along the space, not the path walked
+                    state = spaceState;
+                    pathWalk = NOT_WALKED;
+                    continue;
+                }
+            }
+
+            state = currState;
+            found = follow;
+        }
+    }
+
+    /**
+     * whether the following chars can make up a word independently
+     *
+     * @param pathWalk the greedy walk of the current path, whether the following chars end a word along it
+     * @param chars    chars of the line
+     * @param to       the end of the line (exclusive)
+     * @param index    current index
+     * @return 0 if the following chars can not follow current state,
+     * 1 if they can make up a word alone, -1 if they can only follow current state
+     */
+    private int followCharCanBeDepend(int pathWalk, char[] chars, int to, int index) {
+        // if the following chars can not end a word along the current state, break first
+        if (pathWalk == 0) {
+            return 0;
+        }
+
+        // if the following chars can make up a word alone
+        if (fistWord(root(), chars, to, index)) {
+            return 1;
+        }
+
+        return -1;
+    }
+
+    /**
+     * the greedy walk from a state of the current path, as the memo of the path
+     *
+     * @param state  the state of the path
+     * @param chars  chars of the line
+     * @param to     the end of the line (exclusive)
+     * @param index  current index
+     * @return 1 if the first word is found, 0 if it is broken wrong
+     */
+    private int walk(int state, char[] chars, int to, int index) {
+        return fistWord(state, chars, to, index) ? 1 : 0;
+    }
+
+    /**
+     * find the first word (greedy mode)
+     *
+     * @param state  current state
+     * @param chars  chars of the line
+     * @param to     the end of the line (exclusive)
+     * @param index  current index
+     * @return false if the first word is broken wrong
+     */
+    private boolean fistWord(int state, char[] chars, int to, int index) {
+        int currState = nextOfLine(state, chars[index]);
+        if (currState == NONE) {
+            return false;
+        }
+
+        while (index < to - 1) {
+            int follow = nextOfLine(currState, chars[++index]);
+            if (follow == NONE) {
+                return isWordEnd(currState);
+            }
+            currState = follow;
+        }
+        return isWordEnd(currState);
+    }
+
+}
@@ -0,0 +1,509 @@
+package com.quinn.interview.breakword.model;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * the common part of the ITrieNode implementations which organize the dictionary as an object graph
+ * the break algorithm only depends on three operations of a node:
+ * 1 find the child node of a char
+ * 2 find (or create) the child node of a char when adding a word
+ * 3 judge whether a word can end at the node
+ * so the subclasses just decide how to store the children (array, map ...)
+ * <p>
+ * the space of a word (e.g "man go") is stored as a child of code Alphabet.SPACE
+ * <p>
+ * the nodes of a dictionary share one Alphabet: a node is found by the code of the char instead of the char,
+ * so the chars of a line are looked up in the alphabet once, and a char which is not in it (e.g a digit
+ * when there is no digit in the words) is passed through as a char which can not follow any node
+ * <p>
+ * the break algorithms are the ones of AbstractStateTrieNode: every node has an id in the TrieNodeTable of
+ * the root node, the state of the node is its id with a bit of the word end (so a word end is told by the state
+ * without finding the node), and the key of a char is its code in the alphabet
+ * <p>
+ * except the break of a line, which is the hot path of the default engine: it walks the nodes themselves, so a char
+ * costs the read of the children of a node only, not the read of the table of ids as well (see breakNext())
+ *
+ * @param <T> the implementation type itself
+ * @author Qunhua.Liao
+ * @see AbstractStateTrieNode
+ * @since 2020-10-13
+ */
+abstract class AbstractTrieNode<T extends AbstractTrieNode<T>> extends AbstractStateTrieNode {
+
+    /**
+     * Constructor
+     *
+     * @param data     the code of current char
+     * @param alphabet the alphabet of the dictionary
+     * @param root     whether it is a root node, which has the ids of the nodes added to it
+     */
+    AbstractTrieNode(char data, Alphabet alphabet, boolean root) {
+        this.data = data;
+        this.alphabet = alphabet;
+        if (root) {
+            this.nodes = new TrieNodeTable();
+            // no word ends at a new root node
+            this.state = nodes.add(this) << 1;
+        }
+    }
+
+    /**
+     * the code of the char that current node holds
+     */
+    @SuppressWarnings("unused")
+    protected final char data;
+
+    /**
+     * the alphabet of the dictionary, shared by all nodes
+     */
+    protected final Alphabet alphabet;
+
+    /**
+     * the state of the node: the id of the node in the table of its root node << 1, and the lowest bit is set if
+     * a word ends at the node; NONE if it is not added to any root yet
+     */
+    private int state = NONE;
+
+    /**
+     * the ids of the nodes, null if it is not a root node
+     */
+    private TrieNodeTable nodes;
+
+    /**
+     * get the child node of the code
+     *
+     * @param code the code of the char (never Alphabet.UNKNOWN)
+     * @return the child node, null if not exists
+     */
+    protected abstract T next(char code);
+
+    /**
+     * get the child node of the code, create it if not exists
+     *
+     * @param code the code of the char of the word to be added
+     * @return the child node
+     */
+    protected abstract T nextOrCreate(char code);
+
+    /**
+     * create an empty root node of the same alphabet, e.g to build a part of the dictionary
+     *
+     * @return the root node
+     */
+    protected abstract T newRoot();
+
+    /**
+     * whether a word of the dictionary can end at this node
+     *
+     * @return true if a word ends here
+     */
+    protected abstract boolean isWordEnd();
+
+    /**
+     * mark that a word of the dictionary ends at this node
+     */
+    protected abstract void markWordEnd();
+
+    /**
+     * mark that no word of the dictionary ends at this node
+     */
+    protected abstract void unmarkWordEnd();
+
+    /**
+     * whether the node has any child node
+     *
+     * @return true if any char can follow this node
+     */
+    protected abstract boolean hasChildren();
+
+    /**
+     * remove the child node of the code
+     *
+     * @param code the code of the char
+     */
+    protected abstract void removeChild(char code);
+
+    /**
+     * put a child node of its code (the data of the child), the child of the same code is replaced
+     *
+     * @param child the child node
+     */
+    protected abstract void putChild(T child);
+
+    /**
+     * visit all child nodes
+     *
+     * @param action the action for every child node
+     */
+    protected abstract void forEachChild(Consumer<T> action);
+
+    /**
+     * release the storage of the children which is not used any more (e.g after removing),
+     * nothing to release by default
+     */
+    protected void compactChildren() {
+    }
+
+    /**
+     * the alphabet of the dictionary
+     *
+     * @return the alphabet
+     */
+    Alphabet alphabet() {
+        return alphabet;
+    }
+
+    @Override
+    public void addWord(String word) {
+        AbstractTrieNode<T> node = this;
+        for (int i = 0; i < word.length(); i++) {
+            node = nextOrCreate(node, alphabet.add(word.charAt(i)));
+        }
+        node.markWordEnd();
+        node.updateState();
+    }
+
+    /**
+     * give the node an id of this root node
+     *
+     * @param node the node
+     */
+    private void register(AbstractTrieNode<?> node) {
+        node.state = nodes.add(node) << 1;
+        node.updateState();
+    }
+
+    /**
+     * update the bit of the word end in the state, after the word end is marked or unmarked
+     */
+    private void updateState() {
+        state = isWordEnd() ? state | 1 : state & ~1;
+    }
+
+    /**
+     * get the child node of the code, create it and give it an id if not exists
+     *
+     * @param node the node of the path of a word added to this root node
+     * @param code the code of the char of the word
+     * @return the child node
+     */
+    private AbstractTrieNode<T> nextOrCreate(AbstractTrieNode<T> node, char code) {
+        AbstractTrieNode<T> child = node.nextOrCreate(code);
+        if (child.state == NONE) {
+            register(child);
+        }
+        return child;
+    }
+
+    /**
+     * add a word of the bytes in the buffer, a byte is a char (the bytes must be ASCII),
+     * so the word is added without a String of it
+     *
+     * @param bytes the buffer
+     * @param from  the first byte of the word
+     * @param to    the end of the word (exclusive)
+     * @return false if the word is in the trie already
+     */
+    boolean addWord(ByteBuffer bytes, int from, int to) {
+        AbstractTrieNode<T> node = this;
+        for (int i = from; i < to; i++) {
+            node = nextOrCreate(node, alphabet.add((char) bytes.get(i)));
+        }
+        if (node.isWordEnd()) {
+            return false;
+        }
+        node.markWordEnd();
+        node.updateState();
+        return true;
+    }
+
+    /**
+     * unmark the word end, and prune the chain of nodes which does not lead to any word any more
+     * (from the last char back to the first one, until a node is a word end or has other children)
+     */
+    @Override
+    public boolean removeWord(String word) {
+        Object[] path = new Object[word.length() + 1];
+        char[] codes = new char[word.length()];
+        AbstractTrieNode<T> node = this;
+        path[0] = node;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            codes[i] = c == SPLIT_OF_NORMAL_BREAK ? Alphabet.SPACE : alphabet.index(c);
+            node = codes[i] == Alphabet.UNKNOWN ? null : node.next(codes[i]);
+            if (node == null) {
+                return false;
+            }
+            path[i + 1] = node;
+        }
+        if (!node.isWordEnd()) {
+            return false;
+        }
+
+        node.unmarkWordEnd();
+        node.updateState();
+        for (int i = word.length(); i > 0; i--) {
+            AbstractTrieNode<?> child = (AbstractTrieNode<?>) path[i];
+            if (child.isWordEnd() || child.hasChildren()) {
+                break;
+            }
+            ((AbstractTrieNode<?>) path[i - 1]).removeChild(codes[i - 1]);
+            nodes.remove(child.state >> 1);
+            child.state = NONE;
+        }
+        return true;
+    }
+
+    /**
+     * attach all children of another root node to this node, and the word end of it (the empty word),
+     * the nodes are moved instead of copied
+     * <p>
+     * the children of the other root must not have the same chars as the children of this node
+     * (e.g the words of the other root start with other letters), so the roots which are built
+     * by different threads at the same time can be merged into one without locking
+     * <p>
+     * the nodes attached get their ids of this root node
+     *
+     * @param other the other root node of the same alphabet (see newRoot()), it must not be used any more
+     */
+    void attachChildren(AbstractTrieNode<T> other) {
+        Deque<AbstractTrieNode<T>> stack = new ArrayDeque<>();
+        other.forEachChild((child) -> {
+            putChild(child);
+            stack.push(child);
+        });
+        while (!stack.isEmpty()) {
+            AbstractTrieNode<T> node = stack.pop();
+            register(node);
+            node.forEachChild(stack::push);
+        }
+        if (other.isWordEnd()) {
+            markWordEnd();
+            updateState();
+        }
+    }
+
+    /**
+     * compact the children of every node, by a stack instead of a recursion,
+     * and number the nodes again so the ids of the nodes removed are released
+     */
+    @Override
+    public void compact() {
+        Deque<AbstractTrieNode<T>> stack = new ArrayDeque<>();
+        nodes.clear(nodes.size());
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            AbstractTrieNode<T> node = stack.pop();
+            node.compactChildren();
+            register(node);
+            node.forEachChild(stack::push);
+        }
+    }
+
+    /**
+     * the same break as AbstractStateTrieNode.breakNext(), on the nodes instead of their states
+     */
+    @Override
+    void breakNext(char[] chars, int from, int to, BreakResult result) {
+        AbstractTrieNode<?> node = this;
+        // the next node of the current char if it is found already, or null
+        AbstractTrieNode<?> found = null;
+        // the greedy walk of the current path: NOT_WALKED, or whether it ends a word
+        int pathWalk = NOT_WALKED;
+        int index = from;
+        while (index < to) {
+            char currChar = chars[index];
+            result.appendLineChar(currChar);
+
+            AbstractTrieNode<?> currNode = found != null ? found : nextOfLine(node, currChar);
+            found = null;
+            if (index == to - 1) {
+                if (currNode == null || !currNode.isWordEnd()) {
+                    result.append(SPLIT_OF_ERROR_BREAK);
+                }
+                return;
+            }
+
+            if (currNode == null) {
+                result.append(SPLIT_OF_ERROR_BREAK).append(SPLIT_OF_NORMAL_BREAK);
+                index++;
+                node = this;
+                pathWalk = NOT_WALKED;
+                continue;
+            }
+
+            // the next char of the line: decide whether to break by it
+            AbstractTrieNode<?> follow = nextOfLine(currNode, chars[++index]);
+            // the next char can not follow the current char
+            if (follow == null) {
+                AbstractTrieNode<?> spaceNode = currNode.next(Alphabet.SPACE);
+                // and the current word can not be followed by space either
+                if (spaceNode == null) {
+                    // no word ends here: append error mark
+                    if (!currNode.isWordEnd()) {
+                        result.append(SPLIT_OF_ERROR_BREAK).append(SPLIT_OF_NORMAL_BREAK);
+                    } else {
+                        result.append(SPLIT_OF_NORMAL_BREAK);
+                    }
+                    node = this;
+                    pathWalk = NOT_WALKED;
+                    continue;
+                }
+
+                // the current word can be followed by space: the path of the space is walked
+                pathWalk = walk(spaceNode, chars, to, index);
+                switch (followCharCanBeDepend(pathWalk, chars, to, index)) {
+                    case 0:
+                        // the following chars can not make up a word along the space
+                        result.append(SPLIT_OF_NORMAL_BREAK);
+                        node = this;
+                        pathWalk = NOT_WALKED;
+                        continue;
+                    case 1:
+                        // the following chars can make up a word alone
+                        result.append(SPLIT_OF_POSSIBLE_BREAK);
+                        break;
+                    default:
+                        // the following chars can only follow the space
+                        result.append(SPLIT_OF_NORMAL_BREAK);
+                        break;
+                }
+                node = spaceNode;
+                continue;
+            }
+
+            // the next char can follow the current char, but a word may end here too: mark as possible
+            if (currNode.isWordEnd()) {
+                if (pathWalk == NOT_WALKED) {
+                    pathWalk = walk(currNode, chars, to, index);
+                }
+                switch (followCharCanBeDepend(pathWalk, chars, to, index)) {
+                    case 0:
+                        // the following chars can not make up a word along the current one
+                        result.append(SPLIT_OF_NORMAL_BREAK);
+                        node = this;
+                        pathWalk = NOT_WALKED;
+                        continue;
+                    case 1:
+                        // the following chars can make up a word alone
+                        result.append(SPLIT_OF_POSSIBLE_BREAK);
+                        break;
+                    default:
+                        // the following chars can only follow the current one
+                        break;
+                }
+            } else {
+                AbstractTrieNode<?> spaceNode = currNode.next(Alphabet.SPACE);
+                if (spaceNode != null) {
+                    if (pathWalk == NOT_WALKED) {
+                        pathWalk = walk(currNode, chars, to, index);
+                    }
+                    // the following chars can not make up a word along the current one
+                    if (pathWalk == 0) {
+                        result.append(SPLIT_OF_NORMAL_BREAK);
+                        node = this;
+                        pathWalk = NOT_WALKED;
+                        continue;
+                    }
+                    result.append(SPLIT_OF_POSSIBLE_BREAK);
+                    // the break goes on along the space, not the path walked
+                    node = spaceNode;
+                    pathWalk = NOT_WALKED;
+                    continue;
+                }
+            }
+
+            node = currNode;
+            found = follow;
+        }
+    }
+
+    /**
+     * get the child node of a char in the line
+     *
+     * @param node current node
+     * @param c    the char in the line
+     * @return the child node, null if the char is not in the alphabet or not exists
+     */
+    private AbstractTrieNode<?> nextOfLine(AbstractTrieNode<?> node, char c) {
+        char code = alphabet.index(c);
+        return code == Alphabet.UNKNOWN ? null : node.next(code);
+    }
+
+    /**
+     * whether the following chars can make up a word independently, see AbstractStateTrieNode
+     *
+     * @return 0 if the following chars can not follow current node,
+     * 1 if they can make up a word alone, -1 if they can only follow current node
+     */
+    private int followCharCanBeDepend(int pathWalk, char[] chars, int to, int index) {
+        if (pathWalk == 0) {
+            return 0;
+        }
+        return firstWord(this, chars, to, index) ? 1 : -1;
+    }
+
+    /**
+     * the greedy walk from a node of the current path, as the memo of the path
+     *
+     * @return 1 if the first word is found, 0 if it is broken wrong
+     */
+    private int walk(AbstractTrieNode<?> node, char[] chars, int to, int index) {
+        return firstWord(node, chars, to, index) ? 1 : 0;
+    }
+
+    /**
+     * find the first word from a node (greedy mode)
+     *
+     * @param node  current node
+     * @param chars chars of the line
+     * @param to    the end of the line (exclusive)
+     * @param index current index
+     * @return false if the first word is broken wrong
+     */
+    private boolean firstWord(AbstractTrieNode<?> node, char[] chars, int to, int index) {
+        AbstractTrieNode<?> currNode = nextOfLine(node, chars[index]);
+        if (currNode == null) {
+            return false;
+        }
+
+        while (index < to - 1) {
+            AbstractTrieNode<?> follow = nextOfLine(currNode, chars[++index]);
+            if (follow == null) {
+                return currNode.isWordEnd();
+            }
+            currNode = follow;
+        }
+        return currNode.isWordEnd();
+    }
+
+    @Override
+    int root() {
+        return state;
+    }
+
+    @Override
+    char code(char c) {
+        return alphabet.index(c);
+    }
+
+    @Override
+    int next(int state, char code) {
+        AbstractTrieNode<?> follow = nodes.get(state >> 1).next(code);
+        return follow == null ? NONE : follow.state;
+    }
+
+    @Override
+    int nextSpace(int state) {
+        return next(state, Alphabet.SPACE);
+    }
+
+    @Override
+    boolean isWordEnd(int state) {
+        return (state & 1) != 0;
+    }
+
+}
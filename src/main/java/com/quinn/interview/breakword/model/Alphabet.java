@@ -0,0 +1,204 @@
+package com.quinn.interview.breakword.model;
+
+import com.quinn.interview.breakword.api.ITrieNode;
+
+import java.util.Arrays;
+
+/**
+ * the alphabet of a dictionary: the real chars of its words, mapped to dense codes from 2,
+ * so a trie node does not need a slot for every char of unicode (or of 'a' to 'z' only),
+ * e.g the array of an ArrayTrieNode covers the codes of its children, which are close if the alphabet is small
+ * <p>
+ * code 0 is the char which is not in the alphabet (it can not follow any node, it is passed through by the break),
+ * code 1 is the space of a word (e.g "man go"), the other chars of the words have the codes in the order they are met
+ * <p>
+ * the chars are case folded: the upper case and the lower case of a letter have the same code,
+ * so "Samsung" and "samsung" are the same word
+ * <p>
+ * the code of a char is one read of the table indexed by the char, the table is as long as the largest char met
+ * <p>
+ * ** an alphabet grows when a word with new chars is added, it is not thread safe to add words at the same time,
+ * ** but the codes of the chars met already never change
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public final class Alphabet {
+
+    /**
+     * the code of the chars which are not in the alphabet
+     */
+    public static final char UNKNOWN = 0;
+
+    /**
+     * the code of the space of a word
+     */
+    public static final char SPACE = 1;
+
+    /**
+     * the initial size of the table, for the ASCII chars
+     */
+    private static final int INIT_TABLE_SIZE = 128;
+
+    /**
+     * the code of every char, indexed by the char
+     */
+    private char[] codes = new char[INIT_TABLE_SIZE];
+
+    /**
+     * the (lower case) char of every code
+     */
+    private char[] chars = new char[16];
+
+    /**
+     * num of codes, including UNKNOWN and SPACE
+     */
+    private int size;
+
+    /**
+     * Constructor, an alphabet of no chars
+     */
+    public Alphabet() {
+        chars[UNKNOWN] = UNKNOWN;
+        chars[SPACE] = ITrieNode.SPLIT_OF_NORMAL_BREAK;
+        size = SPACE + 1;
+    }
+
+    /**
+     * create the alphabet of the chars of the words
+     *
+     * @param words words
+     * @return the alphabet
+     */
+    public static Alphabet of(Iterable<String> words) {
+        Alphabet alphabet = new Alphabet();
+        for (String word : words) {
+            alphabet.addAll(word);
+        }
+        return alphabet;
+    }
+
+    /**
+     * get the code of a char of a line
+     * the space is UNKNOWN as well, it is a char of a word but not of a line
+     *
+     * @param c the char
+     * @return the code, UNKNOWN if the char is not in the alphabet
+     */
+    public char index(char c) {
+        char[] codes = this.codes;
+        return c < codes.length ? codes[c] : UNKNOWN;
+    }
+
+    /**
+     * get the code of a char of a word, the char is added to the alphabet if it is not in yet
+     *
+     * @param c the char
+     * @return the code
+     */
+    public char add(char c) {
+        if (c == ITrieNode.SPLIT_OF_NORMAL_BREAK) {
+            return SPACE;
+        }
+        char code = index(c);
+        if (code != UNKNOWN) {
+            return code;
+        }
+        if (c == UNKNOWN) {
+            throw new IllegalArgumentException("char '\\0' can not be added to the alphabet");
+        }
+
+        char lower = Character.toLowerCase(c);
+        code = index(lower);
+        if (code == UNKNOWN) {
+            if (size > Character.MAX_VALUE) {
+                throw new IllegalStateException("too many chars in the alphabet");
+            }
+            code = (char) size;
+            if (size == chars.length) {
+                chars = Arrays.copyOf(chars, size << 1);
+            }
+            chars[size++] = lower;
+            put(lower, code);
+            char upper = Character.toUpperCase(lower);
+            if (Character.toLowerCase(upper) == lower) {
+                put(upper, code);
+            }
+        }
+        put(c, code);
+        return code;
+    }
+
+    /**
+     * add all chars of a word
+     *
+     * @param word the word
+     */
+    public void addAll(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            add(word.charAt(i));
+        }
+    }
+
+    /**
+     * add all chars of another alphabet, in the order of the chars (instead of the order of their codes)
+     *
+     * @param other the other alphabet
+     */
+    public void addAll(Alphabet other) {
+        char[] otherCodes = other.codes;
+        for (int c = 0; c < otherCodes.length; c++) {
+            if (otherCodes[c] != UNKNOWN) {
+                add((char) c);
+            }
+        }
+    }
+
+    /**
+     * get the (lower case) char of a char of a line
+     *
+     * @param c the char
+     * @return the char of its code, UNKNOWN if the char is not in the alphabet
+     */
+    public char fold(char c) {
+        return chars[index(c)];
+    }
+
+    /**
+     * whether the char of a line is in the alphabet
+     *
+     * @param c the char
+     * @return true if the char has a code
+     */
+    public boolean contains(char c) {
+        return index(c) != UNKNOWN;
+    }
+
+    /**
+     * num of codes, including UNKNOWN and SPACE, a code is always less than it
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * the (lower case) chars of the alphabet and the space, in ascending order
+     *
+     * @return the chars
+     */
+    char[] sortedChars() {
+        char[] sorted = Arrays.copyOfRange(chars, SPACE, size);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private void put(char c, char code) {
+        if (c >= codes.length) {
+            codes = Arrays.copyOf(codes, Math.max(c + 1, Math.min(codes.length << 1, Character.MAX_VALUE + 1)));
+        }
+        codes[c] = code;
+    }
+
+}
@@ -4,270 +4,335 @@ import com.quinn.interview.breakword.api.ITrieNode;
 import com.quinn.interview.breakword.api.ITrieNodeSupplier;
 import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
 
+import java.util.Arrays;
+import java.util.function.Consumer;
+
 /**
  * the min unit of a dictionary to store information, and it can be structured as a tree
  * which contains the current char and a char array that can append to the current char to make up a word
  * <p>
- * when a word can be broken, we place SPLIT_OF_WORD('\t') at the 1st position of the array (array[0])
- * and if a word can be break by blank itself (e.g "man go"), then we place ' ' at the 2nd position of the array
- * and we place 'a' at the 3th position, 'b' at the 4th position and so on (if the char can follow after the current)
+ * the chars which can follow after the current char are placed at the positions of their codes in the alphabet
+ * of the dictionary, offset by the least code of them: the array of a node only covers the codes from its least
+ * child to its largest child, e.g 'h' at the 1st position of a node whose children are 'h' to 'o'
+ * and if a word can be break by blank itself (e.g "man go"), then ' ' is the child of code Alphabet.SPACE
+ * <p>
+ * so the array is as long as the range of the codes of the children (not 28 for 'a' to 'z' only, nor as long as
+ * the alphabet, nor 65536 for all chars): a leaf node has no array at all, and a node of a single child has
+ * an array of one, however large the alphabet is; the array grows when a child out of the range is added,
+ * and it is trimmed to the range by compact()
+ * <p>
+ * when the children are sparse in their range (e.g a few children of an alphabet of thousands of chars),
+ * the node keeps the codes of the children in ascending order next to the array instead, and a child is found
+ * by binary search, so a node never costs much more than the slots of its children
  * <p>
- * so the path of "hello" in the tree is '\t'(root) -> 'h' -> 'e' -> 'l' -> 'l' -> 'o' -> '\t'
+ * a word ends at a node when its wordEnd is set, so the path of "hello" in the tree is
+ * '\t'(root) -> 'h' -> 'e' -> 'l' -> 'l' -> 'o'(wordEnd)
  * and so when the dictionary has two words "hell", "hello", then the tree structure is like blow (...)
- * '\t'(root) -> 'h' -> 'e' -> 'l' -> 'l' -> 'o' -> '\t'
- *                                        -> '\t'
+ * '\t'(root) -> 'h' -> 'e' -> 'l' -> 'l'(wordEnd) -> 'o'(wordEnd)
  *
  * @author Qunhua.Liao
+ * @see Alphabet
  * @since 2020-10-13
  */
-public class ArrayTrieNode implements ITrieNode {
+public class ArrayTrieNode extends AbstractTrieNode<ArrayTrieNode> {
+
+    /**
+     * the array of the node which has no child
+     */
+    private static final ArrayTrieNode[] NO_CHARS = new ArrayTrieNode[0];
+
+    /**
+     * the children are sparse when their range of codes is more than SPARSE_RATE times the num of them
+     */
+    private static final int SPARSE_RATE = 4;
+
+    /**
+     * the sparse children are indexed by the codes again when their range of codes is at most DENSE_RATE times
+     * the num of them (less than SPARSE_RATE, so a node does not turn back and forth while adding children)
+     */
+    private static final int DENSE_RATE = 2;
 
     /**
-     * the min offset of the array length,
-     * we use 'z' - 2 MIN_CHAR_OF_ENGLISH to get the length of array (2 space more than the size of english letter)
-     * we use c - MIN_CHAR_OF_ENGLISH to get the offset of c in the array
-     * position 0 is used to locate '\t'
-     * position 1 is used to locate ' '
+     * the range of codes less than this is never sparse
      */
-    private static final char MIN_CHAR_OF_ENGLISH = 'a' - 2;
+    private static final int MIN_SPARSE_RANGE = 16;
 
     /**
-     * Constructor
+     * Constructor of a root node, with a new alphabet
      *
      * @param data current char
      */
     public ArrayTrieNode(char data) {
-        this.data = data;
+        this(data, new Alphabet(), true);
+    }
+
+    private ArrayTrieNode(char data, Alphabet alphabet, boolean root) {
+        super(data, alphabet, root);
     }
 
     /**
-     * the char that current node holds
+     * array to locate all possible chars that can follow after current char, indexed by the code of the char
+     * minus firstCode (the codes between the children are null), or by the position of the code in codes
      */
-    @SuppressWarnings("unused")
-    private final char data;
+    private ArrayTrieNode[] nextChars = NO_CHARS;
+
+    /**
+     * the code of the char at nextChars[0], if codes is null
+     */
+    private char firstCode;
+
+    /**
+     * the codes of the children in ascending order if they are sparse, null if nextChars is indexed by the code
+     */
+    private char[] codes;
+
+    /**
+     * num of the codes used in codes (the rest is the spare capacity), a char is enough as there are no more
+     * children than the chars
+     */
+    private char sparseSize;
 
     /**
-     * array to locate all possible chars that can follow after current char
-     * TODO this may produce to many null element in the array (so we can use Map Implement instead)
+     * whether a word of the dictionary ends at this node
      */
-    private final ArrayTrieNode[] nextChars = new ArrayTrieNode['z' - MIN_CHAR_OF_ENGLISH];
+    private boolean wordEnd;
 
     @Override
-    public void addWord(String word) {
-        addNext(word.toCharArray(), 0);
+    protected ArrayTrieNode next(char code) {
+        ArrayTrieNode[] nextChars = this.nextChars;
+        char[] codes = this.codes;
+        int slot = codes == null ? code - firstCode : Arrays.binarySearch(codes, 0, sparseSize, code);
+        return slot >= 0 && slot < nextChars.length ? nextChars[slot] : null;
     }
 
     @Override
-    public BreakResult breakLine(String line) {
-        char[] chars = line.toCharArray();
-        BreakResult result = new BreakResult(chars.length);
-        breakNext(chars, result, 0, this);
-        return result;
+    protected ArrayTrieNode nextOrCreate(char code) {
+        int slot = slotOf(code);
+        ArrayTrieNode nextChar = nextChars[slot];
+        if (nextChar == null) {
+            nextChar = new ArrayTrieNode(code, alphabet, false);
+            nextChars[slot] = nextChar;
+        }
+        return nextChar;
     }
 
     /**
-     * 添加下一级节点
+     * get the position of the code in the array, the array is grown to cover the code if it is out of the range
+     * (by half of the array more, at most to the end of the alphabet, so adding the chars one by one
+     * does not copy the array for every char), or the children become sparse if the range is too large for them
      *
-     * @param array 字典中单条记录
-     * @param index 对应的下标
+     * @param code the code of the child
+     * @return the position of the code
      */
-    private void addNext(char[] array, int index) {
-        if (index >= array.length) {
-            if (nextChars[0] == null) {
-                nextChars[0] = new ArrayTrieNode(SPLIT_OF_WORD);
-            }
-            return;
+    private int slotOf(char code) {
+        if (codes != null) {
+            return sparseSlotOf(code);
         }
-
-        char c = array[index];
-        int pos = c - MIN_CHAR_OF_ENGLISH;
-
-        // TODO 此处如果特殊字符不止有空格：需要改变方案
-        if (pos <= 0) {
-            pos = 1;
+        if (nextChars.length == 0) {
+            nextChars = new ArrayTrieNode[1];
+            firstCode = code;
+            return 0;
+        }
+        int slot = code - firstCode;
+        if (slot >= 0 && slot < nextChars.length) {
+            return slot;
         }
 
-        ArrayTrieNode nextChar = nextChars[pos];
-        if (nextChar == null) {
-            nextChar = new ArrayTrieNode(c);
-            nextChars[pos] = nextChar;
+        int range = slot < 0 ? nextChars.length - slot : slot + 1;
+        if (isSparse(range, children() + 1)) {
+            toSparse();
+            return sparseSlotOf(code);
         }
-        nextChar.addNext(array, ++index);
+        if (slot < 0) {
+            ArrayTrieNode[] grown = new ArrayTrieNode[range];
+            System.arraycopy(nextChars, 0, grown, -slot, nextChars.length);
+            nextChars = grown;
+            firstCode = code;
+            return 0;
+        }
+        int length = Math.min(nextChars.length + (nextChars.length >> 1), alphabet.size() - firstCode);
+        nextChars = Arrays.copyOf(nextChars, Math.max(range, length));
+        return slot;
     }
 
     /**
-     * 断下一个
+     * get the position of the code in the sparse children, the code is inserted if it is not there
+     * (the arrays grow by half more when they are full, or the children are indexed by the codes again
+     * if they are not sparse any more)
      *
-     * @param chars  原句子字符数字
-     * @param result 拼接结果
-     * @param index  下标
+     * @param code the code of the child
+     * @return the position of the code
      */
-    private void breakNext(char[] chars, BreakResult result, int index, ArrayTrieNode root) {
-        if (index >= chars.length) {
-            return;
+    private int sparseSlotOf(char code) {
+        int size = sparseSize;
+        int slot = Arrays.binarySearch(codes, 0, size, code);
+        if (slot >= 0) {
+            return slot;
         }
-
-        char currChar = chars[index];
-        result.append(currChar);
-
-        int currPos = currChar - MIN_CHAR_OF_ENGLISH;
-        if (index == chars.length - 1) {
-            if (nextChars[currPos] == null || nextChars[currPos].nextChars[0] == null) {
-                result.append(SPLIT_OF_ERROR_BREAK);
+        if (size == codes.length) {
+            char least = (char) Math.min(code, codes[0]);
+            int range = Math.max(code, codes[size - 1]) - least + 1;
+            if (range < MIN_SPARSE_RANGE || range <= (size + 1) * DENSE_RATE) {
+                toDense(least, range);
+                return code - least;
             }
-            return;
-        }
-
-        if (currPos <= 0 || currPos >= nextChars.length || nextChars[currPos] == null) {
-            result.append(SPLIT_OF_ERROR_BREAK).append(SPLIT_OF_NORMAL_BREAK);
-            root.breakNext(chars, result, ++index, root);
-            return;
+            codes = Arrays.copyOf(codes, size + (size >> 1) + 1);
+            nextChars = Arrays.copyOf(nextChars, codes.length);
         }
+        slot = -slot - 1;
+        System.arraycopy(codes, slot, codes, slot + 1, size - slot);
+        System.arraycopy(nextChars, slot, nextChars, slot + 1, size - slot);
+        codes[slot] = code;
+        nextChars[slot] = null;
+        sparseSize = (char) (size + 1);
+        return slot;
+    }
 
-        ArrayTrieNode currNode = nextChars[currPos];
-        // 输入参数里面的下一个字符：要根据他判断是否断句
-        char nextChar = chars[++index];
-        // 根据下一个单词获取位置
-        int nextPos = nextChar - MIN_CHAR_OF_ENGLISH;
-
-        // 如果超出字典范围
-        if (nextPos <= 0 || nextPos >= currNode.nextChars.length) {
-            result.append(SPLIT_OF_ERROR_BREAK).append(SPLIT_OF_NORMAL_BREAK);
-            // 如果当前字符不可能跟着下一个字符
-        } else if (currNode.nextChars[nextPos] == null) {
-            // 后面也不可以根空格
-            if (currNode.nextChars[1] == null) {
-                // 如果按照字典，此处没有断词：拼接错误标记
-                if (currNode.nextChars[0] == null) {
-                    result.append(SPLIT_OF_ERROR_BREAK).append(SPLIT_OF_NORMAL_BREAK);
-                } else {
-                    result.append(SPLIT_OF_NORMAL_BREAK);
-                }
-                root.breakNext(chars, result, index, root);
-                // 如果后面可以根空格
-            } else {
-                // 看看空格的nextChars
-                switch (followCharCanBeDepend(currNode.nextChars[1], chars, index, root)) {
-                    case 0:
-                        // 后面字符串拼接不到下一个段词符
-                        result.append(SPLIT_OF_NORMAL_BREAK);
-                        root.breakNext(chars, result, index, root);
-                        return;
-                    case 1:
-                        // 后面的字符串可以单独成词
-                        result.append(SPLIT_OF_POSSIBLE_BREAK);
-                        break;
-                    default:
-                        // 后面胡字符串只能跟在后面
-                        result.append(SPLIT_OF_NORMAL_BREAK);
-                        break;
-                }
-                currNode.nextChars[1].breakNext(chars, result, index, root);
-            }
-            // 如果单词里面跟着这个字符，但是此处也可以断词：判断，标记为疑惑
-        } else {
-            if (currNode.nextChars[0] != null) {
-                switch (followCharCanBeDepend(currNode, chars, index, root)) {
-                    case 0:
-                        // 后面字符串拼接不到下一个段词符
-                        result.append(SPLIT_OF_NORMAL_BREAK);
-                        root.breakNext(chars, result, index, root);
-                        return;
-                    case 1:
-                        // 后面的字符串可以单独成词
-                        result.append(SPLIT_OF_POSSIBLE_BREAK);
-                        break;
-                    default:
-                        // 后面胡字符串只能跟在后面
-                        break;
-                }
-            } else if (currNode.nextChars[1] != null) {
-                // 看看空格的nextChars
-                int iOfNormal = followCharCanBeDepend(currNode, chars, index, root);
-                // 后面字符串拼接不到下一个段词符
-                if (iOfNormal == 0) {
-                    result.append(SPLIT_OF_NORMAL_BREAK);
-                    root.breakNext(chars, result, index, root);
-                    return;
-                    // 后面胡字符串只能跟在后面
-                } else {
-                    result.append(SPLIT_OF_POSSIBLE_BREAK);
-                }
-                currNode.nextChars[1].breakNext(chars, result, index, root);
-                return;
-            }
+    private static boolean isSparse(int range, int children) {
+        return range >= MIN_SPARSE_RANGE && range > children * SPARSE_RATE;
+    }
 
-            currNode.breakNext(chars, result, index, root);
-            // 如果单词后面可以根空格
-        }
+    /**
+     * the code of the child at the position of the array
+     */
+    private char codeAt(int slot) {
+        return codes == null ? (char) (firstCode + slot) : codes[slot];
     }
 
     /**
-     * 接下来的字符串可不可以独立
-     *
-     * @param currNode 当前节点
-     * @param chars    字符串
-     * @param index    下标
-     * @return 可以独立成词就是true
+     * num of the children
      */
-    private int followCharCanBeDepend(ArrayTrieNode currNode, char[] chars, int index, ArrayTrieNode root) {
-        // 如果连接后面的字符再匹配不到断词符号，优先断开
-        StringBuilder query = new StringBuilder();
-        currNode.fistWord(chars, index, query);
-        if (query.charAt(query.length() - 1) == SPLIT_OF_ERROR_BREAK) {
-            return 0;
+    private int children() {
+        int children = 0;
+        for (ArrayTrieNode nextChar : nextChars) {
+            if (nextChar != null) {
+                children++;
+            }
         }
+        return children;
+    }
 
-        // 如果后面胡字符串可以单独成词，返回
-        query.setLength(0);
-        root.fistWord(chars, index, query);
-        if (query.charAt(query.length() - 1) != SPLIT_OF_ERROR_BREAK) {
-            return 1;
+    /**
+     * keep the codes of the children next to them, instead of indexing them by the codes
+     */
+    private void toSparse() {
+        int children = children();
+        char[] sparseCodes = new char[children];
+        ArrayTrieNode[] sparse = new ArrayTrieNode[children];
+        int i = 0;
+        for (int slot = 0; slot < nextChars.length; slot++) {
+            if (nextChars[slot] != null) {
+                sparseCodes[i] = codeAt(slot);
+                sparse[i++] = nextChars[slot];
+            }
         }
-
-        return -1;
+        codes = sparseCodes;
+        sparseSize = (char) children;
+        nextChars = sparse;
     }
 
     /**
-     * 找第一词（饱汉模式）
+     * index the children by the codes
      *
-     * @param chars 全字符数组
-     * @param index 当前下标
-     * @param query 拼接字符串
+     * @param least the least code of the array
+     * @param range the length of the array, it covers all the children
      */
-    private void fistWord(char[] chars, int index, StringBuilder query) {
-        char currChar = chars[index];
-        query.append(currChar);
-        int currPos = currChar - MIN_CHAR_OF_ENGLISH;
-        if (currPos <= 0 || currPos >= nextChars.length || nextChars[currPos] == null) {
-            query.append(SPLIT_OF_ERROR_BREAK);
-            return;
+    private void toDense(char least, int range) {
+        ArrayTrieNode[] dense = new ArrayTrieNode[range];
+        for (int slot = 0; slot < nextChars.length; slot++) {
+            if (nextChars[slot] != null) {
+                dense[codeAt(slot) - least] = nextChars[slot];
+            }
         }
+        nextChars = dense;
+        firstCode = least;
+        codes = null;
+        sparseSize = 0;
+    }
+
+    @Override
+    protected ArrayTrieNode newRoot() {
+        return new ArrayTrieNode(SPLIT_OF_WORD, alphabet, true);
+    }
+
+    @Override
+    protected boolean isWordEnd() {
+        return wordEnd;
+    }
+
+    @Override
+    protected void markWordEnd() {
+        wordEnd = true;
+    }
+
+    @Override
+    protected void unmarkWordEnd() {
+        wordEnd = false;
+    }
 
-        ArrayTrieNode currNode = nextChars[currPos];
-        if (index == chars.length - 1) {
-            if (currNode.nextChars[0] == null) {
-                query.append(SPLIT_OF_ERROR_BREAK);
+    @Override
+    protected boolean hasChildren() {
+        for (ArrayTrieNode nextChar : nextChars) {
+            if (nextChar != null) {
+                return true;
             }
-            return;
         }
+        return false;
+    }
 
-        char nextChar = chars[++index];
-        // 根据下一个单词获取位置
-        int nextPos = nextChar - MIN_CHAR_OF_ENGLISH;
-
-        if (nextPos <= 0 || nextPos >= currNode.nextChars.length) {
-            query.append(SPLIT_OF_ERROR_BREAK);
-            return;
+    @Override
+    protected void removeChild(char code) {
+        int slot = codes == null ? code - firstCode : Arrays.binarySearch(codes, 0, sparseSize, code);
+        if (slot >= 0 && slot < nextChars.length) {
+            nextChars[slot] = null;
         }
+    }
+
+    @Override
+    protected void putChild(ArrayTrieNode child) {
+        int slot = slotOf(child.data);
+        nextChars[slot] = child;
+    }
 
-        if (currNode.nextChars[nextPos] == null) {
-            if (currNode.nextChars[0] == null) {
-                query.append(SPLIT_OF_ERROR_BREAK);
+    @Override
+    protected void forEachChild(Consumer<ArrayTrieNode> action) {
+        for (ArrayTrieNode nextChar : nextChars) {
+            if (nextChar != null) {
+                action.accept(nextChar);
             }
+        }
+    }
+
+    /**
+     * trim the array to the range of the children (or to the children if they are sparse),
+     * no array for a node without children
+     */
+    @Override
+    protected void compactChildren() {
+        int children = children();
+        if (children == 0) {
+            nextChars = NO_CHARS;
+            codes = null;
+            sparseSize = 0;
             return;
         }
-        currNode.fistWord(chars, index, query);
+        int from = 0;
+        int to = nextChars.length;
+        while (nextChars[from] == null) {
+            from++;
+        }
+        while (nextChars[to - 1] == null) {
+            to--;
+        }
+        char least = codeAt(from);
+        int range = codeAt(to - 1) - least + 1;
+        if (isSparse(range, children)) {
+            if (codes == null || children < codes.length) {
+                toSparse();
+            }
+        } else if (codes != null || range < nextChars.length) {
+            toDense(least, range);
+        }
     }
 
     /**
@@ -0,0 +1,196 @@
+package com.quinn.interview.breakword.model;
+
+import com.quinn.interview.breakword.api.ITrieNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * break a batch of lines in a ForkJoinPool
+ * <p>
+ * the lines are split into chunks by the num of chars instead of the num of lines, so a chunk of a few long lines
+ * costs about the same as a chunk of many short lines: the range of lines is split in half by chars recursively,
+ * until it is no more than CHUNK_CHARS chars (or a single line)
+ * <p>
+ * the char buffers of a batch are pooled by the call of the batch: a chunk takes a buffer from the pool (grown if it
+ * is shorter than the longest line of the chunk) and gives it back when it is done, the lines are copied into the
+ * buffer and broken on it, instead of a new char array for every line or every chunk; so there are about as many
+ * buffers as the workers, and they are released with the batch instead of being pinned by the worker threads
+ * <p>
+ * the results are put at the index of their lines, so they are in the order of the input
+ *
+ * @author Qunhua.Liao
+ * @see Dictionary#breakLines(List)
+ * @since 2020-10-14
+ */
+final class BatchBreaker {
+
+    /**
+     * the max num of chars of a chunk which is not split any more
+     */
+    static final int CHUNK_CHARS = 1 << 14;
+
+    /**
+     * the num of lines of a stream taken as a batch
+     */
+    static final int STREAM_BATCH_LINES = 1 << 12;
+
+    private final ITrieNode root;
+
+    private final ForkJoinPool pool;
+
+    BatchBreaker(ITrieNode root, ForkJoinPool pool) {
+        this.root = root;
+        this.pool = pool;
+    }
+
+    /**
+     * break all lines
+     *
+     * @param lines the lines to be break, can contain null
+     * @return the results in the order of the lines, null for the null line
+     */
+    BreakResult[] breakLines(List<String> lines) {
+        String[] array = lines.toArray(new String[0]);
+        BreakResult[] results = new BreakResult[array.length];
+        if (array.length == 0) {
+            return results;
+        }
+
+        // chars[i] is the num of chars of the first i lines, the line itself counts as a char
+        long[] chars = new long[array.length + 1];
+        for (int i = 0; i < array.length; i++) {
+            chars[i + 1] = chars[i] + (array[i] == null ? 0 : array[i].length()) + 1;
+        }
+        ChunkTask task = new ChunkTask(array, chars, results, new ConcurrentLinkedQueue<>(), 0, array.length);
+        if (chars[array.length] <= CHUNK_CHARS) {
+            // a single chunk is broken by the caller, there is no hand off to the pool
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return results;
+    }
+
+    /**
+     * break the lines of the stream batch by batch, every batch is broken in the pool
+     *
+     * @param lines the lines to be break, can contain null
+     * @return the spliterator of the results in the order of the lines
+     */
+    Spliterator<BreakResult> breakLines(Iterator<String> lines) {
+        return new Spliterators.AbstractSpliterator<BreakResult>(Long.MAX_VALUE, Spliterator.ORDERED) {
+
+            private BreakResult[] batch = new BreakResult[0];
+
+            private int index;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super BreakResult> action) {
+                if (index == batch.length) {
+                    List<String> next = new ArrayList<>(STREAM_BATCH_LINES);
+                    while (next.size() < STREAM_BATCH_LINES && lines.hasNext()) {
+                        next.add(lines.next());
+                    }
+                    if (next.isEmpty()) {
+                        return false;
+                    }
+                    batch = breakLines(next);
+                    index = 0;
+                }
+                action.accept(batch[index++]);
+                return true;
+            }
+        };
+    }
+
+    /**
+     * break the lines [from, to), split them in half by chars if there are too many chars
+     */
+    private final class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String[] lines;
+
+        private final long[] chars;
+
+        private final BreakResult[] results;
+
+        /**
+         * the buffers of the batch which are not taken by any chunk
+         */
+        private final Queue<char[]> buffers;
+
+        private final int from;
+
+        private final int to;
+
+        ChunkTask(String[] lines, long[] chars, BreakResult[] results, Queue<char[]> buffers, int from, int to) {
+            this.lines = lines;
+            this.chars = chars;
+            this.results = results;
+            this.buffers = buffers;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1 || chars[to] - chars[from] <= CHUNK_CHARS) {
+                breakChunk();
+                return;
+            }
+
+            // the first line which ends after the middle char
+            int middle = Arrays.binarySearch(chars, from + 1, to, (chars[from] + chars[to]) >>> 1);
+            middle = middle < 0 ? -middle - 1 : middle;
+            middle = Math.max(from + 1, Math.min(to - 1, middle));
+            invokeAll(new ChunkTask(lines, chars, results, buffers, from, middle),
+                    new ChunkTask(lines, chars, results, buffers, middle, to));
+        }
+
+        private void breakChunk() {
+            int max = 0;
+            for (int i = from; i < to; i++) {
+                if (lines[i] != null) {
+                    max = Math.max(max, lines[i].length());
+                }
+            }
+
+            char[] buffer = buffer(max);
+            for (int i = from; i < to; i++) {
+                String line = lines[i];
+                if (line == null) {
+                    continue;
+                }
+                if (line.isEmpty()) {
+                    results[i] = new BreakResult(0);
+                    continue;
+                }
+                line.getChars(0, line.length(), buffer, 0);
+                results[i] = root.breakLine(buffer, line.length());
+            }
+            buffers.offer(buffer);
+        }
+
+        /**
+         * take a buffer of the batch, a new one if there is none free or it is shorter than the line
+         */
+        private char[] buffer(int length) {
+            char[] buffer = buffers.poll();
+            return buffer != null && buffer.length >= length ? buffer : new char[length];
+        }
+
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.quinn.interview.breakword.model;
+
+import com.quinn.interview.breakword.api.ITrieNode;
+
+import java.util.Arrays;
+
+/**
+ * find the most likely way to break a line (Viterbi): the cost of a word is -log(probability of the word),
+ * and the way with the least total cost is the best, found by dynamic programming from the line start:
+ * best[i] is the least cost to break the first i chars, and every word from offset i relaxes best[end of word]
+ * <p>
+ * the words from every offset are found by walking the trie of the dictionary once (like the word lattice),
+ * so it costs O(length of line * length of the longest word), and nothing is allocated for each word
+ * <p>
+ * the costs are stored in a float array indexed by the id of the word (see WordIndex), the id is found by the
+ * hash of the chars walked, which is computed along the walk: so the trie of the dictionary itself is walked
+ * (any engine, even the DAWG whose state of word end is not a single word) instead of building another one;
+ * without frequencies every word costs the same, which means the way with the fewest words is the best
+ * <p>
+ * a char which can not be a part of any word is taken as an unknown word of a single char,
+ * which costs more than any word, so there is always a best way
+ *
+ * @author Qunhua.Liao
+ * @see Dictionary#bestBreak(String)
+ * @since 2020-10-14
+ */
+final class BestBreaker {
+
+    /**
+     * the cost of an unknown char more than the rarest word (e ^ 10 times rarer)
+     */
+    private static final float UNKNOWN_PENALTY = 10;
+
+    private final AbstractStateTrieNode trie;
+
+    /**
+     * the ids of the words, null if every word costs 1
+     */
+    private final WordIndex wordIndex;
+
+    /**
+     * the cost of every word by its id, null if every word costs 1
+     */
+    private final float[] costs;
+
+    private final float unknownCost;
+
+    private BestBreaker(AbstractStateTrieNode trie, WordIndex wordIndex, float[] costs, float unknownCost) {
+        this.trie = trie;
+        this.wordIndex = wordIndex;
+        this.costs = costs;
+        this.unknownCost = unknownCost;
+    }
+
+    /**
+     * every word costs the same
+     *
+     * @param trie the trie of the dictionary
+     * @return the best breaker
+     */
+    static BestBreaker uniform(AbstractStateTrieNode trie) {
+        return new BestBreaker(trie, null, null, 1 + UNKNOWN_PENALTY);
+    }
+
+    /**
+     * the cost of a word is log(sum of frequencies) - log(frequency of the word)
+     *
+     * @param trie          the trie of the dictionary, it must not be changed while the breaker is used
+     * @param index         the ids of the words of the trie
+     * @param frequencyById the frequency of every word by its id (1 for the word without frequency)
+     * @return the best breaker
+     */
+    static BestBreaker weighted(AbstractStateTrieNode trie, WordIndex index, long[] frequencyById) {
+        double total = 0;
+        for (long frequency : frequencyById) {
+            total += frequency;
+        }
+        double logTotal = Math.log(total);
+        float[] costs = new float[frequencyById.length];
+        float maxCost = 0;
+        for (int id = 0; id < costs.length; id++) {
+            costs[id] = (float) (logTotal - Math.log(frequencyById[id]));
+            maxCost = Math.max(maxCost, costs[id]);
+        }
+        return new BestBreaker(trie, index, costs, maxCost + UNKNOWN_PENALTY);
+    }
+
+    /**
+     * break the line into the most likely words
+     *
+     * @param line the line to be break
+     * @return the end offsets of the words, ascending (the last one is the length of line)
+     */
+    int[] bestBreak(String line) {
+        char[] chars = line.toCharArray();
+        int length = chars.length;
+        double[] best = new double[length + 1];
+        Arrays.fill(best, Double.POSITIVE_INFINITY);
+        best[0] = 0;
+        // the start offset of the last word of the best way to every offset
+        int[] from = new int[length + 1];
+
+        int root = trie.root();
+        int[] states = new int[4];
+        int[] nextStates = new int[4];
+        // the hash of the chars walked to every state, see WordIndex.hash(long, char)
+        long[] hashes = new long[4];
+        long[] nextHashes = new long[4];
+        for (int start = 0; start < length; start++) {
+            double base = best[start];
+            if (base + unknownCost < best[start + 1]) {
+                best[start + 1] = base + unknownCost;
+                from[start + 1] = start;
+            }
+
+            states[0] = root;
+            hashes[0] = WordIndex.EMPTY_HASH;
+            int size = 1;
+            for (int index = start; index < length && size > 0; index++) {
+                char c = trie.code(chars[index]);
+                if (c == Alphabet.UNKNOWN) {
+                    break;
+                }
+                char folded = AbstractFlatTrieNode.fold(chars[index]);
+                int nextSize = 0;
+                for (int i = 0; i < size; i++) {
+                    if (nextSize + 2 > nextStates.length) {
+                        nextStates = Arrays.copyOf(nextStates, nextStates.length << 1);
+                        nextHashes = Arrays.copyOf(nextHashes, nextHashes.length << 1);
+                    }
+                    int follow = trie.next(states[i], c);
+                    if (follow != AbstractStateTrieNode.NONE) {
+                        nextStates[nextSize] = follow;
+                        nextHashes[nextSize++] = WordIndex.hash(hashes[i], folded);
+                    }
+                    // the word with space
+                    int spaceState = index > start ? trie.nextSpace(states[i]) : AbstractStateTrieNode.NONE;
+                    if (spaceState != AbstractStateTrieNode.NONE) {
+                        follow = trie.next(spaceState, c);
+                        if (follow != AbstractStateTrieNode.NONE) {
+                            nextStates[nextSize] = follow;
+                            nextHashes[nextSize++] = WordIndex.hash(
+                                    WordIndex.hash(hashes[i], ITrieNode.SPLIT_OF_NORMAL_BREAK), folded);
+                        }
+                    }
+                }
+
+                int[] swap = states;
+                states = nextStates;
+                nextStates = swap;
+                long[] swapHashes = hashes;
+                hashes = nextHashes;
+                nextHashes = swapHashes;
+                size = nextSize;
+                for (int i = 0; i < size; i++) {
+                    if (trie.isWordEnd(states[i])) {
+                        double cost = base + (costs == null ? 1 : costs[wordIndex.idOfChars(hashes[i])]);
+                        if (cost < best[index + 1]) {
+                            best[index + 1] = cost;
+                            from[index + 1] = start;
+                        }
+                    }
+                }
+            }
+        }
+
+        int words = 0;
+        for (int end = length; end > 0; end = from[end]) {
+            words++;
+        }
+        int[] ends = new int[words];
+        for (int end = length; end > 0; end = from[end]) {
+            ends[--words] = end;
+        }
+        return ends;
+    }
+
+}
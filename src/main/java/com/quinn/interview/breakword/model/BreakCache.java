@@ -0,0 +1,509 @@
+package com.quinn.interview.breakword.model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * a bounded cache of the results of breakLine(), for the traffic of which a few lines are most of the lines
+ * (e.g the names of the products), so the trie is not walked again and again for the same line
+ * <p>
+ * the cache is bounded by the num of lines, or by the bytes estimated of the lines and the results,
+ * and the lines are kept by W-TinyLFU (window tiny least frequently used):
+ * 1 a new line is put into a small LRU window (1% of the bound), so a burst of new lines only flushes the window
+ * 2 a line evicted from the window is a candidate of the main space, it is admitted only when it is more frequent
+ * than the line to be evicted for it (the least recently used line of the probation segment)
+ * 3 a line hit in the probation segment is promoted to the protected segment (80% of the main space),
+ * and the least recently used lines of the protected segment are demoted to the probation segment
+ * <p>
+ * the frequencies are counted by a count-min sketch of 4 bits counters (4 counters per line, the least is taken),
+ * which are halved when there are 10 times as many counts as the counters, so the old popularity fades out
+ * <p>
+ * the misses of the same line at the same time are collapsed: only one thread breaks the line,
+ * the others wait for its result (single flight)
+ * <p>
+ * ** the lines are found in a ConcurrentHashMap without locking, the policy (the segments and the sketch) is
+ * ** updated under a lock: a hit skips the update when the lock is busy, so it never waits for it (some hits
+ * ** of the hot lines are not counted, which does not change which lines are hot)
+ * <p>
+ * ** a result in the cache is shared by all the callers of the same line, it must not be appended
+ * ** (Dictionary.breakLine(String) hands out a copy of it)
+ * ** a cache is used by one dictionary only, all its lines are invalidated when the dictionary is changed
+ *
+ * @author Qunhua.Liao
+ * @see Dictionary#withCache(BreakCache)
+ * @see ReloadableDictionary#withCache(BreakCache)
+ * @since 2020-10-14
+ */
+public final class BreakCache {
+
+    /**
+     * the bytes estimated for a line besides the chars of the line and the result:
+     * the node, the map entry and the headers of the objects
+     */
+    static final int ENTRY_BYTES = 160;
+
+    /**
+     * the bytes supposed for a line to size the sketch of a cache bounded by bytes
+     */
+    private static final int AVERAGE_ENTRY_BYTES = 256;
+
+    /**
+     * the part of the bound for the window
+     */
+    private static final double WINDOW_RATE = 0.01;
+
+    /**
+     * the part of the main space for the protected segment
+     */
+    private static final double PROTECTED_RATE = 0.8;
+
+    private static final int WINDOW = 0;
+
+    private static final int PROBATION = 1;
+
+    private static final int PROTECTED = 2;
+
+    /**
+     * the node is not in the cache any more
+     */
+    private static final int REMOVED = 3;
+
+    private final long maximum;
+
+    private final boolean weighBytes;
+
+    private final long windowMaximum;
+
+    private final long protectedMaximum;
+
+    private final ConcurrentHashMap<String, Node> data = new ConcurrentHashMap<>();
+
+    /**
+     * the results of the lines being broken, to collapse the misses of the same line
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<BreakResult>> loading = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * the frequencies of the lines, guarded by the lock
+     */
+    private final FrequencySketch sketch;
+
+    /**
+     * the sentinels of the segments (circular lists, the least recently used first), guarded by the lock
+     */
+    private final Node window = new Node();
+
+    private final Node probation = new Node();
+
+    private final Node protectedSegment = new Node();
+
+    private long windowWeight;
+
+    private long probationWeight;
+
+    private long protectedWeight;
+
+    /**
+     * increased by every invalidation, a result broken before an invalidation is not put into the cache
+     */
+    private volatile long generation;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder loads = new LongAdder();
+
+    private final LongAdder collapsedMisses = new LongAdder();
+
+    private long evictions;
+
+    private long invalidations;
+
+    private BreakCache(long maximum, boolean weighBytes, long sketchEntries) {
+        if (maximum <= 0) {
+            throw new IllegalArgumentException("the bound of the cache must be positive: " + maximum);
+        }
+        this.maximum = maximum;
+        this.weighBytes = weighBytes;
+        this.windowMaximum = Math.max(1, (long) (maximum * WINDOW_RATE));
+        this.protectedMaximum = (long) ((maximum - windowMaximum) * PROTECTED_RATE);
+        this.sketch = new FrequencySketch(sketchEntries);
+    }
+
+    /**
+     * create a cache bounded by the num of lines
+     *
+     * @param maxLines the max num of lines
+     * @return the cache
+     */
+    public static BreakCache ofLines(long maxLines) {
+        return new BreakCache(maxLines, false, maxLines);
+    }
+
+    /**
+     * create a cache bounded by the bytes estimated of the lines and the results
+     *
+     * @param maxBytes the max bytes
+     * @return the cache
+     */
+    public static BreakCache ofBytes(long maxBytes) {
+        return new BreakCache(maxBytes, true, maxBytes / AVERAGE_ENTRY_BYTES);
+    }
+
+    /**
+     * get the result of the line from the cache, or break it by the loader and put the result into the cache
+     * if the same line is being broken by another thread, wait for its result instead
+     *
+     * @param line   the line
+     * @param loader to break the line, its exception is thrown to all the callers waiting for it
+     * @return the result of the line
+     */
+    public BreakResult get(String line, Function<String, BreakResult> loader) {
+        Node node = data.get(line);
+        if (node != null) {
+            hits.increment();
+            if (lock.tryLock()) {
+                try {
+                    sketch.increment(node.hash);
+                    onAccess(node);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return node.result;
+        }
+
+        misses.increment();
+        // before the loader reads the dictionary, so a result of the dictionary before a change is never put
+        long loadGeneration = generation;
+        CompletableFuture<BreakResult> future = new CompletableFuture<>();
+        CompletableFuture<BreakResult> flight = loading.putIfAbsent(line, future);
+        if (flight != null) {
+            collapsedMisses.increment();
+            return join(flight);
+        }
+        // the result is put before its flight is removed, so a flight just finished is found here
+        node = data.get(line);
+        if (node != null) {
+            collapsedMisses.increment();
+            future.complete(node.result);
+            loading.remove(line, future);
+            return node.result;
+        }
+
+        try {
+            BreakResult result = loader.apply(line);
+            loads.increment();
+            future.complete(result);
+            if (result != null) {
+                put(line, result, loadGeneration);
+            }
+            return result;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(line, future);
+        }
+    }
+
+    /**
+     * remove all lines, e.g when the dictionary is changed
+     * the lines being broken are not put into the cache, and the misses after it do not wait for them,
+     * the frequencies are kept (they are of the lines, not of the results)
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            generation++;
+            loading.clear();
+            for (Node node : data.values()) {
+                node.queue = REMOVED;
+            }
+            data.clear();
+            for (Node sentinel : new Node[]{window, probation, protectedSegment}) {
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+            }
+            windowWeight = 0;
+            probationWeight = 0;
+            protectedWeight = 0;
+            invalidations++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * a snapshot of the statistics
+     *
+     * @return the statistics
+     */
+    public CacheStats stats() {
+        lock.lock();
+        try {
+            return new CacheStats(hits.sum(), misses.sum(), loads.sum(), collapsedMisses.sum(), evictions,
+                    invalidations, data.size(), windowWeight + probationWeight + protectedWeight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * the bytes estimated of a line and its result
+     */
+    static long weigh(String line, BreakResult result) {
+        return ENTRY_BYTES + 2L * (line.length() + result.length());
+    }
+
+    private static BreakResult join(CompletableFuture<BreakResult> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            // the exception of the loader as it is
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * put a new line into the window, and evict the lines out of the bound
+     */
+    private void put(String line, BreakResult result, long loadGeneration) {
+        long weight = weighBytes ? weigh(line, result) : 1;
+        Node node = new Node(line, result, weight);
+        lock.lock();
+        try {
+            sketch.increment(node.hash);
+            if (loadGeneration != generation || data.containsKey(line)) {
+                return;
+            }
+            if (weight > maximum) {
+                evictions++;
+                return;
+            }
+            data.put(line, node);
+            node.queue = WINDOW;
+            linkLast(window, node);
+            windowWeight += weight;
+            while (windowWeight > windowMaximum) {
+                Node candidate = window.next;
+                unlink(candidate);
+                windowWeight -= candidate.weight;
+                admit(candidate);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * move a candidate from the window into the probation segment, if it is more frequent than the lines
+     * to be evicted for it (or there is room for it)
+     */
+    private void admit(Node candidate) {
+        long mainMaximum = maximum - windowMaximum;
+        while (probationWeight + protectedWeight + candidate.weight > mainMaximum) {
+            Node victim = probation.next != probation ? probation.next
+                    : protectedSegment.next != protectedSegment ? protectedSegment.next : null;
+            if (victim == null || sketch.frequency(candidate.hash) <= sketch.frequency(victim.hash)) {
+                evict(candidate);
+                return;
+            }
+            unlink(victim);
+            if (victim.queue == PROBATION) {
+                probationWeight -= victim.weight;
+            } else {
+                protectedWeight -= victim.weight;
+            }
+            evict(victim);
+        }
+        candidate.queue = PROBATION;
+        linkLast(probation, candidate);
+        probationWeight += candidate.weight;
+    }
+
+    /**
+     * remove a node which is unlinked already
+     */
+    private void evict(Node node) {
+        node.queue = REMOVED;
+        data.remove(node.key, node);
+        evictions++;
+    }
+
+    private void onAccess(Node node) {
+        switch (node.queue) {
+            case WINDOW:
+                unlink(node);
+                linkLast(window, node);
+                break;
+            case PROBATION:
+                unlink(node);
+                probationWeight -= node.weight;
+                node.queue = PROTECTED;
+                linkLast(protectedSegment, node);
+                protectedWeight += node.weight;
+                while (protectedWeight > protectedMaximum) {
+                    Node demoted = protectedSegment.next;
+                    unlink(demoted);
+                    protectedWeight -= demoted.weight;
+                    demoted.queue = PROBATION;
+                    linkLast(probation, demoted);
+                    probationWeight += demoted.weight;
+                }
+                break;
+            case PROTECTED:
+                unlink(node);
+                linkLast(protectedSegment, node);
+                break;
+            default:
+                // evicted or invalidated after it is found
+                break;
+        }
+    }
+
+    private static void linkLast(Node sentinel, Node node) {
+        node.prev = sentinel.prev;
+        node.next = sentinel;
+        sentinel.prev.next = node;
+        sentinel.prev = node;
+    }
+
+    private static void unlink(Node node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+
+    /**
+     * spread the bits of the hash code of the line
+     */
+    private static int hash(String line) {
+        int h = line.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * a line in the cache, a node of the list of its segment
+     */
+    private static final class Node {
+
+        private final String key;
+
+        private final BreakResult result;
+
+        private final long weight;
+
+        private final int hash;
+
+        private int queue;
+
+        private Node prev;
+
+        private Node next;
+
+        /**
+         * Constructor of a sentinel
+         */
+        Node() {
+            this(null, null, 0);
+            prev = this;
+            next = this;
+        }
+
+        Node(String key, BreakResult result, long weight) {
+            this.key = key;
+            this.result = result;
+            this.weight = weight;
+            this.hash = key == null ? 0 : hash(key);
+        }
+
+    }
+
+    /**
+     * count-min sketch of 4 bits counters, 16 counters in a long:
+     * the 4 counters of a line are in 4 longs (by 4 hash functions), one in every quarter of the long
+     */
+    private static final class FrequencySketch {
+
+        private static final long[] SEEDS = {0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL,
+                0xCBF29CE484222325L};
+
+        /**
+         * the mask to halve all counters of a long: the lowest bit of every counter is cleared after shifting
+         */
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private static final int MAX_COUNT = 15;
+
+        private final long[] table;
+
+        /**
+         * the counters are halved after so many increments
+         */
+        private final int sampleSize;
+
+        private int increments;
+
+        FrequencySketch(long entries) {
+            int length = Integer.highestOneBit((int) Math.max(16, Math.min(entries, 1 << 26)) - 1) << 1;
+            this.table = new long[length];
+            this.sampleSize = 10 * length;
+        }
+
+        int frequency(int hash) {
+            int frequency = MAX_COUNT;
+            for (int i = 0; i < SEEDS.length; i++) {
+                frequency = Math.min(frequency, (int) (table[indexOf(hash, i)] >>> offsetOf(hash, i)) & MAX_COUNT);
+            }
+            return frequency;
+        }
+
+        void increment(int hash) {
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = indexOf(hash, i);
+                int offset = offsetOf(hash, i);
+                if (((table[index] >>> offset) & MAX_COUNT) < MAX_COUNT) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++increments >= sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = (table[i] >>> 1) & RESET_MASK;
+                }
+                increments >>>= 1;
+            }
+        }
+
+        private int indexOf(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h += h >>> 32;
+            return (int) h & (table.length - 1);
+        }
+
+        /**
+         * the counter i is one of the 4 counters in the quarter i of the long
+         */
+        private static int offsetOf(int hash, int i) {
+            return (i << 4) + (((hash >>> (i << 3)) & 3) << 2);
+        }
+
+    }
+
+}
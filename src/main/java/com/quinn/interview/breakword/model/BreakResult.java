@@ -2,22 +2,48 @@ package com.quinn.interview.breakword.model;
 
 import com.quinn.interview.breakword.api.ITrieNode;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Result of the break word
+ * <p>
+ * the result can be reused as a sink of many lines (see Dictionary.breakLine(CharSequence, BreakResult)):
+ * it is cleared for every line, and its storage is kept, so breaking lines into it allocates nothing
+ * once it is as large as the longest line; the marks are read as a CharSequence without copying them
+ * <p>
+ * the chars of the line are appended by appendLineChar(char), and the marks by append(char): a char of the line
+ * which is the same as a mark (e.g a '?' in the line) is kept as a char of the line, it is never taken as a break,
+ * see isMark(int). toString() shows both the same way, so it is for reading only, not to be parsed back
  *
  * @author Qunhua.Liao
  * @since 2020-10-13
  */
-public class BreakResult {
+public class BreakResult implements CharSequence {
 
     /**
      * possible cases of result
      */
     private StringBuilder query;
 
+    /**
+     * num of SPLIT_OF_POSSIBLE_BREAK in the query
+     */
+    private int possibleBreaks;
+
+    /**
+     * bit i set: the char i of the query is a char of the line which is the same as a mark,
+     * null until there is such a char (which is rare)
+     */
+    private long[] lineMarks;
+
+    /**
+     * the buffer of the chars of the line, when the line is not a char array (reused as a sink)
+     */
+    private char[] lineChars;
+
     /**
      * we suppose that a word contains 8 letters in average
      * and we init with a bigger size than the line length to decrease the num of "resize"
@@ -25,47 +51,252 @@ public class BreakResult {
      * @param length the length of line
      */
     public BreakResult(int length) {
-        this.query = new StringBuilder(length + length >> 3);
+        this.query = new StringBuilder(length + (length >> 3) + 1);
     }
 
     /**
-     * append a char to the result
+     * append a char to the result, a char which is the same as a mark is taken as the mark
      *
      * @param c char to be appended
      * @return return it self to enable chain operation
+     * @see #appendLineChar(char)
      */
     public BreakResult append(char c) {
         this.query.append(c);
+        if (c == ITrieNode.SPLIT_OF_POSSIBLE_BREAK) {
+            possibleBreaks++;
+        }
         return this;
     }
 
     /**
-     * all possible cases of result
+     * append a char of the line to the result, it is never taken as a mark even if it is the same as a mark
      *
-     * @return all possible cases
+     * @param c char of the line
+     * @return return it self to enable chain operation
      */
-    public String[] allCases() {
-        List<StringBuilder> list = new ArrayList<>();
-        StringBuilder res = new StringBuilder();
-        list.add(res);
-
-        for (int i = 0; i < query.length(); i++) {
-            char c = query.charAt(i);
-            if (c == ITrieNode.SPLIT_OF_POSSIBLE_BREAK) {
-                List<StringBuilder> cpList = new ArrayList<>();
-                for (StringBuilder q : list) {
-                    StringBuilder cp = new StringBuilder(q);
-                    cp.append(ITrieNode.SPLIT_OF_NORMAL_BREAK);
-                    cpList.add(cp);
+    public BreakResult appendLineChar(char c) {
+        if (isMarkChar(c)) {
+            int index = query.length();
+            if (lineMarks == null || lineMarks.length <= index >>> 6) {
+                long[] grown = new long[Math.max((index >>> 6) + 1, query.capacity() >>> 6)];
+                if (lineMarks != null) {
+                    System.arraycopy(lineMarks, 0, grown, 0, lineMarks.length);
                 }
-                list.addAll(cpList);
+                lineMarks = grown;
+            }
+            lineMarks[index >>> 6] |= 1L << index;
+        }
+        this.query.append(c);
+        return this;
+    }
+
+    /**
+     * append the chars and the marks of another result, the chars of its line are still chars of the line
+     *
+     * @param other the other result
+     * @return return it self to enable chain operation
+     */
+    public BreakResult append(BreakResult other) {
+        if (other.lineMarks == null) {
+            query.append(other.query);
+            possibleBreaks += other.possibleBreaks;
+            return this;
+        }
+        for (int i = 0; i < other.query.length(); i++) {
+            char c = other.query.charAt(i);
+            if (other.isMark(i)) {
+                append(c);
             } else {
-                for (StringBuilder q : list) {
-                    q.append(c);
-                }
+                appendLineChar(c);
             }
         }
+        return this;
+    }
+
+    /**
+     * clear the result to break another line into it, the storage is kept
+     *
+     * @return return it self to enable chain operation
+     */
+    public BreakResult clear() {
+        query.setLength(0);
+        possibleBreaks = 0;
+        if (lineMarks != null) {
+            Arrays.fill(lineMarks, 0L);
+        }
+        return this;
+    }
+
+    /**
+     * copy the result, e.g to hand out a result shared by a cache, so the copy can be appended or cleared
+     *
+     * @return a new result of the same chars and marks
+     */
+    public BreakResult copy() {
+        return new BreakResult(query.length()).append(this);
+    }
+
+    /**
+     * whether the char of toString() at the index is a mark of the break, not a char of the line
+     *
+     * @param index index of the char
+     * @return true if it is SPLIT_OF_NORMAL_BREAK, SPLIT_OF_POSSIBLE_BREAK or SPLIT_OF_ERROR_BREAK appended as a mark
+     */
+    public boolean isMark(int index) {
+        return isMarkChar(query.charAt(index)) && !isLineChar(lineMarks, index);
+    }
+
+    /**
+     * whether the char is the same as a mark of the break
+     */
+    static boolean isMarkChar(char c) {
+        return c == ITrieNode.SPLIT_OF_NORMAL_BREAK || c == ITrieNode.SPLIT_OF_POSSIBLE_BREAK
+                || c == ITrieNode.SPLIT_OF_ERROR_BREAK;
+    }
+
+    /**
+     * whether the char at the index is a char of the line by the bits of lineMarks
+     */
+    static boolean isLineChar(long[] lineMarks, int index) {
+        return lineMarks != null && (index >>> 6) < lineMarks.length && (lineMarks[index >>> 6] & 1L << index) != 0;
+    }
+
+    /**
+     * the buffer to hold the chars of a line, reused for all the lines broken into this result
+     *
+     * @param length the length of line
+     * @return the buffer, at least as long as the line
+     */
+    char[] lineChars(int length) {
+        if (lineChars == null || lineChars.length < length) {
+            lineChars = new char[Math.max(length, lineChars == null ? 16 : lineChars.length << 1)];
+        }
+        return lineChars;
+    }
+
+    /**
+     * all possible cases of result
+     *
+     * @return all possible cases
+     * @see #cases()
+     */
+    public String[] allCases() {
+        return cases().parallel().toArray(String[]::new);
+    }
+
+    /**
+     * all possible cases of result as a lazy stream, in the same order as allCases()
+     * every case is generated from the break marks when it is consumed, so only the memory of a line is used
+     * however many cases there are: use limit() to take some of them, or parallel() to consume them in threads
+     * <p>
+     * the stream is a snapshot, the chars appended after that are not included
+     *
+     * @return stream of all possible cases
+     */
+    public Stream<String> cases() {
+        return StreamSupport.stream(new CaseSpliterator(query.toString(),
+                lineMarks == null ? null : lineMarks.clone(), possibleBreaks), false);
+    }
+
+    /**
+     * num of all possible cases: 2 ^ num of SPLIT_OF_POSSIBLE_BREAK
+     *
+     * @return num of all possible cases, Long.MAX_VALUE if it is too many for a long
+     * @see #exactCaseCount()
+     */
+    public long caseCount() {
+        return possibleBreaks < Long.SIZE - 1 ? 1L << possibleBreaks : Long.MAX_VALUE;
+    }
+
+    /**
+     * num of all possible cases: 2 ^ num of SPLIT_OF_POSSIBLE_BREAK
+     *
+     * @return num of all possible cases
+     */
+    public BigInteger exactCaseCount() {
+        return BigInteger.ONE.shiftLeft(possibleBreaks);
+    }
+
+    /**
+     * get a case by index without generating the others, the same as allCases()[index]
+     * bit j of the index set means the j-th SPLIT_OF_POSSIBLE_BREAK is broken
+     *
+     * @param index index of the case
+     * @return the case
+     */
+    public String caseAt(long index) {
+        if (index < 0 || index >= caseCount()) {
+            throw new IndexOutOfBoundsException("case " + index + " of " + exactCaseCount());
+        }
+        if (possibleBreaks > CaseSpliterator.LOW_BITS) {
+            return caseAt(BigInteger.valueOf(index));
+        }
+        return CaseSpliterator.caseOf(query, lineMarks, index, null);
+    }
 
-        return list.parallelStream().map(StringBuilder::toString).toArray(String[]::new);
+    /**
+     * get a case by index without generating the others, the same as allCases()[index]
+     *
+     * @param index index of the case
+     * @return the case
+     * @see #caseAt(long)
+     */
+    public String caseAt(BigInteger index) {
+        if (index.signum() < 0 || index.bitLength() > possibleBreaks) {
+            throw new IndexOutOfBoundsException("case " + index + " of " + exactCaseCount());
+        }
+        long low = index.longValue() & ((1L << CaseSpliterator.LOW_BITS) - 1);
+        return CaseSpliterator.caseOf(query, lineMarks, low, index.shiftRight(CaseSpliterator.LOW_BITS));
+    }
+
+    /**
+     * get a page of the cases, every case is got by caseAt(), so it costs the same however large the offset is
+     *
+     * @param offset index of the first case
+     * @param limit  max num of the cases
+     * @return the cases of [offset, offset + limit), less if there are not so many cases
+     */
+    public String[] cases(long offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset " + offset + " and limit " + limit + " can not be negative");
+        }
+        long count = caseCount();
+        int size = offset >= count ? 0 : (int) Math.min(limit, count - offset);
+        String[] cases = new String[size];
+        for (int i = 0; i < size; i++) {
+            cases[i] = caseAt(offset + i);
+        }
+        return cases;
+    }
+
+    /**
+     * num of chars of the line with the break marks
+     *
+     * @return the length of toString()
+     */
+    @Override
+    public int length() {
+        return query.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return query.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return query.subSequence(start, end);
+    }
+
+    /**
+     * the line with the break marks, e.g "i like ice?cream"
+     *
+     * @return the line with the break marks
+     */
+    @Override
+    public String toString() {
+        return query.toString();
     }
 }
@@ -0,0 +1,168 @@
+package com.quinn.interview.breakword.model;
+
+import com.quinn.interview.util.BaseUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * read the words of a dictionary file at byte level: the file is read by a FileChannel into a direct ByteBuffer,
+ * and the words are the bytes between ',' and the line ends, which are handed to the sink as ranges of the buffer,
+ * so there is neither a String of a line, nor a String array of its words, nor a char array of a word
+ * <p>
+ * the words are the same as BaseUtil.readLargeFile() and String.split(WORD_SPLIT) of every line:
+ * an empty word is only a word when a word follows it in the same line, e.g "a,,b" but not "a,,"
+ * <p>
+ * the frequency of a word (e.g "samsung:1000") is split at byte level too, only the word with a frequency
+ * is decoded into a String to be recorded
+ *
+ * @author Qunhua.Liao
+ * @see Dictionary#readWords(String, WordFrequencies, java.util.function.Consumer)
+ * @since 2020-10-14
+ */
+final class ByteWordReader {
+
+    /**
+     * the initial size of the buffer, it is doubled if a word is larger
+     */
+    static final int BUFFER_BYTES = 1 << 16;
+
+    /**
+     * the sink of the words read
+     */
+    @FunctionalInterface
+    interface WordSink {
+
+        /**
+         * handle a word of the file (without frequency)
+         *
+         * @param bytes the buffer, it must not be changed or held after returning
+         * @param from  the first byte of the word
+         * @param to    the end of the word (exclusive)
+         */
+        void word(ByteBuffer bytes, int from, int to);
+
+    }
+
+    private ByteWordReader() {
+    }
+
+    /**
+     * read all words of the file
+     *
+     * @param file        the dictionary file
+     * @param frequencies to record the frequencies of the words
+     * @param sink        the sink of the words
+     * @throws RuntimeException if the file can not be read
+     */
+    static void read(Path file, WordFrequencies frequencies, WordSink sink) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+            // the first byte of the word being read
+            int start = 0;
+            // the next byte to look at
+            int position = 0;
+            // whether an empty word is before the word being read in the same line
+            boolean emptyBefore = false;
+            while (true) {
+                boolean end = channel.read(buffer) < 0;
+                int limit = buffer.position();
+                for (; position < limit; position++) {
+                    byte b = buffer.get(position);
+                    if (b != ',' && b != '\n' && b != '\r') {
+                        continue;
+                    }
+                    if (position > start) {
+                        if (emptyBefore) {
+                            sink.word(buffer, start, start);
+                            emptyBefore = false;
+                        }
+                        word(buffer, start, position, frequencies, sink);
+                    } else if (b == ',') {
+                        emptyBefore = true;
+                    }
+                    if (b != ',') {
+                        emptyBefore = false;
+                    }
+                    start = position + 1;
+                }
+
+                if (end) {
+                    if (limit > start) {
+                        if (emptyBefore) {
+                            sink.word(buffer, start, start);
+                        }
+                        word(buffer, start, limit, frequencies, sink);
+                    }
+                    return;
+                }
+
+                // keep the bytes of the word being read at the head of the buffer
+                if (start == 0 && limit == buffer.capacity()) {
+                    ByteBuffer larger = ByteBuffer.allocateDirect(buffer.capacity() << 1);
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
+                } else {
+                    buffer.position(start);
+                    buffer.limit(limit);
+                    buffer.compact();
+                    position -= start;
+                    start = 0;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("file " + file + " read failed", e);
+        }
+    }
+
+    /**
+     * split the frequency from the word like WordFrequencies.parse(String), and hand the word to the sink
+     */
+    private static void word(ByteBuffer bytes, int from, int to, WordFrequencies frequencies, WordSink sink) {
+        int split = to - 1;
+        while (split >= from && bytes.get(split) != ':') {
+            split--;
+        }
+        if (split <= from || split == to - 1) {
+            sink.word(bytes, from, to);
+            return;
+        }
+
+        long frequency = 0;
+        for (int i = split + 1; i < to; i++) {
+            byte b = bytes.get(i);
+            // a frequency larger than Long.MAX_VALUE is not a frequency either
+            if (b < '0' || b > '9' || frequency > (Long.MAX_VALUE - (b - '0')) / 10) {
+                // not a frequency, it is a part of the word
+                sink.word(bytes, from, to);
+                return;
+            }
+            frequency = frequency * 10 + (b - '0');
+        }
+        frequencies.add(BaseUtil.decode(bytes, from, split), Math.max(1, frequency));
+        sink.word(bytes, from, split);
+    }
+
+    /**
+     * whether the bytes are english letters only (so a byte is a char of the word)
+     *
+     * @param bytes the buffer
+     * @param from  the first byte
+     * @param to    the end (exclusive)
+     * @return true if all bytes are english letters
+     */
+    static boolean isLetters(ByteBuffer bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = bytes.get(i);
+            if (b < 'a' || b > 'z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
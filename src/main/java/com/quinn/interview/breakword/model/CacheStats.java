@@ -0,0 +1,113 @@
+package com.quinn.interview.breakword.model;
+
+/**
+ * statistics of a BreakCache, a snapshot taken by BreakCache.stats()
+ * a miss is either a load (the line is broken by the dictionary) or a collapsed miss
+ * (the line is being broken by another thread already, and its result is waited for)
+ *
+ * @author Qunhua.Liao
+ * @see BreakCache#stats()
+ * @since 2020-10-14
+ */
+public final class CacheStats {
+
+    private final long hits;
+
+    private final long misses;
+
+    private final long loads;
+
+    private final long collapsedMisses;
+
+    private final long evictions;
+
+    private final long invalidations;
+
+    private final long size;
+
+    private final long weight;
+
+    CacheStats(long hits, long misses, long loads, long collapsedMisses, long evictions, long invalidations,
+               long size, long weight) {
+        this.hits = hits;
+        this.misses = misses;
+        this.loads = loads;
+        this.collapsedMisses = collapsedMisses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+        this.size = size;
+        this.weight = weight;
+    }
+
+    /**
+     * @return num of lines found in the cache
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return num of lines not found in the cache
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return num of lines broken by the dictionary for the misses
+     */
+    public long getLoads() {
+        return loads;
+    }
+
+    /**
+     * @return num of misses which waited for the same line broken by another thread
+     */
+    public long getCollapsedMisses() {
+        return collapsedMisses;
+    }
+
+    /**
+     * @return num of lines evicted to keep the cache in its bound (or not admitted at all)
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return num of times all lines are invalidated (the dictionary is changed)
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * @return num of lines in the cache
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return the weight of the lines in the cache: num of lines, or the bytes estimated
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return hits / (hits + misses), 0 if there is no request
+     */
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits %d, misses %d (loads %d, collapsed %d), hit rate %.3f, evictions %d, "
+                        + "invalidations %d, size %d, weight %d", hits, misses, loads, collapsedMisses, getHitRate(),
+                evictions, invalidations, size, weight);
+    }
+
+}
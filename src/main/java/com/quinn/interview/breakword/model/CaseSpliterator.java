@@ -0,0 +1,172 @@
+package com.quinn.interview.breakword.model;
+
+import com.quinn.interview.breakword.api.ITrieNode;
+
+import java.math.BigInteger;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator of the cases of a BreakResult, every case is generated when it is consumed
+ * <p>
+ * case i of the result is decoded from the bits of i: bit j set means the j-th SPLIT_OF_POSSIBLE_BREAK is broken,
+ * which is the same order as BreakResult.allCases() (the cases without the first break come first)
+ * <p>
+ * the index of a case is split into the low LOW_BITS bits (a long) and the high bits (a BigInteger),
+ * so the cases are blocks of 2^LOW_BITS cases by the high bits, and only the high bits are BigInteger
+ * when there are more than LOW_BITS possible breaks (which is never consumed up actually).
+ * the spliterator holds the rest of the current block [low, lowEnd) and the blocks after it [high + 1, highEnd),
+ * it splits the blocks first, then the current block, so the halves are always even
+ *
+ * @author Qunhua.Liao
+ * @see BreakResult#cases()
+ * @since 2020-10-14
+ */
+final class CaseSpliterator implements Spliterator<String> {
+
+    /**
+     * bits of the case index kept in a long
+     */
+    static final int LOW_BITS = 62;
+
+    /**
+     * the line with the break marks
+     */
+    private final String query;
+
+    /**
+     * the chars of the line which are the same as a mark, see BreakResult.isMark(int), null if there is none
+     */
+    private final long[] lineMarks;
+
+    /**
+     * index of the current case in the current block
+     */
+    private long low;
+
+    /**
+     * end of the current block
+     */
+    private long lowEnd;
+
+    /**
+     * the high bits of the current block, null if there are no more than LOW_BITS possible breaks
+     */
+    private BigInteger high;
+
+    /**
+     * end of the high bits
+     */
+    private BigInteger highEnd;
+
+    CaseSpliterator(String query, long[] lineMarks, int possibleBreaks) {
+        this.query = query;
+        this.lineMarks = lineMarks;
+        this.low = 0;
+        this.lowEnd = 1L << Math.min(possibleBreaks, LOW_BITS);
+        if (possibleBreaks > LOW_BITS) {
+            this.high = BigInteger.ZERO;
+            this.highEnd = BigInteger.ONE.shiftLeft(possibleBreaks - LOW_BITS);
+        }
+    }
+
+    private CaseSpliterator(String query, long[] lineMarks, long low, long lowEnd, BigInteger high,
+                            BigInteger highEnd) {
+        this.query = query;
+        this.lineMarks = lineMarks;
+        this.low = low;
+        this.lowEnd = lowEnd;
+        this.high = high;
+        this.highEnd = highEnd;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (low >= lowEnd) {
+            if (high == null) {
+                return false;
+            }
+            BigInteger next = high.add(BigInteger.ONE);
+            if (next.compareTo(highEnd) >= 0) {
+                return false;
+            }
+            high = next;
+            low = 0;
+            lowEnd = 1L << LOW_BITS;
+        }
+        action.accept(caseOf(query, lineMarks, low++, high));
+        return true;
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        if (high != null) {
+            BigInteger blocks = highEnd.subtract(high);
+            if (blocks.compareTo(BigInteger.ONE) > 0) {
+                // the prefix takes the current block and the first half of the blocks after it
+                BigInteger middle = high.add(blocks.shiftRight(1));
+                CaseSpliterator prefix = new CaseSpliterator(query, lineMarks, low, lowEnd, high, middle);
+                high = middle;
+                low = 0;
+                lowEnd = 1L << LOW_BITS;
+                return prefix;
+            }
+        }
+
+        if (lowEnd - low < 2) {
+            return null;
+        }
+        long middle = low + ((lowEnd - low) >>> 1);
+        CaseSpliterator prefix = new CaseSpliterator(query, lineMarks, low, middle, high,
+                high == null ? null : high.add(BigInteger.ONE));
+        low = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        if (high == null || highEnd.subtract(high).equals(BigInteger.ONE)) {
+            return lowEnd - low;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        int characteristics = ORDERED | NONNULL | IMMUTABLE;
+        if (high == null || highEnd.subtract(high).equals(BigInteger.ONE)) {
+            characteristics |= SIZED | SUBSIZED;
+        }
+        return characteristics;
+    }
+
+    /**
+     * decode a case from its index
+     *
+     * @param query     the line with the break marks
+     * @param lineMarks the chars of the line which are the same as a mark, null if there is none
+     * @param low       the low LOW_BITS bits of the index
+     * @param high      the high bits of the index, null if all of them are 0
+     * @return the case
+     */
+    static String caseOf(CharSequence query, long[] lineMarks, long low, BigInteger high) {
+        char[] chars = new char[query.length()];
+        int length = 0;
+        int possibleBreak = 0;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (c != ITrieNode.SPLIT_OF_POSSIBLE_BREAK || BreakResult.isLineChar(lineMarks, i)) {
+                chars[length++] = c;
+                continue;
+            }
+            boolean broken = possibleBreak < LOW_BITS ? (low >>> possibleBreak & 1) != 0
+                    : high != null && high.testBit(possibleBreak - LOW_BITS);
+            if (broken) {
+                chars[length++] = ITrieNode.SPLIT_OF_NORMAL_BREAK;
+            }
+            possibleBreak++;
+        }
+        return new String(chars, 0, length);
+    }
+
+}
@@ -0,0 +1,324 @@
+package com.quinn.interview.breakword.model;
+
+import com.quinn.interview.breakword.api.ITrieNode;
+
+import java.math.BigInteger;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * the compact form of a BreakResult: the line itself is not copied, the marks are 3 bitsets over the offsets of it
+ * <p>
+ * bit i of a bitset is the mark after the char i of the line (before the char i + 1):
+ * 1 breaks: there is a break, SPLIT_OF_NORMAL_BREAK or SPLIT_OF_POSSIBLE_BREAK
+ * 2 possibleBreaks: the break is SPLIT_OF_POSSIBLE_BREAK
+ * 3 errors: the word ending at the char is broken wrong, SPLIT_OF_ERROR_BREAK
+ * <p>
+ * so the marks of a line of n chars cost 3 * n / 8 bytes, instead of the copy of the line with the marks
+ * (at least 2 * n bytes), and the words are CharSequence views of the line found by the bits, without parsing
+ * <p>
+ * the conversion to and from BreakResult is lossless: toBreakResult() is the same as the result it is made of,
+ * so are its cases
+ * <p>
+ * ** the line must not be changed while the compact result is used (e.g a StringBuilder)
+ *
+ * @author Qunhua.Liao
+ * @see BreakResult
+ * @see Dictionary#breakLineCompact(CharSequence)
+ * @since 2020-10-14
+ */
+public final class CompactBreakResult {
+
+    /**
+     * the line, not copied
+     */
+    private final CharSequence line;
+
+    private final long[] breaks;
+
+    private final long[] possibleBreaks;
+
+    private final long[] errors;
+
+    /**
+     * num of possible breaks
+     */
+    private final int possibleBreakCount;
+
+    private CompactBreakResult(CharSequence line, long[] breaks, long[] possibleBreaks, long[] errors,
+                               int possibleBreakCount) {
+        this.line = line;
+        this.breaks = breaks;
+        this.possibleBreaks = possibleBreaks;
+        this.errors = errors;
+        this.possibleBreakCount = possibleBreakCount;
+    }
+
+    /**
+     * make the compact form of the result of a line, the marks are told from the chars of the line by
+     * BreakResult.isMark(int), so a char of the line which is the same as a mark is still a char of the line
+     *
+     * @param line   the line broken
+     * @param result the result of the line
+     * @return the compact result
+     * @throws IllegalArgumentException if the result is not of the line
+     */
+    public static CompactBreakResult of(CharSequence line, BreakResult result) {
+        int length = line.length();
+        int words = (length + Long.SIZE - 1) >>> 6;
+        long[] breaks = new long[words];
+        long[] possibleBreaks = new long[words];
+        long[] errors = new long[words];
+        int possibleBreakCount = 0;
+
+        // i is the num of the chars of the line read, a mark is after the char i - 1
+        int i = 0;
+        for (int j = 0; j < result.length(); j++) {
+            char c = result.charAt(j);
+            if (!result.isMark(j)) {
+                if (i >= length || c != line.charAt(i)) {
+                    throw new IllegalArgumentException("the result is not of the line at char " + i + ": " + result);
+                }
+                i++;
+                continue;
+            }
+            if (i == 0) {
+                throw new IllegalArgumentException("the result begins with a mark: " + result);
+            }
+            int offset = i - 1;
+            if (c == ITrieNode.SPLIT_OF_ERROR_BREAK) {
+                errors[offset >>> 6] |= 1L << offset;
+                continue;
+            }
+            breaks[offset >>> 6] |= 1L << offset;
+            if (c == ITrieNode.SPLIT_OF_POSSIBLE_BREAK) {
+                possibleBreaks[offset >>> 6] |= 1L << offset;
+                possibleBreakCount++;
+            }
+        }
+        if (i != length) {
+            throw new IllegalArgumentException("the result is shorter than the line: " + result);
+        }
+        return new CompactBreakResult(line, breaks, possibleBreaks, errors, possibleBreakCount);
+    }
+
+    /**
+     * the result with the marks in the line, the same as the result this is made of
+     *
+     * @return the result
+     */
+    public BreakResult toBreakResult() {
+        int length = line.length();
+        BreakResult result = new BreakResult(length);
+        for (int i = 0; i < length; i++) {
+            result.appendLineChar(line.charAt(i));
+            if (isError(i)) {
+                result.append(ITrieNode.SPLIT_OF_ERROR_BREAK);
+            }
+            if (isBreak(i)) {
+                result.append(isPossibleBreak(i) ? ITrieNode.SPLIT_OF_POSSIBLE_BREAK : ITrieNode.SPLIT_OF_NORMAL_BREAK);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * the line
+     *
+     * @return the line, not copied
+     */
+    public CharSequence line() {
+        return line;
+    }
+
+    /**
+     * whether there is a break after the char
+     *
+     * @param offset the offset of the char in the line
+     * @return true if it is a normal or possible break
+     */
+    public boolean isBreak(int offset) {
+        return test(breaks, offset);
+    }
+
+    /**
+     * whether there is a possible break after the char
+     *
+     * @param offset the offset of the char in the line
+     * @return true if it is a possible break
+     */
+    public boolean isPossibleBreak(int offset) {
+        return test(possibleBreaks, offset);
+    }
+
+    /**
+     * whether the word ending at the char is broken wrong
+     *
+     * @param offset the offset of the char in the line
+     * @return true if there is an error mark after the char
+     */
+    public boolean isError(int offset) {
+        return test(errors, offset);
+    }
+
+    /**
+     * find the next break, to walk the breaks without making the words
+     *
+     * @param from the offset to find from
+     * @return the offset of the char before the next break, -1 if there is no more
+     */
+    public int nextBreak(int from) {
+        int word = from >>> 6;
+        if (from < 0 || word >= breaks.length) {
+            return -1;
+        }
+        long bits = breaks[word] & (-1L << from);
+        while (bits == 0) {
+            if (++word == breaks.length) {
+                return -1;
+            }
+            bits = breaks[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * num of possible breaks
+     *
+     * @return num of SPLIT_OF_POSSIBLE_BREAK
+     */
+    public int possibleBreakCount() {
+        return possibleBreakCount;
+    }
+
+    /**
+     * num of all possible cases: 2 ^ num of possible breaks
+     *
+     * @return num of all possible cases, Long.MAX_VALUE if it is too many for a long
+     * @see BreakResult#caseCount()
+     * @see #exactCaseCount()
+     */
+    public long caseCount() {
+        return possibleBreakCount < Long.SIZE - 1 ? 1L << possibleBreakCount : Long.MAX_VALUE;
+    }
+
+    /**
+     * num of all possible cases: 2 ^ num of possible breaks
+     *
+     * @return num of all possible cases
+     */
+    public BigInteger exactCaseCount() {
+        return BigInteger.ONE.shiftLeft(possibleBreakCount);
+    }
+
+    /**
+     * the words of a case, the same order as BreakResult.caseAt(long):
+     * bit j of the index set means the j-th possible break is broken
+     * every word is a view of the line (not copied), the error marks are not in the words, see isError(int)
+     *
+     * @param index index of the case
+     * @return the words
+     */
+    public List<CharSequence> words(long index) {
+        if (index < 0 || index >= caseCount()) {
+            throw new IndexOutOfBoundsException("case " + index + " of " + exactCaseCount());
+        }
+        if (possibleBreakCount > CaseSpliterator.LOW_BITS) {
+            return words(BigInteger.valueOf(index));
+        }
+        return words(index, null);
+    }
+
+    /**
+     * the words of a case, the same order as BreakResult.caseAt(BigInteger),
+     * so every case can be got however many possible breaks there are
+     *
+     * @param index index of the case
+     * @return the words
+     * @see #words(long)
+     */
+    public List<CharSequence> words(BigInteger index) {
+        if (index.signum() < 0 || index.bitLength() > possibleBreakCount) {
+            throw new IndexOutOfBoundsException("case " + index + " of " + exactCaseCount());
+        }
+        long low = index.longValue() & ((1L << CaseSpliterator.LOW_BITS) - 1);
+        return words(low, index.shiftRight(CaseSpliterator.LOW_BITS));
+    }
+
+    /**
+     * the words of a case, the index is split like CaseSpliterator.caseOf()
+     *
+     * @param low  the low LOW_BITS bits of the index
+     * @param high the high bits of the index, null if there are no more than LOW_BITS possible breaks
+     * @return the words
+     */
+    private List<CharSequence> words(long low, BigInteger high) {
+        List<CharSequence> words = new ArrayList<>();
+        int start = 0;
+        int possibleBreak = 0;
+        for (int i = nextBreak(0); i >= 0; i = nextBreak(i + 1)) {
+            if (isPossibleBreak(i)) {
+                int j = possibleBreak++;
+                boolean broken = j < CaseSpliterator.LOW_BITS ? (low >>> j & 1) != 0
+                        : high != null && high.testBit(j - CaseSpliterator.LOW_BITS);
+                if (!broken) {
+                    continue;
+                }
+            }
+            words.add(CharBuffer.wrap(line, start, i + 1));
+            start = i + 1;
+        }
+        if (start < line.length()) {
+            words.add(CharBuffer.wrap(line, start, line.length()));
+        }
+        return words;
+    }
+
+    /**
+     * the words of the line broken by all the breaks (normal and possible), the finest case
+     *
+     * @return the words, views of the line
+     */
+    public List<CharSequence> words() {
+        List<CharSequence> words = new ArrayList<>();
+        int start = 0;
+        for (int i = nextBreak(0); i >= 0; i = nextBreak(i + 1)) {
+            words.add(CharBuffer.wrap(line, start, i + 1));
+            start = i + 1;
+        }
+        if (start < line.length()) {
+            words.add(CharBuffer.wrap(line, start, line.length()));
+        }
+        return words;
+    }
+
+    /**
+     * all possible cases of result, the same as BreakResult.allCases()
+     *
+     * @return all possible cases
+     */
+    public String[] allCases() {
+        return toBreakResult().allCases();
+    }
+
+    /**
+     * all possible cases of result as a lazy stream, the same as BreakResult.cases()
+     *
+     * @return stream of all possible cases
+     */
+    public Stream<String> cases() {
+        return toBreakResult().cases();
+    }
+
+    @Override
+    public String toString() {
+        return toBreakResult().toString();
+    }
+
+    private static boolean test(long[] bits, int offset) {
+        return offset >= 0 && (offset >>> 6) < bits.length && (bits[offset >>> 6] & (1L << offset)) != 0;
+    }
+
+}
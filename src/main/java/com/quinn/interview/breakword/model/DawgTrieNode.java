@@ -0,0 +1,233 @@
+package com.quinn.interview.breakword.model;
+
+import com.quinn.interview.breakword.api.ITrieNode;
+import com.quinn.interview.breakword.api.ITrieNodeSupplier;
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+
+/**
+ * ITrieNode implementation which store the whole dictionary in a minimal DAWG (directed acyclic word graph):
+ * the trie whose equivalent nodes (the same word end mark and the same edges to the same nodes) are merged,
+ * so not only the prefixes but also the suffixes of the words are shared ("-ing", "-tion", "-ness" ...)
+ * <p>
+ * the DAWG is built from the sorted words incrementally (Daciuk et al. 2000): when the next word comes,
+ * the nodes of the last word out of the common prefix will never be changed again,
+ * so they are replaced by the equivalent nodes registered before, or registered themselves
+ * <p>
+ * the nodes are then flattened into the same compressed sparse rows as FrozenTrieNode,
+ * so the DAWG can be frozen and saved to an image as the trie, only with fewer nodes
+ *
+ * @author Qunhua.Liao
+ * @see FrozenTrieNode
+ * @since 2020-10-14
+ */
+public class DawgTrieNode extends AbstractCompiledTrieNode {
+
+    public DawgTrieNode(char data) {
+        super(data);
+    }
+
+    @Override
+    protected AbstractFlatTrieNode compile(Collection<String> words) {
+        return build(words);
+    }
+
+    /**
+     * build the minimal DAWG of the words
+     *
+     * @param words words of the dictionary, can be unsorted and repeated
+     * @return the DAWG flattened as a frozen trie
+     */
+    static FrozenTrieNode build(Collection<String> words) {
+        char[][] sorted = AbstractFlatTrieNode.sortedWords(words);
+        Map<Node, Node> register = new HashMap<>();
+        Node root = new Node();
+
+        // path[d] is the node after the first d chars of the last word
+        Node[] path = new Node[16];
+        path[0] = root;
+        char[] last = null;
+        for (char[] word : sorted) {
+            int common = 0;
+            if (last != null) {
+                if (Arrays.equals(word, last)) {
+                    continue;
+                }
+                while (common < word.length && common < last.length && word[common] == last[common]) {
+                    common++;
+                }
+                minimize(path, last.length, common, register);
+            }
+
+            if (path.length <= word.length) {
+                path = Arrays.copyOf(path, word.length + 1);
+            }
+            for (int d = common; d < word.length; d++) {
+                Node child = new Node();
+                path[d].append(word[d], child);
+                path[d + 1] = child;
+            }
+            path[word.length].terminal = true;
+            last = word;
+        }
+        if (last != null) {
+            minimize(path, last.length, 0, register);
+        }
+
+        return flatten(root);
+    }
+
+    /**
+     * replace the nodes of path (deeper than depth) by the equivalent nodes registered, or register them
+     * the deepest node first, so the children of a node are all registered before the node
+     */
+    private static void minimize(Node[] path, int length, int depth, Map<Node, Node> register) {
+        for (int d = length; d > depth; d--) {
+            Node node = path[d];
+            Node registered = register.putIfAbsent(node, node);
+            if (registered != null) {
+                path[d - 1].targets[path[d - 1].size - 1] = registered;
+            }
+        }
+    }
+
+    /**
+     * number the nodes breadth first and flatten them into the compressed sparse rows
+     */
+    private static FrozenTrieNode flatten(Node root) {
+        List<Node> nodes = new ArrayList<>();
+        root.id = 0;
+        nodes.add(root);
+        int edges = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            for (int e = 0; e < node.size; e++) {
+                Node target = node.targets[e];
+                if (target.id < 0) {
+                    target.id = nodes.size();
+                    nodes.add(target);
+                }
+            }
+            edges += node.size;
+        }
+
+        int[] offsets = new int[nodes.size() + 1];
+        char[] labels = new char[edges];
+        int[] targets = new int[edges];
+        long[] terminals = new long[(nodes.size() >>> 6) + 1];
+        int edge = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            if (node.terminal) {
+                terminals[i >>> 6] |= 1L << i;
+            }
+            for (int e = 0; e < node.size; e++) {
+                labels[edge] = node.labels[e];
+                targets[edge] = node.targets[e].id;
+                edge++;
+            }
+            offsets[i + 1] = edge;
+        }
+        return new FrozenTrieNode(offsets, labels, targets, terminals);
+    }
+
+    /**
+     * node of the DAWG while building, the edges are appended in the order of labels
+     * two nodes are equal if they have the same word end mark and the same edges to the same (registered) nodes
+     */
+    private static final class Node {
+
+        private static final char[] NO_LABELS = new char[0];
+
+        private static final Node[] NO_TARGETS = new Node[0];
+
+        private char[] labels = NO_LABELS;
+
+        private Node[] targets = NO_TARGETS;
+
+        private int size;
+
+        private boolean terminal;
+
+        /**
+         * number of the node in breadth first order, -1 before flattening
+         */
+        private int id = -1;
+
+        private void append(char label, Node target) {
+            if (size == labels.length) {
+                int capacity = Math.max(2, size << 1);
+                labels = Arrays.copyOf(labels, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+            }
+            labels[size] = label;
+            targets[size] = target;
+            size++;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Node)) {
+                return false;
+            }
+            Node other = (Node) obj;
+            if (terminal != other.terminal || size != other.size) {
+                return false;
+            }
+            for (int e = 0; e < size; e++) {
+                if (labels[e] != other.labels[e] || targets[e] != other.targets[e]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = terminal ? 1 : 0;
+            for (int e = 0; e < size; e++) {
+                hash = 31 * hash + labels[e];
+                hash = 31 * hash + System.identityHashCode(targets[e]);
+            }
+            return hash;
+        }
+    }
+
+    /**
+     * Supplier used to create DawgTrieNode at runtime
+     */
+    public static class Supplier implements ITrieNodeSupplier {
+
+        @Override
+        public TrieNodeTypeEnum name() {
+            return TrieNodeTypeEnum.DAWG;
+        }
+
+        @Override
+        public ITrieNode supply(char c) {
+            return new DawgTrieNode(c);
+        }
+
+        @Override
+        public boolean supportBulkBuild() {
+            return true;
+        }
+
+        @Override
+        public ITrieNode supply(SortedSet<String> words) {
+            DawgTrieNode root = new DawgTrieNode(ITrieNode.SPLIT_OF_WORD);
+            root.addWords(words);
+            return root;
+        }
+    }
+}
@@ -6,8 +6,19 @@ import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
 import com.quinn.interview.util.BaseUtil;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Dictionary: contains all valid English words
@@ -22,6 +33,11 @@ public class Dictionary {
      */
     public static final String WORD_SPLIT = ",";
 
+    /**
+     * the split mark of a word and its frequency in a text file, e.g "samsung:1000", the frequency is optional
+     */
+    public static final String FREQUENCY_SPLIT = ":";
+
     /**
      * all words in the standard dictionary
      */
@@ -50,11 +66,8 @@ public class Dictionary {
      * @return Dictionary implementation instance
      */
     public static Dictionary create(TrieNodeTypeEnum treeType) {
-        Dictionary dictionary = emptyDict(treeType);
-        for (String word : STANDARD_DIC_WORDS) {
-            dictionary.addWord(word);
-        }
-        return dictionary;
+        return load(treeType, true, (consumer) -> {
+        });
     }
 
     /**
@@ -64,17 +77,11 @@ public class Dictionary {
      * @return Dictionary implementation instance
      */
     public static Dictionary create(TrieNodeTypeEnum treeType, String[] customDict, boolean useStdDic) {
-        Dictionary dictionary = emptyDict(treeType);
-        if (useStdDic) {
-            for (String word : STANDARD_DIC_WORDS) {
-                dictionary.addWord(word);
+        return load(treeType, useStdDic, (consumer) -> {
+            for (String word : customDict) {
+                consumer.accept(word);
             }
-        }
-
-        for (String word : customDict) {
-            dictionary.addWord(word);
-        }
-        return dictionary;
+        });
     }
 
     /**
@@ -84,67 +91,580 @@ public class Dictionary {
      * @return Dictionary implementation instance
      */
     public static Dictionary create(TrieNodeTypeEnum treeType, String filePath, boolean useStdDic) {
-        Dictionary dictionary = emptyDict(treeType);
-        if (useStdDic) {
-            for (String word : STANDARD_DIC_WORDS) {
-                dictionary.addWord(word);
+        if (!new File(filePath).exists()) {
+            filePath = Dictionary.class.getResource("/" + filePath).getFile();
+        }
+
+        String path = filePath;
+        WordFrequencies frequencies = new WordFrequencies();
+        ITrieNodeSupplier supplier = supplierOf(treeType);
+        ITrieNode root = supplier.supportBulkBuild() ? null : supplier.supply(ITrieNode.SPLIT_OF_WORD);
+        Dictionary dictionary;
+        if (root instanceof AbstractTrieNode) {
+            // the words of english letters only are added from the bytes read directly
+            dictionary = new Dictionary(root, new HashSet<>());
+            if (useStdDic) {
+                for (String word : STANDARD_DIC_WORDS) {
+                    dictionary.addWord(word);
+                }
             }
+            ByteWordReader.read(Paths.get(path), frequencies, dictionary::addWord);
+        } else {
+            dictionary = load(treeType, useStdDic, (consumer) -> readWords(path, frequencies, consumer));
+        }
+        if (frequencies.size() > 0) {
+            dictionary.frequencies = frequencies;
         }
+        return dictionary;
+    }
 
-        if (!new File(filePath).exists()) {
-            filePath = Dictionary.class.getResource("/" + filePath).getFile();
+    /**
+     * create a dictionary from many files (e.g the shards of a vocabulary), in the common ForkJoinPool
+     *
+     * @param treeType  the tree node type
+     * @param files     the dictionary files
+     * @param useStdDic whether to add the words of the standard dictionary
+     * @return Dictionary implementation instance
+     * @see #create(TrieNodeTypeEnum, Collection, boolean, ForkJoinPool)
+     */
+    public static Dictionary create(TrieNodeTypeEnum treeType, Collection<Path> files, boolean useStdDic) {
+        return create(treeType, files, useStdDic, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * create a dictionary from many files (e.g the shards of a vocabulary), the dictionary is the same as
+     * the one created from a file of all the lines of the files in order
+     * <p>
+     * the files are read by the workers of the pool at the same time, and the words are partitioned by
+     * their first char: every worker builds the subtree of a bucket of first chars alone, then the subtrees are
+     * attached to the root, so there is no lock while adding words
+     * (the words of the types built in bulk, DOUBLE_ARRAY and DAWG, are only read in parallel)
+     *
+     * @param treeType  the tree node type
+     * @param files     the dictionary files
+     * @param useStdDic whether to add the words of the standard dictionary
+     * @param pool      the pool to read the files and build the subtrees in
+     * @return Dictionary implementation instance
+     * @throws RuntimeException if a file can not be read
+     * @see ParallelLoader
+     */
+    public static Dictionary create(TrieNodeTypeEnum treeType, Collection<Path> files, boolean useStdDic,
+                                    ForkJoinPool pool) {
+        ParallelLoader loader = new ParallelLoader(supplierOf(treeType), pool);
+        loader.load(new ArrayList<>(files), useStdDic ? STANDARD_DIC_WORDS : new String[0]);
+        Dictionary dictionary = new Dictionary(loader.root(), loader.words());
+        if (loader.frequencies().size() > 0) {
+            dictionary.frequencies = loader.frequencies();
         }
+        return dictionary;
+    }
 
-        BaseUtil.readLargeFile(filePath, (line) -> {
-            if (BaseUtil.isEmpty(line)) {
-                return;
+    /**
+     * create a dictionary from the files of the directory which match the glob (e.g "dict_*.dict"),
+     * the files are in the order of their names
+     *
+     * @param treeType  the tree node type
+     * @param directory the directory of the dictionary files
+     * @param glob      the glob of the file names
+     * @param useStdDic whether to add the words of the standard dictionary
+     * @return Dictionary implementation instance
+     * @see #create(TrieNodeTypeEnum, Collection, boolean, ForkJoinPool)
+     */
+    public static Dictionary create(TrieNodeTypeEnum treeType, Path directory, String glob, boolean useStdDic) {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
             }
-            String[] split = line.split(WORD_SPLIT);
-            for (String world : split) {
-                dictionary.addWord(world);
+        } catch (IOException e) {
+            throw new RuntimeException("directory " + directory + " read failed", e);
+        }
+        Collections.sort(files);
+        return create(treeType, files, useStdDic);
+    }
+
+    /**
+     * read the words of a dictionary file, at byte level
+     *
+     * @param path        path of the dictionary file
+     * @param frequencies to record the frequencies of the words
+     * @param consumer    consumer of the words (without frequency)
+     */
+    static void readWords(String path, WordFrequencies frequencies, Consumer<String> consumer) {
+        ByteWordReader.read(Paths.get(path), frequencies,
+                (bytes, from, to) -> consumer.accept(BaseUtil.decode(bytes, from, to)));
+    }
+
+    /**
+     * load all words into a new dictionary
+     * if the supplier supports bulk build, all words are collected and sorted first, then built at once,
+     * or they are added one by one
+     *
+     * @param treeType  the tree node type
+     * @param useStdDic whether to add the words of the standard dictionary
+     * @param loader    feed all the custom words to the consumer given
+     * @return Dictionary implementation instance
+     */
+    private static Dictionary load(TrieNodeTypeEnum treeType, boolean useStdDic, Consumer<Consumer<String>> loader) {
+        ITrieNodeSupplier supplier = supplierOf(treeType);
+        if (supplier.supportBulkBuild()) {
+            SortedSet<String> words = new TreeSet<>();
+            if (useStdDic) {
+                Collections.addAll(words, STANDARD_DIC_WORDS);
             }
-        });
+            loader.accept((word) -> words.add(fold(word)));
+            return new Dictionary(supplier.supply(words), words);
+        }
 
+        Dictionary dictionary = new Dictionary(supplier.supply(ITrieNode.SPLIT_OF_WORD), new HashSet<>());
+        if (useStdDic) {
+            for (String word : STANDARD_DIC_WORDS) {
+                dictionary.addWord(word);
+            }
+        }
+        loader.accept(dictionary::addWord);
         return dictionary;
     }
 
-    private static Dictionary emptyDict(TrieNodeTypeEnum treeType) {
+    private static ITrieNodeSupplier supplierOf(TrieNodeTypeEnum treeType) {
         ITrieNodeSupplier supplier = supplierMap.get(treeType);
         if (supplier == null) {
             throw new IllegalArgumentException("ITrieNode of type[" + treeType + "] not supported");
         }
-        Dictionary dictionary = new Dictionary();
-        dictionary.root = supplier.supply(ITrieNode.SPLIT_OF_WORD);
-        dictionary.words = new HashSet<>();
-        return dictionary;
+        return supplier;
+    }
+
+    /**
+     * the word in lower case, the same as the chars of it in the trie (see Alphabet),
+     * so the words kept are the words of the trie: "Samsung" and "samsung" are the same word
+     *
+     * @param word the word
+     * @return the word folded, the word itself if it is in lower case already
+     */
+    static String fold(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (AbstractFlatTrieNode.fold(c) != c) {
+                char[] chars = word.toCharArray();
+                for (int j = i; j < chars.length; j++) {
+                    chars[j] = AbstractFlatTrieNode.fold(chars[j]);
+                }
+                return new String(chars);
+            }
+        }
+        return word;
+    }
+
+    private Dictionary(ITrieNode root, Set<String> words) {
+        this.root = root;
+        this.words = words;
     }
 
     /**
      * root node of the dictionary
      */
-    private ITrieNode root;
+    private final ITrieNode root;
 
     /**
-     * words not repeated
+     * words not repeated (folded, see fold(String)), to add and remove words;
+     * null if the dictionary is frozen (the trie has the words). only the frozen form replaces the set
+     * by the WordIndex, the dictionary which is not frozen keeps it (even after freeze() is called)
      */
     private Set<String> words;
 
+    /**
+     * the dense ids of the words, built when it is used first if the dictionary is opened or not frozen
+     * (dropped when a word is added or removed)
+     */
+    private volatile WordIndex index;
+
+    /**
+     * the frequencies of the words by their ids, null if there are none (or the index is not built yet),
+     * put before the index is published
+     */
+    private long[] frequencyById;
+
+    /**
+     * frequencies of the words read from the dictionary file, null if there are none (or the dictionary is frozen,
+     * see frequencyById)
+     */
+    private WordFrequencies frequencies;
+
+    /**
+     * compiled for the best break when it is used first, dropped when a word is added
+     */
+    private volatile BestBreaker bestBreaker;
+
+    /**
+     * the results of the lines broken, null if there is no cache
+     */
+    private volatile BreakCache cache;
+
+    /**
+     * compile the dictionary into a frozen trie: the nodes are flattened breadth first into a few primitive arrays
+     * so there is nothing for GC to trace, and the lines are broken on the arrays directly
+     * <p>
+     * the frozen dictionary is immutable: adding a new word throws UnsupportedOperationException,
+     * and it can be shared by any threads to break lines concurrently without synchronization
+     * <p>
+     * the dictionary itself is not changed (it still keeps the set of the words and their frequencies), so it can be
+     * changed and frozen again; usually it is dropped after freezing
+     * <p>
+     * the dictionary of the type which is compiled already (DOUBLE_ARRAY, DAWG) keeps its compiled structure
+     * <p>
+     * the frozen dictionary does not keep the words as strings: the words are found by the trie,
+     * and every word has a dense id by a minimal perfect hash (see WordIndex), which is the index of
+     * the frequencies in an array. the best break walks the frozen trie itself, with the costs of the words
+     * in an array by the ids for the same reason
+     *
+     * @return the frozen dictionary, or the dictionary itself if it is already frozen
+     */
+    public Dictionary freeze() {
+        if (isFrozen()) {
+            return this;
+        }
+        Dictionary frozen = new Dictionary(flat(), null);
+        WordIndex wordIndex = index();
+        // the array is never changed once it is built (a change of the words drops it), so it is shared
+        frozen.frequencyById = frequencyById;
+        frozen.index = wordIndex;
+        return frozen;
+    }
+
+    /**
+     * the trie of the root node to walk by the states: the root node itself, or its compiled structure
+     */
+    private AbstractStateTrieNode trie() {
+        return root instanceof AbstractStateTrieNode ? (AbstractStateTrieNode) root : flat();
+    }
+
+    /**
+     * the compiled structure of the root node, or the frozen trie built from the words
+     */
+    private AbstractFlatTrieNode flat() {
+        if (root instanceof AbstractFlatTrieNode) {
+            return (AbstractFlatTrieNode) root;
+        }
+        if (root instanceof AbstractCompiledTrieNode) {
+            return ((AbstractCompiledTrieNode) root).compiled();
+        }
+        return FrozenTrieNode.build(words);
+    }
+
+    /**
+     * whether the dictionary is frozen
+     *
+     * @return true if the dictionary is frozen
+     * @see #freeze()
+     */
+    public boolean isFrozen() {
+        return root instanceof AbstractFlatTrieNode;
+    }
+
+    /**
+     * save the frozen trie of the dictionary to a binary image file,
+     * which can be opened by Dictionary.open(Path) without building the trie again
+     * (the DAWG is saved as it is, so its image is smaller)
+     * <p>
+     * the frequencies of the words are saved in the image too, so the dictionary opened breaks the best
+     * the same way
+     *
+     * @param path path of the image file
+     * @see #open(Path)
+     */
+    public void save(Path path) {
+        try {
+            if (root instanceof MappedTrieNode) {
+                ((MappedTrieNode) root).write(path);
+            } else {
+                AbstractFlatTrieNode flat = flat();
+                FrozenTrieNode trie = flat instanceof FrozenTrieNode ? (FrozenTrieNode) flat
+                        : FrozenTrieNode.build(words != null ? words : flat.words());
+                MappedTrieNode.write(trie, frequenciesOf(trie), path);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("file " + path + " write failed", e);
+        }
+    }
+
+    /**
+     * get the frequencies of the words of the trie to be saved
+     *
+     * @param trie the trie of the words of the dictionary
+     * @return the frequency of every word in the order of forEachWord(), null if the words have no frequency
+     */
+    private long[] frequenciesOf(AbstractFlatTrieNode trie) {
+        if (!hasFrequencies()) {
+            return null;
+        }
+        WordIndex wordIndex = index();
+        long[] byId = frequencyById;
+        List<String> all = trie.words();
+        long[] saved = new long[all.size()];
+        for (int i = 0; i < saved.length; i++) {
+            saved[i] = byId[wordIndex.id(all.get(i))];
+        }
+        return saved;
+    }
+
+    /**
+     * whether the words have frequencies, without building the index
+     */
+    private boolean hasFrequencies() {
+        if (words != null) {
+            return frequencies != null;
+        }
+        if (root instanceof MappedTrieNode) {
+            return ((MappedTrieNode) root).frequencies() != null;
+        }
+        return frequencyById != null;
+    }
+
+    /**
+     * open a dictionary from the binary image file saved by Dictionary.save(Path)
+     * the image file is memory mapped and the lines are broken on the mapped file directly,
+     * so it costs the same time to open however large the dictionary is,
+     * and the processes which open the same file share the same memory of page cache
+     * <p>
+     * the dictionary opened is frozen
+     *
+     * @param path path of the image file
+     * @return the frozen dictionary
+     * @see #save(Path)
+     */
+    public static Dictionary open(Path path) {
+        try {
+            return new Dictionary(MappedTrieNode.open(path), null);
+        } catch (IOException e) {
+            throw new RuntimeException("file " + path + " read failed", e);
+        }
+    }
+
     /**
      * add a word to the node, static proxy of the root node
+     * it is not thread safe: do not break lines while adding words,
+     * use ReloadableDictionary to change the words of a dictionary under load
      *
      * @param word word to be added
+     * @see ReloadableDictionary#addWords(String...)
      */
     public void addWord(String word) {
-        if (words.contains(word)) {
+        if (contains(word)) {
             return;
         }
         this.root.addWord(word);
-        words.add(word);
+        words.add(fold(word));
+        changed();
+    }
+
+    /**
+     * add a word of the bytes read from a dictionary file,
+     * the root must be an AbstractTrieNode, a String of the word is only made if it is a new word
+     *
+     * @param bytes the buffer
+     * @param from  the first byte of the word
+     * @param to    the end of the word (exclusive)
+     */
+    private void addWord(ByteBuffer bytes, int from, int to) {
+        if (!ByteWordReader.isLetters(bytes, from, to)) {
+            addWord(BaseUtil.decode(bytes, from, to));
+            return;
+        }
+        // a path of letters only is the path of the same word only, so the trie tells whether it is new
+        if (((AbstractTrieNode<?>) root).addWord(bytes, from, to)) {
+            words.add(BaseUtil.decode(bytes, from, to));
+            changed();
+        }
     }
 
     /**
-     * break a line without any space, be composed of english letters only
-     * static proxy of the root node
+     * remove a word from the node, static proxy of the root node
+     * the nodes which do not lead to any word any more are removed too
+     * (the case of the chars is ignored, like the trie: removing "Samsung" removes "samsung")
+     * it is not thread safe like addWord(String)
+     *
+     * @param word word to be removed
+     * @return false if the word is not in the dictionary
+     * @throws UnsupportedOperationException if the dictionary is frozen
+     */
+    public boolean removeWord(String word) {
+        if (isFrozen()) {
+            throw new UnsupportedOperationException("can not remove word from a frozen dictionary");
+        }
+        String folded = fold(word);
+        if (!words.contains(folded)) {
+            return false;
+        }
+        this.root.removeWord(word);
+        words.remove(folded);
+        changed();
+        return true;
+    }
+
+    /**
+     * drop what is built from the words when a word is added or removed
+     */
+    private void changed() {
+        bestBreaker = null;
+        index = null;
+        frequencyById = null;
+        BreakCache cache = this.cache;
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * put a cache in front of breakLine(String), for the traffic of which a few lines are most of the lines
+     * the cache is invalidated now and whenever a word is added or removed;
+     * it is not carried by freeze() (put another cache on the frozen dictionary), and breakLines() does not use it
+     *
+     * @param cache the cache used by this dictionary only, null to break every line by the trie
+     * @return this dictionary
+     * @see BreakCache
+     */
+    public Dictionary withCache(BreakCache cache) {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * the cache of breakLine(String)
+     *
+     * @return the cache, null if there is none
+     */
+    public BreakCache cache() {
+        return cache;
+    }
+
+    /**
+     * release the memory which is not used any more after many words are removed:
+     * the spare storage of the nodes, and the spare buckets of the words
+     * it is not thread safe like addWord(String)
+     */
+    public void compact() {
+        if (isFrozen()) {
+            return;
+        }
+        this.root.compact();
+        if (words instanceof HashSet) {
+            words = new HashSet<>(words);
+        }
+    }
+
+    /**
+     * whether the word is in the dictionary
+     * (the case of the chars is ignored, see Alphabet)
+     * <p>
+     * the word of a frozen dictionary is found by its id first, which tells almost all the words
+     * not in the dictionary by a hash, then by the trie
+     *
+     * @param word the word
+     * @return true if the word is in the dictionary
+     */
+    public boolean contains(String word) {
+        if (word == null) {
+            return false;
+        }
+        if (words != null) {
+            return words.contains(fold(word));
+        }
+        return index().id(word) >= 0 && ((AbstractFlatTrieNode) root).containsWord(word);
+    }
+
+    /**
+     * get the id of a word of the frozen dictionary, the ids of n words are 0 to n - 1,
+     * so the data of the words can be kept in arrays indexed by the id
+     *
+     * @param word the word
+     * @return the id of the word, -1 if it is not in the dictionary
+     * @throws UnsupportedOperationException if the dictionary is not frozen (the ids change with the words)
+     */
+    public int wordId(String word) {
+        if (!isFrozen()) {
+            throw new UnsupportedOperationException("the words have no ids until the dictionary is frozen");
+        }
+        return contains(word) ? index().id(word) : -1;
+    }
+
+    /**
+     * get the num of words of the dictionary
+     *
+     * @return the num of words (the words which are the same but the case count once)
+     */
+    public int wordCount() {
+        return words != null ? words.size() : index().size();
+    }
+
+    /**
+     * get the frequency of a word of the frozen dictionary, read from the dictionary file
+     *
+     * @param word the word
+     * @return the frequency, 1 if the word has no frequency, 0 if it is not in the dictionary
+     * @throws UnsupportedOperationException if the dictionary is not frozen
+     * @see #FREQUENCY_SPLIT
+     */
+    public long frequency(String word) {
+        int id = wordId(word);
+        if (id < 0) {
+            return 0;
+        }
+        return frequencyById == null ? 1 : frequencyById[id];
+    }
+
+    /**
+     * the index of the words, it is built from the words if the dictionary is not frozen,
+     * or from the trie if the dictionary is opened (with the frequencies saved in the image)
+     */
+    private WordIndex index() {
+        WordIndex wordIndex = index;
+        if (wordIndex == null) {
+            synchronized (this) {
+                wordIndex = index;
+                if (wordIndex == null) {
+                    if (words != null) {
+                        wordIndex = WordIndex.build(words);
+                        frequencyById = frequencies == null ? null : frequencies.byId(wordIndex, words);
+                    } else {
+                        List<String> all = ((AbstractFlatTrieNode) root).words();
+                        wordIndex = WordIndex.build(all);
+                        frequencyById = savedFrequencies(wordIndex, all);
+                    }
+                    index = wordIndex;
+                }
+            }
+        }
+        return wordIndex;
+    }
+
+    /**
+     * get the frequencies saved in the image by the ids of the words
+     *
+     * @param wordIndex the ids of the words
+     * @param all       all words of the image in the order of forEachWord()
+     * @return the frequency of every id, null if the image has no frequency
+     */
+    private long[] savedFrequencies(WordIndex wordIndex, List<String> all) {
+        LongBuffer saved = root instanceof MappedTrieNode ? ((MappedTrieNode) root).frequencies() : null;
+        if (saved == null) {
+            return null;
+        }
+        long[] byId = new long[wordIndex.size()];
+        for (int i = 0; i < all.size(); i++) {
+            byId[wordIndex.id(all.get(i))] = saved.get(i);
+        }
+        return byId;
+    }
+
+    /**
+     * break a line without any space, the chars which are not in the alphabet of the dictionary are passed through
+     * static proxy of the root node, or of the cache if there is one (a copy of the result in the cache is returned,
+     * so the result always belongs to the caller)
      *
      * @param line the line to be break
      * @return result StringBuild with all possible cases
@@ -158,7 +678,232 @@ public class Dictionary {
             return new BreakResult(0);
         }
 
+        BreakCache cache = this.cache;
+        if (cache != null) {
+            return cache.get(line, root::breakLine).copy();
+        }
         return this.root.breakLine(line);
     }
 
+    /**
+     * break the chars [offset, offset + length) of the array into the result given by the caller,
+     * the same as breakLine(new String(chars, offset, length)) but nothing is allocated:
+     * reuse the array and the result for many lines (a result per thread)
+     * <p>
+     * the cache is not used, the result is cleared and belongs to the caller
+     *
+     * @param chars  the buffer holding the line
+     * @param offset the first char of the line
+     * @param length the length of line
+     * @param sink   the result to break the line into
+     * @return the sink
+     */
+    public BreakResult breakLine(char[] chars, int offset, int length, BreakResult sink) {
+        checkRange(chars.length, offset, length);
+        sink.clear();
+        if (length > 0) {
+            this.root.breakLine(chars, offset, offset + length, sink);
+        }
+        return sink;
+    }
+
+    /**
+     * break a line into the result given by the caller, the chars are copied into the buffer of the result
+     *
+     * @param line the line to be break, e.g a String or a StringBuilder
+     * @param sink the result to break the line into
+     * @return the sink, null if the line is null
+     * @see #breakLine(char[], int, int, BreakResult)
+     */
+    public BreakResult breakLine(CharSequence line, BreakResult sink) {
+        if (line == null) {
+            return null;
+        }
+        int length = line.length();
+        char[] chars = sink.lineChars(length);
+        if (line instanceof String) {
+            ((String) line).getChars(0, length, chars, 0);
+        } else {
+            for (int i = 0; i < length; i++) {
+                chars[i] = line.charAt(i);
+            }
+        }
+        return breakLine(chars, 0, length, sink);
+    }
+
+    /**
+     * break a line of Latin-1 bytes (one char per byte, e.g an ASCII line read from the network)
+     * into the result given by the caller, without decoding it into a String
+     *
+     * @param bytes  the buffer holding the line
+     * @param offset the first byte of the line
+     * @param length the length of line
+     * @param sink   the result to break the line into
+     * @return the sink
+     * @see #breakLine(char[], int, int, BreakResult)
+     */
+    public BreakResult breakLine(byte[] bytes, int offset, int length, BreakResult sink) {
+        checkRange(bytes.length, offset, length);
+        char[] chars = sink.lineChars(length);
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (bytes[offset + i] & 0xFF);
+        }
+        return breakLine(chars, 0, length, sink);
+    }
+
+    /**
+     * break a line of Latin-1 bytes between the position and the limit of the buffer
+     * into the result given by the caller, the position of the buffer is not changed
+     *
+     * @param bytes the buffer holding the line
+     * @param sink  the result to break the line into
+     * @return the sink
+     * @see #breakLine(byte[], int, int, BreakResult)
+     */
+    public BreakResult breakLine(ByteBuffer bytes, BreakResult sink) {
+        if (bytes.hasArray()) {
+            return breakLine(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining(), sink);
+        }
+        int from = bytes.position();
+        int length = bytes.remaining();
+        char[] chars = sink.lineChars(length);
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (bytes.get(from + i) & 0xFF);
+        }
+        return breakLine(chars, 0, length, sink);
+    }
+
+    /**
+     * break a line into the compact result: the breaks are bitsets over the offsets of the line,
+     * and the words are views of the line, so only the bitsets are kept with the line
+     * (the marks are broken into a result first, see breakLine(CharSequence, BreakResult))
+     *
+     * @param line the line to be break, it must not be changed while the result is used
+     * @return the compact result, null if the line is null
+     * @see CompactBreakResult
+     */
+    public CompactBreakResult breakLineCompact(CharSequence line) {
+        if (line == null) {
+            return null;
+        }
+        return CompactBreakResult.of(line, breakLine(line, new BreakResult(line.length())));
+    }
+
+    private static void checkRange(int size, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > size - length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + " of " + size);
+        }
+    }
+
+    /**
+     * break many lines in parallel, in the common ForkJoinPool
+     *
+     * @param lines the lines to be break
+     * @return the results in the order of the lines (null for the null line)
+     * @see #breakLines(List, ForkJoinPool)
+     */
+    public List<BreakResult> breakLines(List<String> lines) {
+        return breakLines(lines, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * break many lines in parallel, the result of every line is the same as breakLine(line)
+     * the lines are split into chunks of about the same num of chars (not the same num of lines),
+     * and every chunk is broken by a worker of the pool with a char buffer reused for all its lines
+     * <p>
+     * the dictionary must not be changed while breaking, freeze it first to share it between threads safely
+     *
+     * @param lines the lines to be break
+     * @param pool  the pool to break the lines in
+     * @return the results in the order of the lines (null for the null line)
+     * @see BatchBreaker
+     */
+    public List<BreakResult> breakLines(List<String> lines, ForkJoinPool pool) {
+        if (lines == null) {
+            return null;
+        }
+
+        return Arrays.asList(new BatchBreaker(root, pool).breakLines(lines));
+    }
+
+    /**
+     * break the lines of a stream in parallel, in the common ForkJoinPool
+     *
+     * @param lines the lines to be break
+     * @return the stream of results in the order of the lines (null for the null line)
+     * @see #breakLines(Stream, ForkJoinPool)
+     */
+    public Stream<BreakResult> breakLines(Stream<String> lines) {
+        return breakLines(lines, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * break the lines of a stream in parallel, the stream can be larger than the memory (e.g lines of a file):
+     * the lines are taken batch by batch when the results are consumed, and every batch is broken like
+     * breakLines(List, ForkJoinPool), so only a batch of lines and results is held at a time
+     * <p>
+     * the stream returned is sequential (the lines are broken in the pool already), closing it closes the lines
+     *
+     * @param lines the lines to be break
+     * @param pool  the pool to break the lines in
+     * @return the stream of results in the order of the lines (null for the null line)
+     */
+    public Stream<BreakResult> breakLines(Stream<String> lines, ForkJoinPool pool) {
+        if (lines == null) {
+            return null;
+        }
+
+        return StreamSupport.stream(new BatchBreaker(root, pool).breakLines(lines.iterator()), false)
+                .onClose(lines::close);
+    }
+
+    /**
+     * find all words of the dictionary in the line, as a word lattice (a DAG of the offsets)
+     * every way to break the whole line into words is a path of the lattice,
+     * so the paths can be counted and picked without breaking the line again
+     *
+     * @param line the line to be break
+     * @return the word lattice of the line
+     * @see WordLattice
+     */
+    public WordLattice lattice(String line) {
+        if (line == null) {
+            return null;
+        }
+
+        return this.root.lattice(line);
+    }
+
+    /**
+     * break the line into the most likely words (the single best case, instead of all cases)
+     * the cost of a word is -log(probability), by the frequencies in the dictionary file,
+     * or every word costs the same if there are no frequencies (the fewest words are the best)
+     * <p>
+     * a word with space (e.g "man go") is one word, and the chars not in any word are single char words
+     * <p>
+     * the costs of the words are compiled when it is used first (and again after a word is added),
+     * the trie of the dictionary is walked as it is
+     *
+     * @param line the line to be break
+     * @return the end offsets of the words, ascending (the last one is the length of line)
+     * @see BestBreaker
+     */
+    public int[] bestBreak(String line) {
+        if (line == null) {
+            return null;
+        }
+
+        BestBreaker breaker = bestBreaker;
+        if (breaker == null) {
+            if (hasFrequencies()) {
+                WordIndex wordIndex = index();
+                breaker = BestBreaker.weighted(trie(), wordIndex, frequencyById);
+            } else {
+                breaker = BestBreaker.uniform(trie());
+            }
+            bestBreaker = breaker;
+        }
+        return breaker.bestBreak(line);
+    }
+
 }
@@ -0,0 +1,311 @@
+package com.quinn.interview.breakword.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * the compiled double array trie: the whole dictionary is stored in two int arrays
+ * for a state s and the code of a char c, the next state is t = base[s] + code(c) if check[t] == s
+ * so a transition is two array reads without any pointer chasing
+ * <p>
+ * the code of a char is like the position in ArrayTrieNode: 1 is used to mark the word end, 2 is used for ' '
+ * and the other chars are 3, 4 ... in the order of the chars, e.g 'a', 'b' ... 'z' are 3, 4 ... 28 for english words
+ * (the code in the alphabet of the words plus 1, the alphabet is built from the chars in ascending order,
+ * so the codes of the children of a state are ascending like the sorted words, but the chars less than ' ')
+ *
+ * @author Qunhua.Liao
+ * @see DoubleArrayTrieNode
+ * @since 2020-10-13
+ */
+final class DoubleArray extends AbstractFlatTrieNode {
+
+    /**
+     * the root state, state 0 is never used so the empty slot can be marked by check 0
+     */
+    private static final int ROOT = 1;
+
+    /**
+     * the code to mark the word end
+     */
+    private static final char END_CODE = 1;
+
+    /**
+     * the code of ' '
+     */
+    private static final char SPACE_CODE = 2;
+
+    /**
+     * when more than 95% slots after nextCheckPos are used, skip them in the following searches
+     */
+    private static final double USED_RATE_TO_SKIP = 0.95;
+
+    private final int[] base;
+
+    private final int[] check;
+
+    /**
+     * the alphabet of the words
+     */
+    private final Alphabet alphabet;
+
+    private DoubleArray(int[] base, int[] check, Alphabet alphabet) {
+        this.base = base;
+        this.check = check;
+        this.alphabet = alphabet;
+    }
+
+    @Override
+    Alphabet alphabet() {
+        return alphabet;
+    }
+
+    @Override
+    int root() {
+        return ROOT;
+    }
+
+    /**
+     * the code of the double array, so the break does not map the char again at every state
+     *
+     * @param c the char of a line
+     * @return the code, UNKNOWN if the char is not in the alphabet
+     */
+    @Override
+    char code(char c) {
+        char code = alphabet.index(c);
+        return code == Alphabet.UNKNOWN ? Alphabet.UNKNOWN : (char) (code + 1);
+    }
+
+    @Override
+    int next(int state, char code) {
+        int t = base[state] + code;
+        return t < check.length && check[t] == state ? t : NONE;
+    }
+
+    @Override
+    int nextSpace(int state) {
+        return next(state, SPACE_CODE);
+    }
+
+    @Override
+    int nextChar(int state, char c) {
+        char code = codeOf(alphabet, c);
+        return code == END_CODE ? NONE : next(state, code);
+    }
+
+    @Override
+    boolean isWordEnd(int state) {
+        return next(state, END_CODE) != NONE;
+    }
+
+    /**
+     * get the code of a char
+     *
+     * @param alphabet the alphabet of the words
+     * @param c        the char
+     * @return the code, END_CODE if the char is not in the alphabet
+     */
+    private static char codeOf(Alphabet alphabet, char c) {
+        return c == SPLIT_OF_NORMAL_BREAK ? SPACE_CODE : (char) (alphabet.index(c) + 1);
+    }
+
+    /**
+     * build the double array of the words
+     *
+     * @param words words of the dictionary, can be unsorted and repeated
+     * @return the double array
+     */
+    static DoubleArray build(Collection<String> words) {
+        char[][] sorted = sortedWords(words);
+        BitSet chars = new BitSet();
+        for (char[] word : sorted) {
+            for (char c : word) {
+                chars.set(c);
+            }
+        }
+        Alphabet alphabet = new Alphabet();
+        for (int c = chars.nextSetBit(0); c >= 0; c = chars.nextSetBit(c + 1)) {
+            alphabet.add((char) c);
+        }
+        return new Builder(sorted, alphabet).build();
+    }
+
+    /**
+     * build the double array by the sorted words, depth first
+     * a node is a range of the sorted words which have the same prefix,
+     * its children are the sub ranges which have the same code at the next position
+     */
+    private static class Builder {
+
+        private final char[][] words;
+
+        private final Alphabet alphabet;
+
+        /**
+         * the max code of the chars
+         */
+        private final int maxCode;
+
+        private int[] base;
+
+        private int[] check;
+
+        /**
+         * the max slot used
+         */
+        private int size;
+
+        /**
+         * the first position to search a free base
+         */
+        private int nextCheckPos;
+
+        /**
+         * stack of the nodes to be placed: state, range start, range end, depth
+         */
+        private int[] stack = new int[64];
+
+        private int top;
+
+        private Builder(char[][] words, Alphabet alphabet) {
+            this.words = words;
+            this.alphabet = alphabet;
+            this.maxCode = alphabet.size();
+            int capacity = Math.max(1024, words.length * 4);
+            this.base = new int[capacity];
+            this.check = new int[capacity];
+            this.check[0] = -1;
+            this.check[ROOT] = -1;
+            this.size = ROOT + 1;
+            this.nextCheckPos = ROOT + 1;
+        }
+
+        private DoubleArray build() {
+            push(ROOT, 0, words.length, 0);
+
+            char[] childCodes = new char[maxCode + 1];
+            int[] childStarts = new int[maxCode + 1];
+            int[] childEnds = new int[maxCode + 1];
+            while (top > 0) {
+                top -= 4;
+                int state = stack[top];
+                int start = stack[top + 1];
+                int end = stack[top + 2];
+                int depth = stack[top + 3];
+
+                // collect the children: the word end first (a shorter word is always in front)
+                int num = 0;
+                for (int i = start; i < end; i++) {
+                    char[] word = words[i];
+                    char code = word.length == depth ? END_CODE : codeOf(alphabet, word[depth]);
+                    if (num > 0 && childCodes[num - 1] == code) {
+                        childEnds[num - 1] = i + 1;
+                    } else {
+                        childCodes[num] = code;
+                        childStarts[num] = i;
+                        childEnds[num] = i + 1;
+                        num++;
+                    }
+                }
+                if (num == 0) {
+                    continue;
+                }
+                sortByCode(childCodes, childStarts, childEnds, num);
+
+                int b = findBase(childCodes, num);
+                base[state] = b;
+                for (int i = 0; i < num; i++) {
+                    check[b + childCodes[i]] = state;
+                }
+                for (int i = 0; i < num; i++) {
+                    if (childCodes[i] != END_CODE) {
+                        push(b + childCodes[i], childStarts[i], childEnds[i], depth + 1);
+                    }
+                }
+                size = Math.max(size, b + childCodes[num - 1] + 1);
+            }
+
+            return new DoubleArray(Arrays.copyOf(base, size), Arrays.copyOf(check, size), alphabet);
+        }
+
+        /**
+         * sort the children by their codes, they are in the order of the chars already
+         * except the chars less than ' ' (whose codes are greater than the code of ' ')
+         */
+        private static void sortByCode(char[] childCodes, int[] childStarts, int[] childEnds, int num) {
+            for (int i = 1; i < num; i++) {
+                char code = childCodes[i];
+                int start = childStarts[i];
+                int end = childEnds[i];
+                int j = i - 1;
+                for (; j >= 0 && childCodes[j] > code; j--) {
+                    childCodes[j + 1] = childCodes[j];
+                    childStarts[j + 1] = childStarts[j];
+                    childEnds[j + 1] = childEnds[j];
+                }
+                childCodes[j + 1] = code;
+                childStarts[j + 1] = start;
+                childEnds[j + 1] = end;
+            }
+        }
+
+        /**
+         * find a base that all slots of the children are free
+         *
+         * @param childCodes codes of the children, in ascending order
+         * @param num        num of the children
+         * @return the base
+         */
+        private int findBase(char[] childCodes, int num) {
+            int first = childCodes[0];
+            int pos = Math.max(first + 1, nextCheckPos) - 1;
+            int used = 0;
+            boolean firstFree = true;
+
+            search:
+            while (true) {
+                pos++;
+                ensureCapacity(pos - first + maxCode + 1);
+                if (check[pos] != 0) {
+                    used++;
+                    continue;
+                }
+                if (firstFree) {
+                    nextCheckPos = pos;
+                    firstFree = false;
+                }
+
+                int b = pos - first;
+                for (int i = 1; i < num; i++) {
+                    if (check[b + childCodes[i]] != 0) {
+                        continue search;
+                    }
+                }
+                if ((double) used / (pos - nextCheckPos + 1) >= USED_RATE_TO_SKIP) {
+                    nextCheckPos = pos;
+                }
+                return b;
+            }
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > check.length) {
+                int newCapacity = Math.max(capacity, check.length + (check.length >> 1));
+                base = Arrays.copyOf(base, newCapacity);
+                check = Arrays.copyOf(check, newCapacity);
+            }
+        }
+
+        private void push(int state, int start, int end, int depth) {
+            if (top + 4 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length << 1);
+            }
+            stack[top++] = state;
+            stack[top++] = start;
+            stack[top++] = end;
+            stack[top++] = depth;
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.quinn.interview.breakword.model;
+
+import com.quinn.interview.breakword.api.ITrieNode;
+import com.quinn.interview.breakword.api.ITrieNodeSupplier;
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+
+import java.util.Collection;
+import java.util.SortedSet;
+
+/**
+ * ITrieNode implementation which store the whole dictionary in a double array (two int arrays: base and check)
+ * <p>
+ * inserting into a double array one by one needs to relocate the nodes again and again,
+ * so the double array is compiled from all the words at once (sorted, and placed depth first)
+ *
+ * @author Qunhua.Liao
+ * @see DoubleArray
+ * @since 2020-10-13
+ */
+public class DoubleArrayTrieNode extends AbstractCompiledTrieNode {
+
+    public DoubleArrayTrieNode(char data) {
+        super(data);
+    }
+
+    @Override
+    protected AbstractFlatTrieNode compile(Collection<String> words) {
+        return DoubleArray.build(words);
+    }
+
+    /**
+     * Supplier used to create DoubleArrayTrieNode at runtime
+     */
+    public static class Supplier implements ITrieNodeSupplier {
+
+        @Override
+        public TrieNodeTypeEnum name() {
+            return TrieNodeTypeEnum.DOUBLE_ARRAY;
+        }
+
+        @Override
+        public ITrieNode supply(char c) {
+            return new DoubleArrayTrieNode(c);
+        }
+
+        @Override
+        public boolean supportBulkBuild() {
+            return true;
+        }
+
+        @Override
+        public ITrieNode supply(SortedSet<String> words) {
+            DoubleArrayTrieNode root = new DoubleArrayTrieNode(ITrieNode.SPLIT_OF_WORD);
+            root.addWords(words);
+            return root;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.quinn.interview.breakword.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * the frozen (compiled and immutable) trie, which is flattened breadth first into compressed sparse rows:
+ * the nodes are numbered by the breadth first order, root is 0
+ * the edges of node s are in [offsets[s], offsets[s + 1]), sorted by the label (the char of the edge)
+ * labels[e] is the char of edge e, and targets[e] is the node it goes to
+ * bit s of terminals is set if a word ends at node s
+ * <p>
+ * so the whole dictionary is just four arrays (instead of millions of node objects for GC to trace),
+ * and all of them are final and never changed after construction,
+ * so the frozen trie can be read by any threads concurrently without synchronization
+ *
+ * @author Qunhua.Liao
+ * @see Dictionary#freeze()
+ * @since 2020-10-13
+ */
+final class FrozenTrieNode extends AbstractFlatTrieNode {
+
+    /**
+     * the max edges of a node to find a label one by one, binary search for more
+     */
+    static final int LINEAR_SEARCH_EDGES = 8;
+
+    final int[] offsets;
+
+    final char[] labels;
+
+    final int[] targets;
+
+    final long[] terminals;
+
+    /**
+     * the children of root indexed by the char directly (the line is broken from root again and again)
+     */
+    private final int[] rootTargets;
+
+    /**
+     * the alphabet of the labels
+     */
+    private final Alphabet alphabet;
+
+    FrozenTrieNode(int[] offsets, char[] labels, int[] targets, long[] terminals) {
+        this.offsets = offsets;
+        this.labels = labels;
+        this.targets = targets;
+        this.terminals = terminals;
+        char maxRootLabel = 0;
+        for (int e = offsets[0]; e < offsets[1]; e++) {
+            maxRootLabel = (char) Math.max(maxRootLabel, labels[e]);
+        }
+        this.rootTargets = new int[maxRootLabel + 1];
+        Arrays.fill(rootTargets, NONE);
+        for (int e = offsets[0]; e < offsets[1]; e++) {
+            rootTargets[labels[e]] = targets[e];
+        }
+        this.alphabet = new Alphabet();
+        for (char label : labels) {
+            alphabet.add(label);
+        }
+    }
+
+    @Override
+    Alphabet alphabet() {
+        return alphabet;
+    }
+
+    @Override
+    int root() {
+        return 0;
+    }
+
+    @Override
+    int next(int state, char c) {
+        if (state == 0) {
+            return c < rootTargets.length ? rootTargets[c] : NONE;
+        }
+
+        int from = offsets[state];
+        int to = offsets[state + 1];
+        if (to - from <= LINEAR_SEARCH_EDGES) {
+            for (int e = from; e < to; e++) {
+                if (labels[e] == c) {
+                    return targets[e];
+                }
+            }
+            return NONE;
+        }
+
+        int e = Arrays.binarySearch(labels, from, to, c);
+        return e < 0 ? NONE : targets[e];
+    }
+
+    @Override
+    boolean isWordEnd(int state) {
+        return (terminals[state >>> 6] & (1L << state)) != 0;
+    }
+
+    /**
+     * build the frozen trie of the words
+     *
+     * @param words words of the dictionary, can be unsorted and repeated
+     * @return the frozen trie
+     */
+    static FrozenTrieNode build(Collection<String> words) {
+        char[][] sorted = sortedWords(words);
+
+        // a node is a range of the sorted words which have the same prefix (the depth is the prefix length)
+        // the queue of the nodes is also the numbering of the nodes (breadth first)
+        int capacity = Math.max(16, sorted.length);
+        int[] starts = new int[capacity];
+        int[] ends = new int[capacity];
+        int[] depths = new int[capacity];
+        starts[0] = 0;
+        ends[0] = sorted.length;
+        int nodes = 1;
+
+        int[] offsets = new int[capacity + 1];
+        char[] labels = new char[capacity];
+        int[] targets = new int[capacity];
+        long[] terminals = new long[(capacity >>> 6) + 1];
+        int edges = 0;
+
+        for (int node = 0; node < nodes; node++) {
+            int start = starts[node];
+            int end = ends[node];
+            int depth = depths[node];
+
+            // a shorter word is always in front
+            if (start < end && sorted[start].length == depth) {
+                terminals[node >>> 6] |= 1L << node;
+                while (start < end && sorted[start].length == depth) {
+                    start++;
+                }
+            }
+
+            while (start < end) {
+                char label = sorted[start][depth];
+                int childEnd = start + 1;
+                while (childEnd < end && sorted[childEnd][depth] == label) {
+                    childEnd++;
+                }
+
+                if (nodes == starts.length) {
+                    capacity = nodes + (nodes >> 1);
+                    starts = Arrays.copyOf(starts, capacity);
+                    ends = Arrays.copyOf(ends, capacity);
+                    depths = Arrays.copyOf(depths, capacity);
+                    offsets = Arrays.copyOf(offsets, capacity + 1);
+                    labels = Arrays.copyOf(labels, capacity);
+                    targets = Arrays.copyOf(targets, capacity);
+                    terminals = Arrays.copyOf(terminals, (capacity >>> 6) + 1);
+                }
+                starts[nodes] = start;
+                ends[nodes] = childEnd;
+                depths[nodes] = depth + 1;
+
+                labels[edges] = label;
+                targets[edges] = nodes;
+                edges++;
+                nodes++;
+                start = childEnd;
+            }
+            offsets[node + 1] = edges;
+        }
+
+        return new FrozenTrieNode(Arrays.copyOf(offsets, nodes + 1), Arrays.copyOf(labels, edges),
+                Arrays.copyOf(targets, edges), Arrays.copyOf(terminals, (nodes >>> 6) + 1));
+    }
+
+}
@@ -4,34 +4,259 @@ import com.quinn.interview.breakword.api.ITrieNode;
 import com.quinn.interview.breakword.api.ITrieNodeSupplier;
 import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
 
+import java.util.function.Consumer;
+
 /**
  * ITrieNode implementation which store the relation information by Map
- * to be continued
+ * <p>
+ * the map is a small open addressing hash table keyed by the code of the char in the alphabet (linear probing),
+ * so there is neither boxing of Character nor any HashMap.Entry object:
+ * a leaf node holds no table at all, and a table grows by doubling when it is 3/4 full
+ * <p>
+ * so a node only costs the slots of the chars which really follow it
+ * instead of all the codes from its least child to its largest child of ArrayTrieNode,
+ * which is cheaper when the children are far from each other in the alphabet (e.g a large alphabet)
  *
  * @author Qunhua.Liao
+ * @see Alphabet
  * @since 2020-10-13
  */
-public class MapTrieNode implements ITrieNode {
+public class MapTrieNode extends AbstractTrieNode<MapTrieNode> {
+
+    /**
+     * the key of an empty slot in the table, no char has this code
+     */
+    private static final char EMPTY_KEY = Alphabet.UNKNOWN;
 
+    /**
+     * the table size when the first child is added
+     */
+    private static final int INIT_CAPACITY = 2;
+
+    /**
+     * Constructor of a root node, with a new alphabet
+     *
+     * @param data current char
+     */
     public MapTrieNode(char data) {
-        this.data = data;
+        super(data, new Alphabet(), true);
+    }
+
+    private MapTrieNode(char data, Alphabet alphabet, boolean root) {
+        super(data, alphabet, root);
+    }
+
+    /**
+     * keys of the table: the codes of the chars which can follow after current char
+     */
+    private char[] keys;
+
+    /**
+     * values of the table: the child node of the key in the same position
+     */
+    private MapTrieNode[] values;
+
+    /**
+     * num of children in the table
+     */
+    private int size;
+
+    /**
+     * whether a word can end at this node
+     */
+    private boolean wordEnd;
+
+    @Override
+    protected MapTrieNode next(char code) {
+        char[] keys = this.keys;
+        if (keys == null) {
+            return null;
+        }
+
+        int mask = keys.length - 1;
+        for (int i = hash(code) & mask; ; i = (i + 1) & mask) {
+            char key = keys[i];
+            if (key == code) {
+                return values[i];
+            }
+            if (key == EMPTY_KEY) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    protected MapTrieNode nextOrCreate(char code) {
+        MapTrieNode nextChar = next(code);
+        if (nextChar == null) {
+            ensureCapacity();
+            nextChar = new MapTrieNode(code, alphabet, false);
+            put(code, nextChar);
+        }
+        return nextChar;
+    }
+
+    @Override
+    protected MapTrieNode newRoot() {
+        return new MapTrieNode(SPLIT_OF_WORD, alphabet, true);
+    }
+
+    /**
+     * make room for one more child: create the table, or double it if it would be more than 3/4 full
+     */
+    private void ensureCapacity() {
+        if (keys == null) {
+            keys = new char[INIT_CAPACITY];
+            values = new MapTrieNode[INIT_CAPACITY];
+        } else if ((size + 1) << 2 > keys.length * 3) {
+            resize(keys.length << 1);
+        }
+    }
+
+    @Override
+    protected boolean isWordEnd() {
+        return wordEnd;
     }
 
-    @SuppressWarnings("unused")
-    private final char data;
+    @Override
+    protected void markWordEnd() {
+        wordEnd = true;
+    }
+
+    @Override
+    protected void unmarkWordEnd() {
+        wordEnd = false;
+    }
+
+    @Override
+    protected boolean hasChildren() {
+        return size > 0;
+    }
+
+    /**
+     * remove the key from the table, the keys after it in the same probe sequence are shifted back
+     * (instead of leaving a tombstone), so the table of a node never fills up with tombstones
+     */
+    @Override
+    protected void removeChild(char code) {
+        if (keys == null) {
+            return;
+        }
+
+        int mask = keys.length - 1;
+        int i = hash(code) & mask;
+        while (keys[i] != code) {
+            if (keys[i] == EMPTY_KEY) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        for (int j = (i + 1) & mask; keys[j] != EMPTY_KEY; j = (j + 1) & mask) {
+            int home = hash(keys[j]) & mask;
+            // the key at j can stay if its home slot is in (i, j] cyclically
+            boolean stay = i <= j ? i < home && home <= j : i < home || home <= j;
+            if (!stay) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = EMPTY_KEY;
+        values[i] = null;
+        size--;
+    }
 
     @Override
-    public void addWord(String word) {
-        throw new UnsupportedOperationException();
+    protected void putChild(MapTrieNode child) {
+        removeChild(child.data);
+        ensureCapacity();
+        put(child.data, child);
+    }
+
+    @Override
+    protected void forEachChild(Consumer<MapTrieNode> action) {
+        if (keys == null) {
+            return;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY_KEY) {
+                action.accept(values[i]);
+            }
+        }
     }
 
+    /**
+     * shrink the table to the least capacity which the children fit in (no table for a leaf node)
+     */
     @Override
-    public BreakResult breakLine(String line) {
-        throw new UnsupportedOperationException();
+    protected void compactChildren() {
+        if (keys == null) {
+            return;
+        }
+        if (size == 0) {
+            keys = null;
+            values = null;
+            return;
+        }
+
+        int capacity = INIT_CAPACITY;
+        while (size << 2 > capacity * 3) {
+            capacity <<= 1;
+        }
+        if (capacity < keys.length) {
+            resize(capacity);
+        }
+    }
+
+    /**
+     * put a child to the table, the table must has empty slots and not contains the key
+     *
+     * @param c    key
+     * @param node child node
+     */
+    private void put(char c, MapTrieNode node) {
+        int mask = keys.length - 1;
+        int i = hash(c) & mask;
+        while (keys[i] != EMPTY_KEY) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = c;
+        values[i] = node;
+        size++;
+    }
+
+    /**
+     * rehash all children to a new table
+     *
+     * @param capacity new capacity, must be power of 2
+     */
+    private void resize(int capacity) {
+        char[] oldKeys = keys;
+        MapTrieNode[] oldValues = values;
+        keys = new char[capacity];
+        values = new MapTrieNode[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * spread the bits of the char, so the continuous letters do not crowd in the small table
+     *
+     * @param c the char
+     * @return hash code
+     */
+    private static int hash(char c) {
+        int h = c * 0x9E3779B9;
+        return h ^ (h >>> 16);
     }
 
     /**
-     * Supplier used to create ArrayTrieNode at runtime
+     * Supplier used to create MapTrieNode at runtime
      */
     public static class Supplier implements ITrieNodeSupplier {
 
@@ -0,0 +1,296 @@
+package com.quinn.interview.breakword.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * the frozen trie which is read from a memory mapped binary image file directly
+ * the image is the arrays of FrozenTrieNode one by one (little endian):
+ * <pre>
+ * int     magic      "QDIC"
+ * int     version    VERSION
+ * int     nodes      num of the nodes
+ * int     edges      num of the edges
+ * int[]   offsets    nodes + 1
+ * int[]   targets    edges
+ * char[]  labels     edges, then padded to 8 bytes
+ * long[]  terminals  nodes / 64 + 1
+ * int     chars      num of the chars of the alphabet
+ * char[]  alphabet   chars, the distinct labels, then padded to 8 bytes
+ * int     words      num of the frequencies, 0 if the words have no frequency, then padded to 8 bytes
+ * long[]  frequencies  words, the frequency of every word in the order of forEachWord() (ascending)
+ * </pre>
+ * nothing is deserialized when opening except the alphabet (see Alphabet) and the children of root,
+ * the states are read from the mapped buffer when breaking, so opening costs the same time however large
+ * the dictionary is,
+ * and the processes which open the same image share the same page cache
+ *
+ * @author Qunhua.Liao
+ * @see FrozenTrieNode
+ * @see Dictionary#open(Path)
+ * @since 2020-10-13
+ */
+final class MappedTrieNode extends AbstractFlatTrieNode {
+
+    /**
+     * "QDIC"
+     */
+    private static final int MAGIC = 0x51444943;
+
+    /**
+     * version of the image format, increase it when the format is changed
+     */
+    static final int VERSION = 3;
+
+    private static final int HEADER_SIZE = 16;
+
+    private final ByteBuffer image;
+
+    private final IntBuffer offsets;
+
+    private final IntBuffer targets;
+
+    private final CharBuffer labels;
+
+    private final LongBuffer terminals;
+
+    /**
+     * the frequencies of the words in the order of forEachWord(), null if the words have no frequency
+     */
+    private final LongBuffer frequencies;
+
+    /**
+     * the children of root indexed by the char directly (the line is broken from root again and again)
+     */
+    private final int[] rootTargets;
+
+    /**
+     * the alphabet of the labels
+     */
+    private final Alphabet alphabet;
+
+    private MappedTrieNode(ByteBuffer image, int nodes, int edges, int chars, int words) {
+        this.image = image;
+        int position = HEADER_SIZE;
+        this.offsets = slice(image, position, (nodes + 1) * 4).asIntBuffer();
+        position += (nodes + 1) * 4;
+        this.targets = slice(image, position, edges * 4).asIntBuffer();
+        position += edges * 4;
+        this.labels = slice(image, position, edges * 2).asCharBuffer();
+        position = align(position + edges * 2);
+        this.terminals = slice(image, position, terminalLength(nodes) * 8).asLongBuffer();
+        position += terminalLength(nodes) * 8 + 4;
+        CharBuffer alphabetChars = slice(image, position, chars * 2).asCharBuffer();
+        position = align(align(position + chars * 2) + 4);
+        this.frequencies = words == 0 ? null : slice(image, position, words * 8).asLongBuffer();
+
+        char maxRootLabel = 0;
+        for (int e = offsets.get(0); e < offsets.get(1); e++) {
+            maxRootLabel = (char) Math.max(maxRootLabel, labels.get(e));
+        }
+        this.rootTargets = new int[maxRootLabel + 1];
+        Arrays.fill(rootTargets, NONE);
+        for (int e = offsets.get(0); e < offsets.get(1); e++) {
+            rootTargets[labels.get(e)] = targets.get(e);
+        }
+        this.alphabet = new Alphabet();
+        for (int i = 0; i < chars; i++) {
+            alphabet.add(alphabetChars.get(i));
+        }
+    }
+
+    @Override
+    Alphabet alphabet() {
+        return alphabet;
+    }
+
+    /**
+     * the frequencies of the words saved in the image
+     *
+     * @return the frequency of every word in the order of forEachWord(), null if the words have no frequency
+     */
+    LongBuffer frequencies() {
+        return frequencies == null ? null : frequencies.duplicate();
+    }
+
+    @Override
+    int root() {
+        return 0;
+    }
+
+    @Override
+    int next(int state, char c) {
+        if (state == 0) {
+            return c < rootTargets.length ? rootTargets[c] : NONE;
+        }
+
+        int from = offsets.get(state);
+        int to = offsets.get(state + 1);
+        if (to - from <= FrozenTrieNode.LINEAR_SEARCH_EDGES) {
+            for (int e = from; e < to; e++) {
+                char label = labels.get(e);
+                if (label == c) {
+                    return targets.get(e);
+                }
+                // labels of a node are sorted
+                if (label > c) {
+                    return NONE;
+                }
+            }
+            return NONE;
+        }
+
+        // binary search like FrozenTrieNode, on the mapped labels
+        int low = from;
+        int high = to - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = labels.get(mid);
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return targets.get(mid);
+            }
+        }
+        return NONE;
+    }
+
+    @Override
+    boolean isWordEnd(int state) {
+        return (terminals.get(state >>> 6) & (1L << state)) != 0;
+    }
+
+    /**
+     * write the image of the frozen trie to the file
+     *
+     * @param trie        the frozen trie
+     * @param frequencies the frequency of every word in the order of forEachWord(), null if there are none
+     * @param path        path of the image file
+     * @throws IOException if failed to write the file
+     */
+    static void write(FrozenTrieNode trie, long[] frequencies, Path path) throws IOException {
+        int nodes = trie.offsets.length - 1;
+        int edges = trie.labels.length;
+        int terminalPosition = align(HEADER_SIZE + (nodes + 1) * 4 + edges * 4 + edges * 2);
+        int alphabetPosition = terminalPosition + terminalLength(nodes) * 8;
+        char[] chars = trie.alphabet().sortedChars();
+        int frequencyPosition = align(alphabetPosition + 4 + chars.length * 2);
+        int words = frequencies == null ? 0 : frequencies.length;
+        int size = align(frequencyPosition + 4) + words * 8;
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(nodes).putInt(edges);
+        buffer.asIntBuffer().put(trie.offsets);
+        buffer.position(buffer.position() + trie.offsets.length * 4);
+        buffer.asIntBuffer().put(trie.targets);
+        buffer.position(buffer.position() + trie.targets.length * 4);
+        buffer.asCharBuffer().put(trie.labels);
+        buffer.position(terminalPosition);
+        buffer.asLongBuffer().put(trie.terminals, 0, terminalLength(nodes));
+        buffer.position(alphabetPosition);
+        buffer.putInt(chars.length);
+        buffer.asCharBuffer().put(chars);
+        buffer.position(frequencyPosition);
+        buffer.putInt(words);
+        if (words > 0) {
+            buffer.position(align(frequencyPosition + 4));
+            buffer.asLongBuffer().put(frequencies);
+        }
+        buffer.position(0);
+        write(buffer, path);
+    }
+
+    /**
+     * write the image to another file
+     *
+     * @param path path of the image file
+     * @throws IOException if failed to write the file
+     */
+    void write(Path path) throws IOException {
+        write(image.duplicate(), path);
+    }
+
+    private static void write(ByteBuffer buffer, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * map the image file
+     *
+     * @param path path of the image file
+     * @return the frozen trie on the mapped image
+     * @throws IOException if failed to read the file
+     */
+    static MappedTrieNode open(Path path) throws IOException {
+        MappedByteBuffer image;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("file " + path + " is not a dictionary image");
+            }
+            image = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        image.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (image.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("file " + path + " is not a dictionary image");
+        }
+        int version = image.getInt(4);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("version " + version + " of dictionary image " + path
+                    + " not supported");
+        }
+        int nodes = image.getInt(8);
+        int edges = image.getInt(12);
+        long alphabetPosition = align(HEADER_SIZE + (nodes + 1) * 4L + edges * 6L) + terminalLength(nodes) * 8L;
+        if (nodes < 1 || edges < 0 || alphabetPosition + 4 > image.capacity()) {
+            throw new IllegalArgumentException("dictionary image " + path + " is broken");
+        }
+        int chars = image.getInt((int) alphabetPosition);
+        long frequencyPosition = align(alphabetPosition + 4 + chars * 2L);
+        if (chars < 0 || frequencyPosition + 4 > image.capacity()) {
+            throw new IllegalArgumentException("dictionary image " + path + " is broken");
+        }
+        int words = image.getInt((int) frequencyPosition);
+        if (words < 0 || align(frequencyPosition + 4) + words * 8L != image.capacity()) {
+            throw new IllegalArgumentException("dictionary image " + path + " is broken");
+        }
+        return new MappedTrieNode(image, nodes, edges, chars, words);
+    }
+
+    private static ByteBuffer slice(ByteBuffer image, int position, int length) {
+        ByteBuffer duplicate = image.duplicate();
+        duplicate.position(position);
+        duplicate.limit(position + length);
+        return duplicate.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int terminalLength(int nodes) {
+        return (nodes >>> 6) + 1;
+    }
+
+    private static int align(int position) {
+        return (position + 7) & ~7;
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+}
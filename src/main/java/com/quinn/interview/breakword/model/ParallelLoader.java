@@ -0,0 +1,250 @@
+package com.quinn.interview.breakword.model;
+
+import com.quinn.interview.breakword.api.ITrieNode;
+import com.quinn.interview.breakword.api.ITrieNodeSupplier;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * load the words of many dictionary files in a ForkJoinPool
+ * <p>
+ * 1 every file is read by a worker, and the chars of its words are put into an alphabet of the file
+ * 2 the alphabets of all files are added to the alphabet of the dictionary before any word is added,
+ * so the alphabet is only read by the workers of the next steps
+ * 3 the words of every file are put into the buckets of the code of their first char by a worker (the code modulo
+ * the num of buckets, a few buckets per worker of the pool), so the words of any alphabet (e.g CJK words)
+ * are spread over all the buckets, and the words of the same first char are in the same bucket
+ * 4 every bucket is added to a new root node of the alphabet by a worker, in the order of the files,
+ * so the root nodes do not have a child of the same char, and none is shared by any other worker
+ * 5 the children of all the root nodes are attached to the root of the dictionary, no node is copied
+ * <p>
+ * the root node which does not support attaching (the types built in bulk, or the ITrieNode not an
+ * AbstractTrieNode) gets all the words at once after the files are read
+ *
+ * @author Qunhua.Liao
+ * @see Dictionary#create(com.quinn.interview.breakword.enums.TrieNodeTypeEnum, java.util.Collection, boolean,
+ * ForkJoinPool)
+ * @since 2020-10-14
+ */
+final class ParallelLoader {
+
+    /**
+     * the num of buckets of every worker of the pool, more than one so a worker which is done with a small bucket
+     * can take another one
+     */
+    private static final int BUCKETS_PER_WORKER = 4;
+
+    private final ITrieNodeSupplier supplier;
+
+    private final ForkJoinPool pool;
+
+    private ITrieNode root;
+
+    private Set<String> words;
+
+    private final WordFrequencies frequencies = new WordFrequencies();
+
+    ParallelLoader(ITrieNodeSupplier supplier, ForkJoinPool pool) {
+        this.supplier = supplier;
+        this.pool = pool;
+    }
+
+    /**
+     * load the words of the files
+     *
+     * @param files      the dictionary files
+     * @param firstWords the words before the words of the files (the standard dictionary)
+     */
+    void load(List<Path> files, String[] firstWords) {
+        List<ForkJoinTask<FileWords>> reads = new ArrayList<>(files.size() + 1);
+        FileWords first = new FileWords();
+        for (String word : firstWords) {
+            first.add(word);
+        }
+        for (Path file : files) {
+            reads.add(ForkJoinTask.adapt(() -> read(file)));
+        }
+        invokeAll(reads);
+
+        List<FileWords> all = new ArrayList<>(reads.size() + 1);
+        all.add(first);
+        for (ForkJoinTask<FileWords> read : reads) {
+            FileWords fileWords = read.join();
+            all.add(fileWords);
+            frequencies.addAll(fileWords.frequencies);
+        }
+
+        if (supplier.supportBulkBuild()) {
+            TreeSet<String> sorted = new TreeSet<>();
+            for (FileWords fileWords : all) {
+                sorted.addAll(fileWords.words);
+            }
+            root = supplier.supply(sorted);
+            words = sorted;
+            return;
+        }
+
+        root = supplier.supply(ITrieNode.SPLIT_OF_WORD);
+        if (!(root instanceof AbstractTrieNode)) {
+            // the alphabets of the files are not used
+            words = new HashSet<>();
+            for (FileWords fileWords : all) {
+                for (String word : fileWords.words) {
+                    if (words.add(word)) {
+                        root.addWord(word);
+                    }
+                }
+            }
+            return;
+        }
+
+        Alphabet alphabet = ((AbstractTrieNode<?>) root).alphabet();
+        for (FileWords fileWords : all) {
+            alphabet.addAll(fileWords.alphabet);
+        }
+        int buckets = Math.max(1, pool.getParallelism() * BUCKETS_PER_WORKER);
+        List<ForkJoinTask<Void>> partitions = new ArrayList<>(all.size());
+        for (FileWords fileWords : all) {
+            partitions.add(ForkJoinTask.adapt(() -> fileWords.partition(alphabet, buckets), null));
+        }
+        invokeAll(partitions);
+
+        List<ForkJoinTask<Subtree>> builds = new ArrayList<>(buckets);
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int b = bucket;
+            builds.add(ForkJoinTask.adapt(() -> build(all, b)));
+        }
+        invokeAll(builds);
+
+        int size = 0;
+        for (ForkJoinTask<Subtree> build : builds) {
+            size += build.join().words.size();
+        }
+        words = new HashSet<>(Math.max(16, (int) (size / .75f) + 1));
+        for (ForkJoinTask<Subtree> build : builds) {
+            Subtree subtree = build.join();
+            attach(root, subtree.root);
+            words.addAll(subtree.words);
+        }
+    }
+
+    ITrieNode root() {
+        return root;
+    }
+
+    Set<String> words() {
+        return words;
+    }
+
+    WordFrequencies frequencies() {
+        return frequencies;
+    }
+
+    /**
+     * run the tasks in the pool, and wait for all of them
+     */
+    private <T> void invokeAll(List<ForkJoinTask<T>> tasks) {
+        pool.invoke(ForkJoinTask.adapt(() -> {
+            ForkJoinTask.invokeAll(tasks);
+        }));
+    }
+
+    private static FileWords read(Path file) {
+        FileWords fileWords = new FileWords();
+        Dictionary.readWords(file.toString(), fileWords.frequencies, fileWords::add);
+        return fileWords;
+    }
+
+    /**
+     * add the words of a bucket of all files to a new root node
+     */
+    private Subtree build(List<FileWords> all, int bucket) {
+        Subtree subtree = new Subtree(((AbstractTrieNode<?>) root).newRoot());
+        for (FileWords fileWords : all) {
+            for (String word : fileWords.buckets[bucket]) {
+                if (subtree.words.add(word)) {
+                    subtree.root.addWord(word);
+                }
+            }
+        }
+        return subtree;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void attach(ITrieNode root, ITrieNode subtree) {
+        ((AbstractTrieNode) root).attachChildren((AbstractTrieNode) subtree);
+    }
+
+    /**
+     * the bucket of the (folded) word: the code of its first char in the alphabet modulo the num of buckets,
+     * so the words of the same first char are in the same bucket, the empty word is in the bucket 0
+     */
+    private static int bucketOf(String word, Alphabet alphabet, int buckets) {
+        if (word.isEmpty()) {
+            return 0;
+        }
+        char c = word.charAt(0);
+        char code = c == ITrieNode.SPLIT_OF_NORMAL_BREAK ? Alphabet.SPACE : alphabet.index(c);
+        return code % buckets;
+    }
+
+    /**
+     * the words of a file, in the buckets of their first chars after partition()
+     */
+    private static final class FileWords {
+
+        private final List<String> words = new ArrayList<>();
+
+        private List<String>[] buckets;
+
+        private final WordFrequencies frequencies = new WordFrequencies();
+
+        private final Alphabet alphabet = new Alphabet();
+
+        void add(String word) {
+            words.add(Dictionary.fold(word));
+            alphabet.addAll(word);
+        }
+
+        /**
+         * put the words into the buckets of the codes of their first chars
+         *
+         * @param alphabet the alphabet of the dictionary, which has all chars of the words
+         * @param count    num of buckets
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        void partition(Alphabet alphabet, int count) {
+            buckets = new List[count];
+            for (int i = 0; i < count; i++) {
+                buckets[i] = new ArrayList<>();
+            }
+            for (String word : words) {
+                buckets[bucketOf(word, alphabet, count)].add(word);
+            }
+        }
+
+    }
+
+    /**
+     * the root node of the words of a bucket
+     */
+    private static final class Subtree {
+
+        private final ITrieNode root;
+
+        private final Set<String> words = new HashSet<>();
+
+        Subtree(ITrieNode root) {
+            this.root = root;
+        }
+
+    }
+
+}
@@ -0,0 +1,291 @@
+package com.quinn.interview.breakword.model;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * a handle of the dictionary loaded from a file, which is reloaded when the file changes
+ * <p>
+ * the dictionary is a frozen snapshot: a new snapshot is built from the file in the background
+ * (by the watcher thread, or the thread calling reload() or addWords()), and published by one atomic swap,
+ * so the readers take no locks, never see a half built dictionary, and the lines being broken are finished
+ * on the snapshot they started with; the snapshot is published with its version in one Snapshot, so a reader
+ * never sees the version of another snapshot
+ * <p>
+ * a snapshot which fails to build (e.g the file is being written) is dropped, and the last snapshot is kept
+ * until the file changes again
+ *
+ * @author Qunhua.Liao
+ * @see Dictionary#freeze()
+ * @since 2020-10-14
+ */
+public final class ReloadableDictionary implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReloadableDictionary.class);
+
+    /**
+     * the file is reloaded when it is not changed for so long after a change (a save is usually a few writes)
+     */
+    static final long QUIET_MILLIS = 50;
+
+    private final TrieNodeTypeEnum treeType;
+
+    private final Path file;
+
+    private final boolean useStdDic;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    /**
+     * the words added by addWords(), they are added to every snapshot (copy on write)
+     */
+    private volatile List<String> addedWords = Collections.emptyList();
+
+    private volatile WatchService watchService;
+
+    private volatile Thread watcher;
+
+    /**
+     * the results of the lines broken, invalidated by every snapshot published; null if there is no cache
+     */
+    private volatile BreakCache cache;
+
+    private ReloadableDictionary(TrieNodeTypeEnum treeType, Path file, boolean useStdDic) {
+        this.treeType = treeType;
+        this.file = file.toAbsolutePath();
+        this.useStdDic = useStdDic;
+    }
+
+    /**
+     * load the dictionary from the file, it is not watched until watch() is invoked
+     *
+     * @param treeType  the tree node type
+     * @param file      the dictionary file
+     * @param useStdDic whether to add the words of the standard dictionary
+     * @return the handle of the dictionary
+     */
+    public static ReloadableDictionary load(TrieNodeTypeEnum treeType, Path file, boolean useStdDic) {
+        ReloadableDictionary dictionary = new ReloadableDictionary(treeType, file, useStdDic);
+        dictionary.reload();
+        return dictionary;
+    }
+
+    /**
+     * the current snapshot with its version
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    /**
+     * the current snapshot, hold it to break many lines by the same snapshot
+     *
+     * @return the frozen dictionary
+     * @see #snapshot()
+     */
+    public Dictionary current() {
+        return current.get().dictionary;
+    }
+
+    /**
+     * the version of the current snapshot, it is increased by every snapshot published
+     * (it may be of a later snapshot than current() got before, use snapshot() to get both)
+     *
+     * @return the version, from 1
+     */
+    public long version() {
+        return current.get().version;
+    }
+
+    /**
+     * put a cache in front of breakLine(String), it is invalidated whenever a new snapshot is published
+     *
+     * @param cache the cache used by this handle only, null to break every line by the snapshot
+     * @return this handle
+     * @see BreakCache
+     */
+    public ReloadableDictionary withCache(BreakCache cache) {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+        this.cache = cache;
+        return this;
+    }
+
+    /**
+     * break a line by the current snapshot, or get a copy of its result from the cache if there is one
+     *
+     * @param line the line to be break
+     * @return result StringBuild with all possible cases
+     * @see Dictionary#breakLine(String)
+     */
+    public BreakResult breakLine(String line) {
+        BreakCache cache = this.cache;
+        if (cache == null || line == null || line.isEmpty()) {
+            return current().breakLine(line);
+        }
+        return cache.get(line, (l) -> current().breakLine(l)).copy();
+    }
+
+    /**
+     * build a new snapshot from the file (and the words added) and publish it
+     *
+     * @throws RuntimeException if the file can not be read, the current snapshot is kept
+     */
+    public synchronized void reload() {
+        List<String> words = addedWords;
+        Dictionary dictionary = Dictionary.create(treeType, file.toString(), useStdDic);
+        for (String word : words) {
+            dictionary.addWord(word);
+        }
+        Snapshot last = current.get();
+        current.set(new Snapshot(dictionary.freeze(), last == null ? 1 : last.version + 1));
+        BreakCache cache = this.cache;
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * add words to the dictionary: a new snapshot is built with them and published,
+     * the words are kept when the file is reloaded
+     * (every invocation builds the dictionary again, add the words in batch)
+     *
+     * @param words the words to be added
+     */
+    public synchronized void addWords(String... words) {
+        List<String> added = new ArrayList<>(addedWords);
+        added.addAll(Arrays.asList(words));
+        addedWords = Collections.unmodifiableList(added);
+        reload();
+    }
+
+    /**
+     * watch the file, and reload it in a background thread when it is changed
+     *
+     * @return this handle
+     */
+    public synchronized ReloadableDictionary watch() {
+        if (watcher != null) {
+            return this;
+        }
+        try {
+            watchService = file.getFileSystem().newWatchService();
+            file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new RuntimeException("file " + file + " watch failed", e);
+        }
+        watcher = new Thread(this::watchLoop, "dictionary-watcher-" + file.getFileName());
+        watcher.setDaemon(true);
+        watcher.start();
+        return this;
+    }
+
+    /**
+     * stop watching the file, the current snapshot can still be used
+     */
+    @Override
+    public synchronized void close() {
+        if (watcher == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException ignored) {
+        }
+        watcher.interrupt();
+        watcher = null;
+    }
+
+    private void watchLoop() {
+        WatchService service = watchService;
+        try {
+            while (true) {
+                if (!changed(service.take())) {
+                    continue;
+                }
+                // wait until the file is not changed for a while
+                for (WatchKey key = service.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS); key != null;
+                     key = service.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) {
+                    changed(key);
+                }
+
+                try {
+                    reload();
+                    LOGGER.info("dictionary {} reloaded, version {}", file, version());
+                } catch (RuntimeException e) {
+                    LOGGER.warn("dictionary " + file + " reload failed, version " + version() + " is kept", e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    /**
+     * whether the file is changed by the events of the key, the key is reset
+     */
+    private boolean changed(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * a frozen dictionary with its version, published together
+     */
+    public static final class Snapshot {
+
+        private final Dictionary dictionary;
+
+        private final long version;
+
+        private Snapshot(Dictionary dictionary, long version) {
+            this.dictionary = dictionary;
+            this.version = version;
+        }
+
+        /**
+         * the frozen dictionary of the snapshot
+         *
+         * @return the dictionary
+         */
+        public Dictionary dictionary() {
+            return dictionary;
+        }
+
+        /**
+         * the version of the snapshot
+         *
+         * @return the version, from 1
+         */
+        public long version() {
+            return version;
+        }
+
+    }
+
+}
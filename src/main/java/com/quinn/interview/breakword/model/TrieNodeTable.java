@@ -0,0 +1,101 @@
+package com.quinn.interview.breakword.model;
+
+import java.util.Arrays;
+
+/**
+ * the ids of the nodes of an object graph trie, so a node is an int state of AbstractStateTrieNode:
+ * the id of a node is its index in the table, the root node is 0
+ * <p>
+ * the id of a node removed is reused by the next node added, and compact() numbers the nodes again,
+ * so the table is as long as the nodes (plus the spare capacity)
+ * <p>
+ * ** it is not thread safe to add or remove nodes at the same time, like Alphabet
+ *
+ * @author Qunhua.Liao
+ * @see AbstractTrieNode
+ * @since 2020-10-13
+ */
+final class TrieNodeTable {
+
+    /**
+     * the node of every id, null if the id is free
+     */
+    private AbstractTrieNode<?>[] nodes = new AbstractTrieNode<?>[16];
+
+    /**
+     * num of the ids used, including the free ones
+     */
+    private int size;
+
+    /**
+     * the ids of the nodes removed, to be reused
+     */
+    private int[] freeIds = new int[0];
+
+    private int freeCount;
+
+    /**
+     * get the node of the id
+     *
+     * @param id the id
+     * @return the node
+     */
+    AbstractTrieNode<?> get(int id) {
+        return nodes[id];
+    }
+
+    /**
+     * give the node an id
+     *
+     * @param node the node
+     * @return the id
+     */
+    int add(AbstractTrieNode<?> node) {
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size + (size >> 1));
+            }
+            id = size++;
+        }
+        nodes[id] = node;
+        return id;
+    }
+
+    /**
+     * free the id of a node removed
+     *
+     * @param id the id
+     */
+    void remove(int id) {
+        nodes[id] = null;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, Math.max(4, freeCount << 1));
+        }
+        freeIds[freeCount++] = id;
+    }
+
+    /**
+     * drop all ids, to number the nodes again
+     *
+     * @param capacity the num of nodes to be added
+     */
+    void clear(int capacity) {
+        nodes = new AbstractTrieNode<?>[Math.max(16, capacity)];
+        size = 0;
+        freeIds = new int[0];
+        freeCount = 0;
+    }
+
+    /**
+     * num of the ids used, including the free ones
+     *
+     * @return the size
+     */
+    int size() {
+        return size;
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.quinn.interview.breakword.model;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * the frequencies of the words read from a dictionary file, e.g "samsung:1000"
+ * (the word without frequency is as frequent as 1)
+ * <p>
+ * they are held by the dictionary which is not frozen, and put by the ids of the words (see byId) whenever the words
+ * get ids (see WordIndex), in two arrays instead of a map so there is no boxing
+ * <p>
+ * the dictionary frozen only keeps the array by the ids of its words, the frequencies themselves are never changed
+ * by freezing, so the dictionary frozen from can still be changed and frozen again
+ *
+ * @author Qunhua.Liao
+ * @see Dictionary#FREQUENCY_SPLIT
+ * @since 2020-10-14
+ */
+final class WordFrequencies {
+
+    private String[] words = new String[16];
+
+    private long[] frequencies = new long[16];
+
+    private int size;
+
+    /**
+     * split the frequency from a word of the dictionary file, and record it
+     *
+     * @param token the word of the dictionary file, with or without frequency
+     * @return the word without frequency
+     */
+    String parse(String token) {
+        int split = token.lastIndexOf(Dictionary.FREQUENCY_SPLIT);
+        if (split <= 0 || split == token.length() - 1) {
+            return token;
+        }
+
+        long frequency = 0;
+        for (int i = split + 1; i < token.length(); i++) {
+            char c = token.charAt(i);
+            // a frequency larger than Long.MAX_VALUE is not a frequency either
+            if (c < '0' || c > '9' || frequency > (Long.MAX_VALUE - (c - '0')) / 10) {
+                // not a frequency, it is a part of the word
+                return token;
+            }
+            frequency = frequency * 10 + (c - '0');
+        }
+
+        String word = token.substring(0, split);
+        add(word, Math.max(1, frequency));
+        return word;
+    }
+
+    /**
+     * record all frequencies of another one after the frequencies of this one
+     *
+     * @param other the other frequencies
+     */
+    void addAll(WordFrequencies other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.words[i], other.frequencies[i]);
+        }
+    }
+
+    /**
+     * record the frequency of a word
+     *
+     * @param word      the word
+     * @param frequency the frequency
+     */
+    void add(String word, long frequency) {
+        if (size == words.length) {
+            words = Arrays.copyOf(words, size << 1);
+            frequencies = Arrays.copyOf(frequencies, size << 1);
+        }
+        words[size] = word;
+        frequencies[size] = frequency;
+        size++;
+    }
+
+    /**
+     * get the frequencies by the ids of the words
+     *
+     * @param index the ids of the words
+     * @param words the words of the index (folded, see Dictionary.fold(String))
+     * @return the frequency of every id, 1 for the word without frequency
+     */
+    long[] byId(WordIndex index, Set<String> words) {
+        long[] frequencyById = new long[index.size()];
+        Arrays.fill(frequencyById, 1);
+        for (int i = 0; i < size; i++) {
+            String folded = Dictionary.fold(this.words[i]);
+            if (words.contains(folded)) {
+                frequencyById[index.id(folded)] = frequencies[i];
+            }
+        }
+        return frequencyById;
+    }
+
+    int size() {
+        return size;
+    }
+
+}
@@ -0,0 +1,246 @@
+package com.quinn.interview.breakword.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * a minimal perfect hash of the words (BBHash): every word of the dictionary has a dense id in [0, size),
+ * so the data of the words can be kept in primitive arrays indexed by the id, instead of a map of the words
+ * <p>
+ * the words are hashed into a bit array of GAMMA bits per word: the bits hit by exactly one word are set,
+ * the words which collide are hashed into the next level (a smaller bit array) with another seed, and so on;
+ * the id of a word is the rank of its bit in all levels (num of the bits set before it), which is found by
+ * the rank of every 64 bits precomputed. the words still colliding after MAX_LEVELS levels (almost never)
+ * are kept in a small map after the levels
+ * <p>
+ * only a 64 bits hash of every word is used, the words themselves are not kept, so it costs about 4 bits
+ * per word, plus a 32 bits fingerprint per word to tell most of the words not in the dictionary (id -1).
+ * a word not in the dictionary can still get an id by chance (1 / 2 ^ 32), check it by the trie if it matters
+ * <p>
+ * the chars are taken in lower case like the flat structures
+ *
+ * @author Qunhua.Liao
+ * @see Dictionary#wordId(String)
+ * @since 2020-10-14
+ */
+public final class WordIndex {
+
+    /**
+     * bits per word of a level, the more bits, the less words collide (and the faster to build)
+     */
+    private static final int GAMMA = 2;
+
+    private static final int MAX_LEVELS = 32;
+
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    /**
+     * the hash of the empty word, see hash(long, char)
+     */
+    static final long EMPTY_HASH = 0xCBF29CE484222325L;
+
+    /**
+     * the bits of all levels
+     */
+    private final long[] bits;
+
+    /**
+     * ranks[i] is the num of bits set in bits[0, i)
+     */
+    private final int[] ranks;
+
+    /**
+     * the first bit of every level, and the end of the last level
+     */
+    private final long[] levelOffsets;
+
+    /**
+     * the hashes still colliding after the levels, to their ids
+     */
+    private final Map<Long, Integer> fallback;
+
+    private final int[] fingerprints;
+
+    private WordIndex(long[] bits, int[] ranks, long[] levelOffsets, Map<Long, Integer> fallback,
+                      int[] fingerprints) {
+        this.bits = bits;
+        this.ranks = ranks;
+        this.levelOffsets = levelOffsets;
+        this.fallback = fallback;
+        this.fingerprints = fingerprints;
+    }
+
+    /**
+     * build the index of the words
+     *
+     * @param words the words, can be repeated
+     * @return the index
+     */
+    public static WordIndex build(Iterable<String> words) {
+        long[] hashes = new long[16];
+        int size = 0;
+        for (String word : words) {
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size << 1);
+            }
+            hashes[size++] = hash(word);
+        }
+        Arrays.sort(hashes, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || hashes[i] != hashes[distinct - 1]) {
+                hashes[distinct++] = hashes[i];
+            }
+        }
+
+        long[] keys = Arrays.copyOf(hashes, distinct);
+        long[][] levels = new long[MAX_LEVELS][];
+        long[] levelOffsets = new long[MAX_LEVELS + 1];
+        int remaining = keys.length;
+        int levelCount = 0;
+        while (remaining > 0 && levelCount < MAX_LEVELS) {
+            long levelBits = Math.max(64, ((long) remaining * GAMMA + 63) & ~63L);
+            long[] seen = new long[(int) (levelBits >>> 6)];
+            long[] collided = new long[seen.length];
+            for (int i = 0; i < remaining; i++) {
+                long position = position(keys[i], levelCount, levelBits);
+                long mask = 1L << position;
+                int word = (int) (position >>> 6);
+                if ((seen[word] & mask) != 0) {
+                    collided[word] |= mask;
+                } else {
+                    seen[word] |= mask;
+                }
+            }
+            int next = 0;
+            for (int i = 0; i < remaining; i++) {
+                long position = position(keys[i], levelCount, levelBits);
+                if ((collided[(int) (position >>> 6)] & 1L << position) != 0) {
+                    keys[next++] = keys[i];
+                }
+            }
+            for (int i = 0; i < seen.length; i++) {
+                seen[i] &= ~collided[i];
+            }
+            levels[levelCount] = seen;
+            levelOffsets[levelCount + 1] = levelOffsets[levelCount] + levelBits;
+            levelCount++;
+            remaining = next;
+        }
+
+        long[] bits = new long[(int) (levelOffsets[levelCount] >>> 6)];
+        for (int level = 0; level < levelCount; level++) {
+            System.arraycopy(levels[level], 0, bits, (int) (levelOffsets[level] >>> 6), levels[level].length);
+        }
+        int[] ranks = new int[bits.length + 1];
+        for (int i = 0; i < bits.length; i++) {
+            ranks[i + 1] = ranks[i] + Long.bitCount(bits[i]);
+        }
+        Map<Long, Integer> fallback = new HashMap<>();
+        for (int i = 0; i < remaining; i++) {
+            fallback.put(keys[i], ranks[bits.length] + i);
+        }
+
+        WordIndex index = new WordIndex(bits, ranks, Arrays.copyOf(levelOffsets, levelCount + 1), fallback,
+                new int[distinct]);
+        for (int i = 0; i < distinct; i++) {
+            index.fingerprints[index.idOf(hashes[i])] = fingerprint(hashes[i]);
+        }
+        return index;
+    }
+
+    /**
+     * num of the words
+     *
+     * @return num of the words, the ids are [0, size)
+     */
+    public int size() {
+        return fingerprints.length;
+    }
+
+    /**
+     * get the id of a word
+     *
+     * @param word the word
+     * @return the id of the word, -1 if it is not in the index (or an id by chance, 1 / 2 ^ 32)
+     */
+    public int id(String word) {
+        long hash = hash(word);
+        int id = idOf(hash);
+        return id >= 0 && fingerprints[id] == fingerprint(hash) ? id : -1;
+    }
+
+    /**
+     * get the id of a word of the index by the hash of its chars, so the id of a word walked in a trie
+     * is found without a String of it (there is no fingerprint check, the word must be in the index)
+     *
+     * @param charsHash the hash of the chars of the word, see hash(long, char)
+     * @return the id of the word
+     */
+    int idOfChars(long charsHash) {
+        return idOf(mix(charsHash));
+    }
+
+    private int idOf(long hash) {
+        for (int level = 0; level < levelOffsets.length - 1; level++) {
+            long levelBits = levelOffsets[level + 1] - levelOffsets[level];
+            long position = levelOffsets[level] + position(hash, level, levelBits);
+            int word = (int) (position >>> 6);
+            long mask = 1L << position;
+            if ((bits[word] & mask) != 0) {
+                return ranks[word] + Long.bitCount(bits[word] & (mask - 1));
+            }
+        }
+        Integer id = fallback.get(hash);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * the position of the hash in a level, a different seed for every level
+     */
+    private static long position(long hash, int level, long levelBits) {
+        long mixed = mix(hash + (level + 1) * GOLDEN);
+        // map the 64 bits into [0, levelBits) by multiplying the high 32 bits
+        return ((mixed >>> 32) * levelBits) >>> 32;
+    }
+
+    private static int fingerprint(long hash) {
+        return (int) mix(hash ^ 0x5851F42D4C957F2DL);
+    }
+
+    /**
+     * 64 bits hash of the word (FNV-1a of the chars, then mixed), the chars are in lower case like the flat structures
+     */
+    static long hash(String word) {
+        long hash = EMPTY_HASH;
+        for (int i = 0; i < word.length(); i++) {
+            hash = hash(hash, AbstractFlatTrieNode.fold(word.charAt(i)));
+        }
+        return mix(hash);
+    }
+
+    /**
+     * the hash of the chars of a word followed by one more char (a step of FNV-1a)
+     *
+     * @param hash the hash of the chars before, EMPTY_HASH for the first char
+     * @param c    the (lower case) char
+     * @return the hash of the chars with the char
+     */
+    static long hash(long hash, char c) {
+        return (hash ^ c) * 0x100000001B3L;
+    }
+
+    /**
+     * the finalizer of MurmurHash3, every bit of the input affects every bit of the output
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE53A87E5L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+}
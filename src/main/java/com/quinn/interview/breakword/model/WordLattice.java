@@ -0,0 +1,337 @@
+package com.quinn.interview.breakword.model;
+
+import com.quinn.interview.breakword.api.ITrieNode;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Result of the break word as a word lattice (a DAG): the nodes are the offsets 0..length of the line,
+ * and every word of the dictionary found in the line is an edge from its start offset to its end offset,
+ * so every path from 0 to length is a way to break the whole line into words
+ * <p>
+ * unlike BreakResult which can only mark a position as "could be broken", the overlapping alternatives
+ * (e.g "a bc", "ab c" and "abc") are all kept exactly
+ * <p>
+ * the edges are stored in primitive arrays grouped by the start offset (compressed sparse rows):
+ * the edges from offset i are [firstEdge(i), endEdge(i)), sorted by the end offset
+ * the word of a dictionary with space (e.g "man go") is one edge with inner breaks
+ * <p>
+ * the lattice is immutable, the num of paths from every offset is counted (up to Long.MAX_VALUE) when built,
+ * so paths can be counted and picked by index without breaking the line again
+ *
+ * @author Qunhua.Liao
+ * @see com.quinn.interview.breakword.model.Dictionary#lattice(String)
+ * @since 2020-10-14
+ */
+public final class WordLattice {
+
+    private final char[] chars;
+
+    /**
+     * the edges from offset i are [offsets[i], offsets[i + 1])
+     */
+    private final int[] offsets;
+
+    private final int[] starts;
+
+    private final int[] ends;
+
+    /**
+     * the inner breaks of edge e are breaks[breakOffsets[e]] .. breaks[breakOffsets[e + 1] - 1]
+     */
+    private final int[] breakOffsets;
+
+    private final int[] breaks;
+
+    /**
+     * counts[i] is the num of paths from offset i to the end, Long.MAX_VALUE if it is too many for a long
+     */
+    private final long[] counts;
+
+    private WordLattice(char[] chars, int[] offsets, int[] starts, int[] ends, int[] breakOffsets, int[] breaks) {
+        this.chars = chars;
+        this.offsets = offsets;
+        this.starts = starts;
+        this.ends = ends;
+        this.breakOffsets = breakOffsets;
+        this.breaks = breaks;
+
+        this.counts = new long[chars.length + 1];
+        counts[chars.length] = 1;
+        for (int i = chars.length - 1; i >= 0; i--) {
+            long count = 0;
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                count += counts[ends[e]];
+                if (count < 0) {
+                    count = Long.MAX_VALUE;
+                    break;
+                }
+            }
+            counts[i] = count;
+        }
+    }
+
+    /**
+     * length of the line
+     *
+     * @return length of the line
+     */
+    public int length() {
+        return chars.length;
+    }
+
+    /**
+     * num of all edges (words found in the line)
+     *
+     * @return num of edges
+     */
+    public int edgeCount() {
+        return ends.length;
+    }
+
+    /**
+     * the first edge from the offset
+     *
+     * @param offset offset of the line, 0..length
+     * @return the first edge from the offset
+     */
+    public int firstEdge(int offset) {
+        return offsets[offset];
+    }
+
+    /**
+     * the edge after the last edge from the offset
+     *
+     * @param offset offset of the line, 0..length
+     * @return the edge after the last edge from the offset
+     */
+    public int endEdge(int offset) {
+        return offsets[offset + 1];
+    }
+
+    /**
+     * the start offset of the edge
+     *
+     * @param edge the edge
+     * @return the start offset (inclusive)
+     */
+    public int start(int edge) {
+        return starts[edge];
+    }
+
+    /**
+     * the end offset of the edge
+     *
+     * @param edge the edge
+     * @return the end offset (exclusive)
+     */
+    public int end(int edge) {
+        return ends[edge];
+    }
+
+    /**
+     * the word of the edge, with the inner breaks if it is a word with space
+     *
+     * @param edge the edge
+     * @return the word
+     */
+    public String word(int edge) {
+        StringBuilder word = new StringBuilder(ends[edge] - starts[edge] + 2);
+        appendWord(word, edge);
+        return word.toString();
+    }
+
+    private void appendWord(StringBuilder word, int edge) {
+        int from = starts[edge];
+        for (int b = breakOffsets[edge]; b < breakOffsets[edge + 1]; b++) {
+            word.append(chars, from, breaks[b] - from).append(ITrieNode.SPLIT_OF_NORMAL_BREAK);
+            from = breaks[b];
+        }
+        word.append(chars, from, ends[edge] - from);
+    }
+
+    /**
+     * num of the paths which break the whole line into words
+     * it is counted exactly if there are too many paths for a long, which costs much more for a long line
+     * (the num of the paths grows exponentially with the length of line)
+     *
+     * @return num of the paths, 0 if the line can not be broken into words
+     */
+    public BigInteger pathCount() {
+        if (counts[0] != Long.MAX_VALUE) {
+            return BigInteger.valueOf(counts[0]);
+        }
+
+        // only the counts of the offsets within the longest word after current offset are needed
+        int window = 1;
+        for (int e = 0; e < ends.length; e++) {
+            window = Math.max(window, ends[e] - starts[e] + 1);
+        }
+        BigInteger[] exact = new BigInteger[window];
+        exact[chars.length % window] = BigInteger.ONE;
+        for (int i = chars.length - 1; i >= 0; i--) {
+            BigInteger count = BigInteger.ZERO;
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                count = count.add(counts[ends[e]] != Long.MAX_VALUE ? BigInteger.valueOf(counts[ends[e]])
+                        : exact[ends[e] % window]);
+            }
+            exact[i % window] = count;
+        }
+        return exact[0];
+    }
+
+    /**
+     * pick the path by index, the paths are ordered by the end offsets of the words one by one
+     * (so the path with the shortest first word is the first)
+     *
+     * @param index index of the path, 0..pathCount() - 1
+     * @return the edges of the path
+     */
+    public int[] path(long index) {
+        if (index < 0 || index >= counts[0]) {
+            throw new IndexOutOfBoundsException("path " + index + " of " + counts[0]);
+        }
+
+        int[] path = new int[8];
+        int size = 0;
+        int offset = 0;
+        while (offset < chars.length) {
+            int e = offsets[offset];
+            // skip the edges whose paths are all before the index,
+            // a count too many for a long is never skipped because the index is less than it
+            while (index >= counts[ends[e]]) {
+                index -= counts[ends[e]];
+                e++;
+            }
+            if (size == path.length) {
+                path = Arrays.copyOf(path, size << 1);
+            }
+            path[size++] = e;
+            offset = ends[e];
+        }
+        return Arrays.copyOf(path, size);
+    }
+
+    /**
+     * join the words of the path with SPLIT_OF_NORMAL_BREAK, like a case of BreakResult.allCases()
+     *
+     * @param path edges of the path
+     * @return the line broken
+     */
+    public String toString(int[] path) {
+        StringBuilder line = new StringBuilder(chars.length + path.length);
+        for (int i = 0; i < path.length; i++) {
+            if (i > 0) {
+                line.append(ITrieNode.SPLIT_OF_NORMAL_BREAK);
+            }
+            appendWord(line, path[i]);
+        }
+        return line.toString();
+    }
+
+    /**
+     * builder of the lattice, used by the ITrieNode implementations
+     * the edges must be added in ascending order of the start offset, then the end offset
+     * <p>
+     * the inner breaks of a word with space are recorded as a chain of marks while walking the trie:
+     * a mark is a break offset with the mark before it, so the walks sharing a prefix share the marks
+     */
+    static final class Builder {
+
+        /**
+         * the mark of no break
+         */
+        static final int NO_MARK = -1;
+
+        private final char[] chars;
+
+        private int[] starts = new int[16];
+
+        private int[] ends = new int[16];
+
+        private int[] breakOffsets = new int[17];
+
+        private int[] breaks = new int[4];
+
+        private int edges;
+
+        private int[] markOffsets = new int[4];
+
+        private int[] markPrevious = new int[4];
+
+        private int marks;
+
+        Builder(char[] chars) {
+            this.chars = chars;
+        }
+
+        /**
+         * start the walk from a new offset, the marks of the last walk are dropped
+         */
+        void reset() {
+            marks = 0;
+        }
+
+        /**
+         * record a break
+         *
+         * @param offset   offset of the break
+         * @param previous the mark before it, or NO_MARK
+         * @return the mark of the break
+         */
+        int mark(int offset, int previous) {
+            if (marks == markOffsets.length) {
+                markOffsets = Arrays.copyOf(markOffsets, marks << 1);
+                markPrevious = Arrays.copyOf(markPrevious, marks << 1);
+            }
+            markOffsets[marks] = offset;
+            markPrevious[marks] = previous;
+            return marks++;
+        }
+
+        /**
+         * add an edge
+         *
+         * @param start start offset of the word
+         * @param end   end offset of the word
+         * @param mark  the last inner break of the word, or NO_MARK
+         */
+        void add(int start, int end, int mark) {
+            if (edges == starts.length) {
+                starts = Arrays.copyOf(starts, edges << 1);
+                ends = Arrays.copyOf(ends, edges << 1);
+                breakOffsets = Arrays.copyOf(breakOffsets, (edges << 1) + 1);
+            }
+            starts[edges] = start;
+            ends[edges] = end;
+
+            int from = breakOffsets[edges];
+            int count = 0;
+            for (int m = mark; m != NO_MARK; m = markPrevious[m]) {
+                count++;
+            }
+            if (from + count > breaks.length) {
+                breaks = Arrays.copyOf(breaks, Math.max(from + count, breaks.length << 1));
+            }
+            // the chain is from the last break to the first
+            for (int m = mark, b = from + count - 1; m != NO_MARK; m = markPrevious[m], b--) {
+                breaks[b] = markOffsets[m];
+            }
+            breakOffsets[++edges] = from + count;
+        }
+
+        WordLattice build() {
+            int[] offsets = new int[chars.length + 2];
+            for (int e = 0; e < edges; e++) {
+                offsets[starts[e] + 1]++;
+            }
+            for (int i = 1; i < offsets.length; i++) {
+                offsets[i] += offsets[i - 1];
+            }
+            return new WordLattice(chars, offsets, Arrays.copyOf(starts, edges), Arrays.copyOf(ends, edges),
+                    Arrays.copyOf(breakOffsets, edges + 1), Arrays.copyOf(breaks, breakOffsets[edges]));
+        }
+    }
+
+}
@@ -0,0 +1,275 @@
+package com.quinn.interview.breakword.pipeline;
+
+import com.quinn.interview.breakword.model.BreakResult;
+import com.quinn.interview.breakword.model.Dictionary;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * break every line of a text file into another file in one pass, by three stages in threads:
+ * <p>
+ * 1 the reader reads the input file by a FileChannel, decodes it and splits it into batches of lines
+ * 2 the workers break the lines of the batches by the dictionary
+ * 3 the writer writes the results of the batches in the order of the input, a line of result for every line
+ * (the result of a line is BreakResult.toString(), the line with the break marks)
+ * <p>
+ * the stages hand off the batches through bounded queues, so a slow stage blocks the stages before it,
+ * and there are at most maxInFlight batches read but not written (the writer holds the batches broken out
+ * of order until the batches before them are written), so the memory used is the same however large the file is
+ * <p>
+ * the dictionary is shared by the workers, freeze it first (or do not add words while running)
+ *
+ * @author Qunhua.Liao
+ * @see PipelineStats
+ * @since 2020-10-14
+ */
+public final class BreakPipeline {
+
+    /**
+     * max num of lines of a batch
+     */
+    static final int BATCH_LINES = 1024;
+
+    /**
+     * a batch is handed off when its lines have so many chars, even if it is not full of lines
+     */
+    static final int BATCH_CHARS = 1 << 16;
+
+    /**
+     * size of the buffers of the reader and the writer
+     */
+    private static final int IO_BUFFER_SIZE = 1 << 16;
+
+    private final Dictionary dictionary;
+
+    private final int workers;
+
+    private final int queueCapacity;
+
+    /**
+     * create a pipeline of a worker for each processor
+     *
+     * @param dictionary the dictionary to break the lines
+     */
+    public BreakPipeline(Dictionary dictionary) {
+        this(dictionary, Runtime.getRuntime().availableProcessors(), 16);
+    }
+
+    /**
+     * create a pipeline
+     *
+     * @param dictionary    the dictionary to break the lines
+     * @param workers       num of the threads to break the lines
+     * @param queueCapacity num of the batches each queue can hold
+     */
+    public BreakPipeline(Dictionary dictionary, int workers, int queueCapacity) {
+        if (workers < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("workers[" + workers + "] and queueCapacity[" + queueCapacity
+                    + "] must be positive");
+        }
+        this.dictionary = dictionary;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * the max num of batches read but not written:
+     * the read queue, the batches being broken and the write queue
+     *
+     * @return the max num of batches in memory
+     */
+    public int maxInFlight() {
+        return queueCapacity + workers + queueCapacity;
+    }
+
+    /**
+     * break every line of the input file, and write the results to the output file
+     *
+     * @param input  the input file, UTF-8
+     * @param output the output file, UTF-8, it is replaced if it exists
+     * @return the statistics of the run
+     */
+    public PipelineStats run(Path input, Path output) {
+        Run run = new Run();
+        ExecutorService executor = Executors.newFixedThreadPool(workers + 2);
+        ExecutorCompletionService<Void> stages = new ExecutorCompletionService<>(executor);
+        long start = System.nanoTime();
+        try {
+            stages.submit(() -> run.read(input));
+            for (int i = 0; i < workers; i++) {
+                stages.submit(run::work);
+            }
+            stages.submit(() -> run.write(output));
+
+            // wait for all stages, stop them all when any of them fails
+            for (int i = 0; i < workers + 2; i++) {
+                stages.take().get();
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("file " + input + " break into " + output + " failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("file " + input + " break into " + output + " interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        run.stats.finish(System.nanoTime() - start);
+        return run.stats;
+    }
+
+    /**
+     * the state of a run shared by the stages
+     */
+    private final class Run {
+
+        private final BlockingQueue<LineBatch> readQueue = new ArrayBlockingQueue<>(queueCapacity);
+
+        /**
+         * never full: it can hold all batches in flight
+         */
+        private final BlockingQueue<LineBatch> writeQueue = new ArrayBlockingQueue<>(maxInFlight() + 1);
+
+        /**
+         * a permit for every batch read but not written
+         */
+        private final Semaphore inFlight = new Semaphore(maxInFlight());
+
+        /**
+         * num of the workers running, the last one tells the writer there are no more batches
+         */
+        private final AtomicInteger runningWorkers = new AtomicInteger(workers);
+
+        /**
+         * the reader counts the lines read, and the writer samples the write queue
+         * (they are read after all stages are done)
+         */
+        private final PipelineStats stats = new PipelineStats();
+
+        private Void read(Path input) throws IOException, InterruptedException {
+            CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            ByteBuffer bytes = ByteBuffer.allocateDirect(IO_BUFFER_SIZE);
+            // a byte is decoded into a char at most
+            CharBuffer chars = CharBuffer.allocate(IO_BUFFER_SIZE);
+            StringBuilder line = new StringBuilder();
+            long sequence = 0;
+            LineBatch batch = new LineBatch(sequence++, BATCH_LINES);
+            try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+                boolean end = false;
+                while (!end) {
+                    end = channel.read(bytes) < 0;
+                    bytes.flip();
+                    decoder.decode(bytes, chars, end);
+                    if (end) {
+                        decoder.flush(chars);
+                    }
+                    bytes.compact();
+
+                    chars.flip();
+                    while (chars.hasRemaining()) {
+                        char c = chars.get();
+                        if (c != '\n') {
+                            line.append(c);
+                            continue;
+                        }
+
+                        int length = line.length();
+                        batch.add(line.substring(0, length > 0 && line.charAt(length - 1) == '\r' ? length - 1
+                                : length));
+                        line.setLength(0);
+                        if (batch.isFull() || batch.chars >= BATCH_CHARS) {
+                            submit(batch);
+                            batch = new LineBatch(sequence++, BATCH_LINES);
+                        }
+                    }
+                    chars.clear();
+                }
+            }
+
+            // the last line without line separator
+            if (line.length() > 0) {
+                batch.add(line.toString());
+            }
+            if (batch.size > 0) {
+                submit(batch);
+            }
+            for (int i = 0; i < workers; i++) {
+                readQueue.put(LineBatch.END);
+            }
+            return null;
+        }
+
+        private void submit(LineBatch batch) throws InterruptedException {
+            inFlight.acquire();
+            readQueue.put(batch);
+            stats.readBatch(batch, readQueue.size());
+        }
+
+        private Void work() throws InterruptedException {
+            try {
+                for (LineBatch batch = readQueue.take(); batch != LineBatch.END; batch = readQueue.take()) {
+                    String[] results = new String[batch.size];
+                    for (int i = 0; i < batch.size; i++) {
+                        BreakResult result = dictionary.breakLine(batch.lines[i]);
+                        results[i] = result.toString();
+                    }
+                    batch.results = results;
+                    writeQueue.put(batch);
+                }
+            } finally {
+                if (runningWorkers.decrementAndGet() == 0) {
+                    writeQueue.put(LineBatch.END);
+                }
+            }
+            return null;
+        }
+
+        private Void write(Path output) throws IOException, InterruptedException {
+            // the batches broken before the batches before them
+            Map<Long, LineBatch> pending = new HashMap<>();
+            long next = 0;
+            try (BufferedWriter writer = new BufferedWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8),
+                    IO_BUFFER_SIZE)) {
+                for (LineBatch batch = writeQueue.take(); batch != LineBatch.END; batch = writeQueue.take()) {
+                    stats.writeQueue(writeQueue.size() + pending.size() + 1);
+                    pending.put(batch.sequence, batch);
+                    for (LineBatch ready = pending.remove(next); ready != null; ready = pending.remove(next)) {
+                        for (String result : ready.results) {
+                            writer.write(result);
+                            writer.write('\n');
+                        }
+                        next++;
+                        inFlight.release();
+                    }
+                }
+            }
+            if (!pending.isEmpty()) {
+                throw new IllegalStateException("batch " + next + " is lost");
+            }
+            return null;
+        }
+
+    }
+
+}
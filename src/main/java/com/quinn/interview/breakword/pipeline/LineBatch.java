@@ -0,0 +1,51 @@
+package com.quinn.interview.breakword.pipeline;
+
+/**
+ * a batch of lines handed between the stages of the pipeline, with the results of them when it is broken
+ * (the queues hand off batches instead of lines, so the cost of the queue is shared by many lines)
+ *
+ * @author Qunhua.Liao
+ * @see BreakPipeline
+ * @since 2020-10-14
+ */
+final class LineBatch {
+
+    /**
+     * the batch to tell the next stage there are no more batches
+     */
+    static final LineBatch END = new LineBatch(-1, 0);
+
+    /**
+     * the order of the batch in the input file, from 0
+     */
+    final long sequence;
+
+    final String[] lines;
+
+    int size;
+
+    /**
+     * num of chars of the lines
+     */
+    long chars;
+
+    /**
+     * results of the lines, null until the batch is broken
+     */
+    String[] results;
+
+    LineBatch(long sequence, int capacity) {
+        this.sequence = sequence;
+        this.lines = new String[capacity];
+    }
+
+    void add(String line) {
+        lines[size++] = line;
+        chars += line.length();
+    }
+
+    boolean isFull() {
+        return size == lines.length;
+    }
+
+}
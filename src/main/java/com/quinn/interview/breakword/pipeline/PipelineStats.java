@@ -0,0 +1,123 @@
+package com.quinn.interview.breakword.pipeline;
+
+/**
+ * statistics of a run of the pipeline
+ * the depth of a queue is sampled every time a batch is put into it (by the stage before it),
+ * the depth of the write queue includes the batches waiting for the batches before them to be written
+ *
+ * @author Qunhua.Liao
+ * @see BreakPipeline#run(java.nio.file.Path, java.nio.file.Path)
+ * @since 2020-10-14
+ */
+public final class PipelineStats {
+
+    private long lines;
+
+    private long chars;
+
+    private long batches;
+
+    private long nanos;
+
+    private int maxReadQueueDepth;
+
+    private long readQueueDepthSum;
+
+    private int maxWriteQueueDepth;
+
+    private long writeQueueDepthSum;
+
+    private long writeQueueSamples;
+
+    PipelineStats() {
+    }
+
+    void readBatch(LineBatch batch, int readQueueDepth) {
+        lines += batch.size;
+        chars += batch.chars;
+        batches++;
+        maxReadQueueDepth = Math.max(maxReadQueueDepth, readQueueDepth);
+        readQueueDepthSum += readQueueDepth;
+    }
+
+    void writeQueue(int writeQueueDepth) {
+        maxWriteQueueDepth = Math.max(maxWriteQueueDepth, writeQueueDepth);
+        writeQueueDepthSum += writeQueueDepth;
+        writeQueueSamples++;
+    }
+
+    void finish(long nanos) {
+        this.nanos = nanos;
+    }
+
+    /**
+     * @return num of lines read and written
+     */
+    public long getLines() {
+        return lines;
+    }
+
+    /**
+     * @return num of chars of the lines read
+     */
+    public long getChars() {
+        return chars;
+    }
+
+    /**
+     * @return num of batches of lines handed between the stages
+     */
+    public long getBatches() {
+        return batches;
+    }
+
+    /**
+     * @return the time from the first line read to the last line written, in milliseconds
+     */
+    public long getMillis() {
+        return nanos / 1_000_000;
+    }
+
+    /**
+     * @return lines broken per second
+     */
+    public double getLinesPerSecond() {
+        return nanos == 0 ? 0 : lines * 1e9 / nanos;
+    }
+
+    /**
+     * @return the max num of batches read and waiting for a worker
+     */
+    public int getMaxReadQueueDepth() {
+        return maxReadQueueDepth;
+    }
+
+    /**
+     * @return the average num of batches read and waiting for a worker
+     */
+    public double getAverageReadQueueDepth() {
+        return batches == 0 ? 0 : (double) readQueueDepthSum / batches;
+    }
+
+    /**
+     * @return the max num of batches broken and waiting to be written
+     */
+    public int getMaxWriteQueueDepth() {
+        return maxWriteQueueDepth;
+    }
+
+    /**
+     * @return the average num of batches broken and waiting to be written
+     */
+    public double getAverageWriteQueueDepth() {
+        return writeQueueSamples == 0 ? 0 : (double) writeQueueDepthSum / writeQueueSamples;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d lines (%d KB) in %d ms, %.0f lines/s, read queue depth avg %.1f max %d, "
+                        + "write queue depth avg %.1f max %d", lines, chars >> 10, getMillis(), getLinesPerSecond(),
+                getAverageReadQueueDepth(), maxReadQueueDepth, getAverageWriteQueueDepth(), maxWriteQueueDepth);
+    }
+
+}
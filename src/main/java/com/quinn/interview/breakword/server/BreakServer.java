@@ -0,0 +1,319 @@
+package com.quinn.interview.breakword.server;
+
+import com.quinn.interview.breakword.model.BreakResult;
+import com.quinn.interview.breakword.model.Dictionary;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * a lightweight HTTP server to break lines, on the HTTP server of the JDK (com.sun.net.httpserver)
+ * <p>
+ * POST /break with a line as the body (text/plain): the response is the line with the break marks
+ * POST /break with NDJSON (application/x-ndjson), a JSON string for every line: the response is NDJSON of
+ * the lines with the break marks, in the same order
+ * a body of more than MAX_BODY_BYTES bytes, or NDJSON of more than MAX_LINES lines, is refused with 413,
+ * so the memory of a request is bounded (the body is not read past the limit)
+ * <p>
+ * GET /stats: the num of requests, lines, batches and batcher threads, and the p50/p99 latency in microseconds,
+ * as JSON
+ * <p>
+ * every request is handled by a virtual thread (or a thread of a cached pool before Java 21, the executor chosen is
+ * logged, see newRequestExecutor() and executor()), and the lines of a request are broken by its own thread
+ * <p>
+ * micro batching is opt-in, see start(Dictionary, int, boolean): the lines of the concurrent requests are broken
+ * together in micro batches by a batcher thread per processor, see MicroBatcher.
+ * it does not beat breaking by the request threads (about 0.9 of their throughput in BreakServerTest.loadTest),
+ * since the break of a line is all CPU and the hand-off to a batcher is extra, so it is not the default
+ * <p>
+ * the dictionary is frozen, so it is shared by all requests without synchronization
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public final class BreakServer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BreakServer.class);
+
+    public static final String BREAK_PATH = "/break";
+
+    public static final String STATS_PATH = "/stats";
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    /**
+     * max num of bytes of the body of a request
+     */
+    public static final int MAX_BODY_BYTES = 1 << 20;
+
+    /**
+     * max num of lines of a request
+     */
+    public static final int MAX_LINES = MicroBatcher.MAX_BATCH_LINES;
+
+    private final Dictionary dictionary;
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    /**
+     * null if the lines of every request are broken by its own thread
+     */
+    private final MicroBatcher batcher;
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    private final AtomicLong requests = new AtomicLong();
+
+    private final AtomicLong lines = new AtomicLong();
+
+    /**
+     * start a server of a virtual thread per request, without micro batching
+     *
+     * @param dictionary the dictionary to break the lines
+     * @param port       the port to listen, 0 for any free port
+     * @return the server started
+     */
+    public static BreakServer start(Dictionary dictionary, int port) {
+        return start(dictionary, port, false);
+    }
+
+    /**
+     * start a server of a virtual thread per request
+     *
+     * @param dictionary    the dictionary to break the lines
+     * @param port          the port to listen, 0 for any free port
+     * @param microBatching whether to break the lines of the concurrent requests together, see MicroBatcher
+     * @return the server started
+     */
+    public static BreakServer start(Dictionary dictionary, int port, boolean microBatching) {
+        return new BreakServer(dictionary, new InetSocketAddress(port), newRequestExecutor(), microBatching);
+    }
+
+    /**
+     * start a server
+     *
+     * @param dictionary    the dictionary to break the lines, it is frozen
+     * @param address       the address to listen
+     * @param executor      the executor to handle the requests, it is shut down when the server stops
+     * @param microBatching whether to break the lines of the concurrent requests together
+     */
+    public BreakServer(Dictionary dictionary, InetSocketAddress address, ExecutorService executor,
+                       boolean microBatching) {
+        this.dictionary = dictionary.freeze();
+        this.executor = executor;
+        this.batcher = microBatching
+                ? new MicroBatcher(this.dictionary, Runtime.getRuntime().availableProcessors()) : null;
+        try {
+            this.server = HttpServer.create(address, 0);
+        } catch (IOException e) {
+            if (batcher != null) {
+                batcher.close();
+            }
+            throw new RuntimeException("server start on " + address + " failed", e);
+        }
+        server.setExecutor(executor);
+        server.createContext(BREAK_PATH, this::handleBreak);
+        server.createContext(STATS_PATH, this::handleStats);
+        server.start();
+    }
+
+    /**
+     * a virtual thread per task if it is supported by the JDK (Java 21+), or a cached thread pool,
+     * the executor chosen is logged
+     *
+     * @return the executor to handle the requests
+     */
+    public static ExecutorService newRequestExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService executor = (ExecutorService) method.invoke(null);
+            LOGGER.info("the requests are handled by a virtual thread per request");
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            LOGGER.info("virtual threads are not supported by Java {}, the requests are handled by a cached thread pool",
+                    System.getProperty("java.version"));
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * the executor which handles the requests
+     *
+     * @return the executor
+     * @see #newRequestExecutor()
+     */
+    public ExecutorService executor() {
+        return executor;
+    }
+
+    /**
+     * the port listened
+     *
+     * @return the port
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * the latencies of the requests, from the request received to the response sent
+     *
+     * @return the latencies
+     */
+    public LatencyHistogram latencies() {
+        return latencies;
+    }
+
+    /**
+     * stop the server, the requests being handled are dropped
+     */
+    public void stop() {
+        server.stop(0);
+        if (batcher != null) {
+            batcher.close();
+        }
+        executor.shutdownNow();
+    }
+
+    private void handleBreak(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        requests.incrementAndGet();
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, "text/plain", "only POST is supported");
+                return;
+            }
+
+            String body = read(exchange.getRequestBody(), MAX_BODY_BYTES);
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            boolean ndjson = contentType != null && contentType.startsWith(NDJSON);
+            List<String> lines = new ArrayList<>();
+            if (ndjson) {
+                for (String json : body.split("\n")) {
+                    if (json.trim().isEmpty()) {
+                        continue;
+                    }
+                    if (lines.size() == MAX_LINES) {
+                        throw new TooLargeException("more than " + MAX_LINES + " lines");
+                    }
+                    lines.add(Json.unquote(json));
+                }
+            } else {
+                lines.add(body.endsWith("\r\n") ? body.substring(0, body.length() - 2)
+                        : body.endsWith("\n") ? body.substring(0, body.length() - 1) : body);
+            }
+
+            List<BreakResult> results = breakLines(lines);
+            if (!ndjson) {
+                send(exchange, 200, "text/plain; charset=utf-8", results.get(0).toString());
+                return;
+            }
+            StringBuilder response = new StringBuilder();
+            for (BreakResult result : results) {
+                response.append(Json.quote(result.toString())).append('\n');
+            }
+            send(exchange, 200, NDJSON + "; charset=utf-8", response.toString());
+        } catch (TooLargeException e) {
+            send(exchange, 413, "text/plain", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            send(exchange, 400, "text/plain", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(exchange, 503, "text/plain", "server stopping");
+        } catch (ExecutionException e) {
+            send(exchange, 500, "text/plain", String.valueOf(e.getCause()));
+        } finally {
+            exchange.close();
+            latencies.record(System.nanoTime() - start);
+        }
+    }
+
+    private List<BreakResult> breakLines(List<String> lines) throws InterruptedException, ExecutionException {
+        this.lines.addAndGet(lines.size());
+        if (batcher != null) {
+            return batcher.submit(lines).get();
+        }
+        List<BreakResult> results = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            results.add(dictionary.breakLine(line));
+        }
+        return results;
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try {
+            String stats = "{\"requests\":" + requests.get()
+                    + ",\"lines\":" + lines.get()
+                    + ",\"batches\":" + (batcher == null ? 0 : batcher.batches())
+                    + ",\"batchers\":" + (batcher == null ? 0 : batcher.threads())
+                    + ",\"p50\":" + latencies.percentile(50)
+                    + ",\"p99\":" + latencies.percentile(99) + "}";
+            send(exchange, 200, "application/json", stats);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * read the body, no more than max + 1 bytes are read
+     *
+     * @throws TooLargeException if the body is longer than max bytes
+     */
+    private static String read(InputStream input, int max) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+            bytes.write(buffer, 0, read);
+            if (bytes.size() > max) {
+                throw new TooLargeException("body of more than " + max + " bytes");
+            }
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        if (bytes.length == 0) {
+            // -1 for no body: the exchange is finished by the headers already, the body must not be closed again
+            // (it would finish the exchange twice, and the next request of the connection may be dropped)
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * the request is too large to be handled, 413
+     */
+    private static final class TooLargeException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private TooLargeException(String message) {
+            super(message);
+        }
+
+    }
+
+}
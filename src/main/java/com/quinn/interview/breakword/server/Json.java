@@ -0,0 +1,119 @@
+package com.quinn.interview.breakword.server;
+
+/**
+ * the JSON strings of the NDJSON requests and responses, a line of NDJSON is a JSON string, e.g "ilikemango"
+ * (only strings are used, so there is no JSON library)
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    /**
+     * quote a string as a JSON string
+     *
+     * @param string the string
+     * @return the JSON string
+     */
+    static String quote(String string) {
+        StringBuilder json = new StringBuilder(string.length() + 2).append('"');
+        for (int i = 0; i < string.length(); i++) {
+            char c = string.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    /**
+     * parse a JSON string
+     *
+     * @param json the JSON string, with the quotes, the spaces around it are ignored
+     * @return the string
+     * @throws IllegalArgumentException if it is not a JSON string
+     */
+    static String unquote(String json) {
+        String trimmed = json.trim();
+        if (trimmed.length() < 2 || trimmed.charAt(0) != '"' || trimmed.charAt(trimmed.length() - 1) != '"') {
+            throw new IllegalArgumentException("not a JSON string: " + json);
+        }
+
+        StringBuilder string = new StringBuilder(trimmed.length());
+        int end = trimmed.length() - 1;
+        for (int i = 1; i < end; i++) {
+            char c = trimmed.charAt(i);
+            if (c == '"') {
+                throw new IllegalArgumentException("not a JSON string: " + json);
+            }
+            if (c != '\\') {
+                string.append(c);
+                continue;
+            }
+            if (++i == end) {
+                throw new IllegalArgumentException("not a JSON string: " + json);
+            }
+            char escaped = trimmed.charAt(i);
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    string.append(escaped);
+                    break;
+                case 'b':
+                    string.append('\b');
+                    break;
+                case 'f':
+                    string.append('\f');
+                    break;
+                case 'n':
+                    string.append('\n');
+                    break;
+                case 'r':
+                    string.append('\r');
+                    break;
+                case 't':
+                    string.append('\t');
+                    break;
+                case 'u':
+                    if (i + 4 >= end) {
+                        throw new IllegalArgumentException("not a JSON string: " + json);
+                    }
+                    try {
+                        string.append((char) Integer.parseInt(trimmed.substring(i + 1, i + 5), 16));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("not a JSON string: " + json, e);
+                    }
+                    i += 4;
+                    break;
+                default:
+                    throw new IllegalArgumentException("not a JSON string: " + json);
+            }
+        }
+        return string.toString();
+    }
+
+}
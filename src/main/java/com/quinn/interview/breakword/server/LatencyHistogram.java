@@ -0,0 +1,102 @@
+package com.quinn.interview.breakword.server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * a lock free histogram of latencies, to get the percentiles (p50, p99) without keeping every latency
+ * <p>
+ * the latencies are counted in buckets of microseconds: every power of 2 is split into SUB_BUCKETS buckets,
+ * so a percentile is accurate to 1 / SUB_BUCKETS, and the memory is the same however many latencies are recorded
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public final class LatencyHistogram {
+
+    /**
+     * bits of the buckets in a power of 2
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * the latencies up to 2 ^ 40 microseconds (about 12 days)
+     */
+    private static final int MAX_BITS = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray((MAX_BITS + 1) * SUB_BUCKETS);
+
+    /**
+     * record a latency
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucketOf(Math.max(0, nanos / 1000)));
+    }
+
+    /**
+     * num of the latencies recorded
+     *
+     * @return num of the latencies
+     */
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * get the latency which the percentage of latencies are no more than
+     *
+     * @param percentile the percentile, e.g 99 for p99
+     * @return the latency in microseconds (the upper bound of its bucket), 0 if no latency is recorded
+     */
+    public long percentile(double percentile) {
+        long[] snapshot = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long count = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            count += snapshot[i];
+            if (count >= rank) {
+                return upperBoundOf(i);
+            }
+        }
+        return upperBoundOf(snapshot.length - 1);
+    }
+
+    /**
+     * the values less than SUB_BUCKETS have a bucket each,
+     * and the others are bucketed by the highest bit and the SUB_BUCKET_BITS bits after it
+     */
+    private static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int highest = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_BITS);
+        int sub = (int) (micros >>> (highest - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (highest - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int highest = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << (highest - SUB_BUCKET_BITS)) - 1;
+    }
+
+}
@@ -0,0 +1,159 @@
+package com.quinn.interview.breakword.server;
+
+import com.quinn.interview.breakword.model.BreakResult;
+import com.quinn.interview.breakword.model.Dictionary;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * coalesce the lines of the concurrent requests into batches, which are broken by Dictionary.breakLines
+ * <p>
+ * a batcher thread takes all requests waiting in the queue at once (up to MAX_BATCH_LINES lines), so a request does
+ * not wait for the others when the server is idle, and the requests are broken together when it is busy
+ * <p>
+ * a batch of a few lines is broken by its batcher thread (Dictionary.breakLines does not hand a small batch off to
+ * the pool), so there are as many batcher threads as the processors, and the batches are broken on all cores
+ * at the same time instead of one by one
+ * <p>
+ * the queue is bounded, the request threads wait when it is full
+ *
+ * @author Qunhua.Liao
+ * @see Dictionary#breakLines(List)
+ * @since 2020-10-14
+ */
+final class MicroBatcher {
+
+    /**
+     * max num of lines of a batch, unless a single request has more lines
+     */
+    static final int MAX_BATCH_LINES = 4096;
+
+    /**
+     * max num of requests waiting to be broken
+     */
+    static final int QUEUE_CAPACITY = 1024;
+
+    private final Dictionary dictionary;
+
+    private final BlockingQueue<Request> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    private final Thread[] threads;
+
+    private final AtomicLong batches = new AtomicLong();
+
+    private volatile boolean closed;
+
+    /**
+     * Constructor
+     *
+     * @param dictionary the frozen dictionary to break the lines
+     * @param threads    num of batcher threads
+     */
+    MicroBatcher(Dictionary dictionary, int threads) {
+        this.dictionary = dictionary;
+        this.threads = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            this.threads[i] = new Thread(this::run, "break-micro-batcher-" + i);
+            this.threads[i].setDaemon(true);
+            this.threads[i].start();
+        }
+    }
+
+    /**
+     * break the lines of a request with the lines of the other requests
+     *
+     * @param lines the lines of the request
+     * @return the results of the lines, in the same order
+     */
+    CompletableFuture<List<BreakResult>> submit(List<String> lines) throws InterruptedException {
+        Request request = new Request(lines);
+        if (closed) {
+            request.future.completeExceptionally(new IllegalStateException("micro batcher closed"));
+            return request.future;
+        }
+        queue.put(request);
+        if (closed && queue.remove(request)) {
+            request.future.completeExceptionally(new IllegalStateException("micro batcher closed"));
+        }
+        return request.future;
+    }
+
+    /**
+     * num of batches broken
+     */
+    long batches() {
+        return batches.get();
+    }
+
+    /**
+     * num of batcher threads
+     */
+    int threads() {
+        return threads.length;
+    }
+
+    /**
+     * stop the threads, the requests not broken fail
+     */
+    void close() {
+        closed = true;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        for (Request request = queue.poll(); request != null; request = queue.poll()) {
+            request.future.completeExceptionally(new IllegalStateException("micro batcher closed"));
+        }
+    }
+
+    private void run() {
+        List<Request> requests = new ArrayList<>();
+        List<String> batch = new ArrayList<>();
+        while (!closed) {
+            try {
+                requests.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            batch.addAll(requests.get(0).lines);
+            for (Request next = queue.peek(); next != null && batch.size() + next.lines.size() <= MAX_BATCH_LINES;
+                 next = queue.peek()) {
+                requests.add(queue.poll());
+                batch.addAll(next.lines);
+            }
+
+            try {
+                List<BreakResult> results = dictionary.breakLines(batch);
+                int offset = 0;
+                for (Request request : requests) {
+                    request.future.complete(results.subList(offset, offset + request.lines.size()));
+                    offset += request.lines.size();
+                }
+                batches.incrementAndGet();
+            } catch (RuntimeException e) {
+                for (Request request : requests) {
+                    request.future.completeExceptionally(e);
+                }
+            }
+            requests.clear();
+            batch.clear();
+        }
+    }
+
+    private static final class Request {
+
+        private final List<String> lines;
+
+        private final CompletableFuture<List<BreakResult>> future = new CompletableFuture<>();
+
+        private Request(List<String> lines) {
+            this.lines = lines;
+        }
+
+    }
+
+}
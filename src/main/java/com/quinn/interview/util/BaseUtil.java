@@ -1,14 +1,25 @@
 package com.quinn.interview.util;
 
+import com.quinn.interview.breakword.api.ByteFilePartHandler;
 import com.quinn.interview.breakword.api.StringFilePartHandler;
 
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
 
 /**
  * Simple String utils
@@ -18,6 +29,11 @@ import java.util.Scanner;
  */
 public final class BaseUtil {
 
+    /**
+     * the num of bytes of a chunk to read a large file in parallel, a chunk is a bit larger to end at a line end
+     */
+    public static final int CHUNK_BYTES = 1 << 24;
+
     /**
      * Determine whether the string is empty
      *
@@ -75,6 +91,176 @@ public final class BaseUtil {
         }
     }
 
+    /**
+     * read and handle a text file chunk by chunk in the common ForkJoinPool, the chunks are not merged
+     *
+     * @param file    the file
+     * @param handler the handler of the chunks
+     * @param <T>     the state of a chunk
+     * @see #readLargeFile(Path, ByteFilePartHandler, ForkJoinPool, Consumer, int)
+     */
+    public static <T> void readLargeFile(Path file, ByteFilePartHandler<T> handler) {
+        readLargeFile(file, handler, ForkJoinPool.commonPool(), null, CHUNK_BYTES);
+    }
+
+    /**
+     * read and handle a text file chunk by chunk in parallel, the chunks are CHUNK_BYTES bytes
+     *
+     * @param file    the file
+     * @param handler the handler of the chunks
+     * @param pool    the pool to handle the chunks in
+     * @param merger  the consumer of the states of the chunks in the order of the chunks, can be null
+     * @param <T>     the state of a chunk
+     * @see #readLargeFile(Path, ByteFilePartHandler, ForkJoinPool, Consumer, int)
+     */
+    public static <T> void readLargeFile(Path file, ByteFilePartHandler<T> handler, ForkJoinPool pool,
+                                         Consumer<? super T> merger) {
+        readLargeFile(file, handler, pool, merger, CHUNK_BYTES);
+    }
+
+    /**
+     * read and handle a text file chunk by chunk in parallel
+     * <p>
+     * the file is split into chunks of about chunkBytes bytes which end at a line end, every chunk is memory mapped
+     * and its lines are handed to the handler as byte ranges by a worker of the pool, without any copy or decoding
+     * (a line ends with "\n" or "\r\n")
+     * <p>
+     * the states of the chunks are merged by the caller thread in the order of the chunks, as soon as
+     * the chunks before are merged, and no more than twice the parallelism of the pool chunks are read ahead,
+     * so the states of the chunks not merged yet are not held for the whole file
+     *
+     * @param file       the file
+     * @param handler    the handler of the chunks
+     * @param pool       the pool to handle the chunks in
+     * @param merger     the consumer of the states of the chunks in the order of the chunks, can be null
+     * @param chunkBytes the num of bytes of a chunk
+     * @param <T>        the state of a chunk
+     * @throws RuntimeException if the file can not be read, or a line is larger than 2GB
+     */
+    public static <T> void readLargeFile(Path file, ByteFilePartHandler<T> handler, ForkJoinPool pool,
+                                         Consumer<? super T> merger, int chunkBytes) {
+        if (chunkBytes <= 0) {
+            throw new IllegalArgumentException("chunkBytes must be positive: " + chunkBytes);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = lineBounds(channel, chunkBytes);
+            int window = Math.max(2, pool.getParallelism() << 1);
+            Deque<ForkJoinTask<T>> reading = new ArrayDeque<>();
+            try {
+                for (int i = 0; i < bounds.length - 1; i++) {
+                    int index = i;
+                    long from = bounds[i];
+                    long to = bounds[i + 1];
+                    reading.add(pool.submit(ForkJoinTask.adapt(() -> readChunk(channel, index, from, to, handler))));
+                    if (reading.size() >= window) {
+                        merge(reading.poll().join(), merger);
+                    }
+                }
+                while (!reading.isEmpty()) {
+                    merge(reading.poll().join(), merger);
+                }
+            } finally {
+                // the chunks still being read must not outlive the channel
+                for (ForkJoinTask<T> task : reading) {
+                    task.quietlyJoin();
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("file " + file + " read failed", e);
+        }
+    }
+
+    private static <T> void merge(T chunk, Consumer<? super T> merger) {
+        if (merger != null) {
+            merger.accept(chunk);
+        }
+    }
+
+    /**
+     * split the file into chunks which end at a line end
+     *
+     * @return the offsets of the chunks, and the size of the file at last
+     */
+    private static long[] lineBounds(FileChannel channel, int chunkBytes) throws IOException {
+        long size = channel.size();
+        long[] bounds = new long[(int) Math.min(Integer.MAX_VALUE - 1, size / chunkBytes + 2)];
+        int count = 1;
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 12);
+        long bound = 0;
+        while (true) {
+            long next = bound + chunkBytes;
+            if (next >= size) {
+                break;
+            }
+            // the chunk ends after the first line end from the nominal end
+            bound = -1;
+            for (long position = next - 1; bound < 0 && position < size; position += buffer.limit()) {
+                buffer.clear();
+                channel.read(buffer, position);
+                buffer.flip();
+                for (int i = 0; i < buffer.limit(); i++) {
+                    if (buffer.get(i) == '\n') {
+                        bound = position + i + 1;
+                        break;
+                    }
+                }
+            }
+            if (bound < 0 || bound >= size) {
+                break;
+            }
+            bounds[count++] = bound;
+        }
+        bounds[count++] = size;
+        return Arrays.copyOf(bounds, size == 0 ? 1 : count);
+    }
+
+    private static <T> T readChunk(FileChannel channel, int index, long from, long to,
+                                   ByteFilePartHandler<T> handler) throws IOException {
+        if (to - from > Integer.MAX_VALUE) {
+            throw new IOException("line at offset " + from + " is too large");
+        }
+        ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        T chunk = handler.startChunk(index, from);
+        int length = (int) (to - from);
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (bytes.get(i) == '\n') {
+                handler.handle(chunk, bytes, start, i > start && bytes.get(i - 1) == '\r' ? i - 1 : i);
+                start = i + 1;
+            }
+        }
+        if (start < length) {
+            handler.handle(chunk, bytes, start, bytes.get(length - 1) == '\r' ? length - 1 : length);
+        }
+        handler.endChunk(chunk);
+        return chunk;
+    }
+
+    /**
+     * decode the bytes (UTF-8) into a String, the bytes of ASCII are converted to the chars directly
+     *
+     * @param bytes the bytes
+     * @param from  the first byte
+     * @param to    the end (exclusive)
+     * @return the String
+     */
+    public static String decode(ByteBuffer bytes, int from, int to) {
+        char[] chars = new char[to - from];
+        for (int i = from; i < to; i++) {
+            byte b = bytes.get(i);
+            if (b < 0) {
+                // not ASCII
+                byte[] array = new byte[to - from];
+                for (int j = from; j < to; j++) {
+                    array[j - from] = bytes.get(j);
+                }
+                return new String(array, StandardCharsets.UTF_8);
+            }
+            chars[i - from] = (char) b;
+        }
+        return new String(chars);
+    }
+
     /**
      * close input streams quietly
      *
@@ -0,0 +1,251 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.Alphabet;
+import com.quinn.interview.breakword.model.BreakResult;
+import com.quinn.interview.breakword.model.CompactBreakResult;
+import com.quinn.interview.breakword.model.Dictionary;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Test for the alphabet of the dictionary: the chars which are not english letters, the case and the unknown chars
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class AlphabetTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AlphabetTest.class);
+
+    /**
+     * the words of digits, hyphen, upper case and cyrillic letters (e.g "mir" and "dom")
+     */
+    private static final String[] WORDS = {"mp3", "player", "e-mail", "Samsung", "\u043c\u0438\u0440",
+            "\u0434\u043e\u043c"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * the codes are dense, the upper case and the lower case have the same code
+     */
+    @Test
+    public void codeTest() {
+        Alphabet alphabet = Alphabet.of(Arrays.asList("ab", "Ba", "man go", "\u043c\u0438\u0440"));
+        Assert.assertEquals(2, alphabet.index('a'));
+        Assert.assertEquals(3, alphabet.index('b'));
+        Assert.assertEquals(alphabet.index('b'), alphabet.index('B'));
+        Assert.assertEquals(alphabet.index('a'), alphabet.index('A'));
+        Assert.assertEquals(alphabet.index('\u043c'), alphabet.index('\u041c'));
+        Assert.assertEquals('a', alphabet.fold('A'));
+        Assert.assertEquals('\u043c', alphabet.fold('\u041c'));
+        // a, b, m, n, g, o and 3 cyrillic letters, with UNKNOWN and SPACE
+        Assert.assertEquals(11, alphabet.size());
+
+        Assert.assertEquals(Alphabet.SPACE, alphabet.add(' '));
+        Assert.assertEquals(Alphabet.UNKNOWN, alphabet.index(' '));
+        Assert.assertEquals(Alphabet.UNKNOWN, alphabet.index('z'));
+        Assert.assertEquals(Alphabet.UNKNOWN, alphabet.index('\uffff'));
+        Assert.assertEquals(Alphabet.UNKNOWN, alphabet.fold('-'));
+        Assert.assertFalse(alphabet.contains('-'));
+
+        Alphabet other = new Alphabet();
+        other.addAll(alphabet);
+        Assert.assertEquals(alphabet.size(), other.size());
+        Assert.assertTrue(other.contains('B'));
+        Assert.assertTrue(other.contains('\u0440'));
+    }
+
+    /**
+     * the words which are not english letters only are broken by all types, frozen or not
+     */
+    @Test
+    public void wordsTest() {
+        String[][] cases = {
+                {"mp3player", "mp3 player"},
+                {"e-mailsamsung", "e-mail sam?sung"},
+                {"ILikeSAMSUNG", "I Like SAM?SUNG"},
+                {"\u041c\u0438\u0440\u0434\u043e\u043c", "\u041c\u0438\u0440 \u0434\u043e\u043c"},
+                {"emailplayer", "e* ma* i l* player"},
+        };
+        Path image = folder.getRoot().toPath().resolve("alphabet.dic");
+        for (TrieNodeTypeEnum type : TrieNodeTypeEnum.values()) {
+            Dictionary dictionary = Dictionary.create(type, WORDS, true);
+            Dictionary frozen = dictionary.freeze();
+            frozen.save(image);
+            for (Dictionary each : new Dictionary[]{dictionary, frozen, Dictionary.open(image)}) {
+                for (String[] c : cases) {
+                    Assert.assertEquals(type + " " + c[0], c[1], each.breakLine(c[0]).toString());
+                }
+                Assert.assertTrue(type.toString(), each.contains("e-mail"));
+                Assert.assertTrue(type.toString(), each.contains("\u043c\u0438\u0440"));
+            }
+        }
+    }
+
+    /**
+     * the chars which are not in the alphabet are passed through, the chars after them are still broken
+     */
+    @Test
+    public void passThroughTest() {
+        String[][] cases = {
+                {"ilike,samsung", "i like ,* sam?sung"},
+                {"ilike samsung!", "i like  * sam?sung !*"},
+                {"1ilike", "1* i like"},
+                {"ilike9", "i like 9*"},
+                {"i\u00e9like", "i \u00e9* like"},
+        };
+        for (TrieNodeTypeEnum type : TrieNodeTypeEnum.values()) {
+            Dictionary dictionary = Dictionary.create(type);
+            for (Dictionary each : new Dictionary[]{dictionary, dictionary.freeze()}) {
+                for (String[] c : cases) {
+                    Assert.assertEquals(type + " " + c[0], c[1], each.breakLine(c[0]).toString());
+                }
+            }
+        }
+    }
+
+    /**
+     * the words which are the same but the case are the same word for adding, removing, contains and wordCount,
+     * mutable or frozen, as they are in the trie
+     */
+    @Test
+    public void caseTest() {
+        for (TrieNodeTypeEnum type : TrieNodeTypeEnum.values()) {
+            Dictionary dictionary = Dictionary.create(type, new String[]{"samsung", "Samsung", "galaxy"}, false);
+            Assert.assertEquals(type.toString(), 2, dictionary.wordCount());
+            Assert.assertEquals(type.toString(), 2, dictionary.freeze().wordCount());
+            Assert.assertTrue(type.toString(), dictionary.contains("SAMSUNG"));
+            Assert.assertTrue(type.toString(), dictionary.freeze().contains("SAMSUNG"));
+
+            dictionary.addWord("GALAXY");
+            Assert.assertEquals(type.toString(), 2, dictionary.wordCount());
+
+            // removing a case of the word removes the word of the trie, so all its cases
+            Assert.assertTrue(type.toString(), dictionary.removeWord("Samsung"));
+            Assert.assertFalse(type.toString(), dictionary.removeWord("samsung"));
+            Assert.assertFalse(type.toString(), dictionary.contains("samsung"));
+            Assert.assertEquals(type.toString(), 1, dictionary.wordCount());
+            Assert.assertEquals(type.toString(), "s* a* m* s* u* n* g*", dictionary.breakLine("samsung").toString());
+            Assert.assertEquals(type.toString(), 1, dictionary.freeze().wordCount());
+            Assert.assertFalse(type.toString(), dictionary.freeze().contains("Samsung"));
+
+            dictionary.addWord("SamSung");
+            Assert.assertTrue(type.toString(), dictionary.contains("samsung"));
+            Assert.assertEquals(type.toString(), "samsung", dictionary.breakLine("samsung").toString());
+        }
+    }
+
+    /**
+     * the chars of the line which are the same as the marks are passed through as chars of the line:
+     * a '?' of the line is not a possible break, and all of them are kept in the cases
+     */
+    @Test
+    public void markCharTest() {
+        String[][] cases = {
+                {"ilike?samsung", "i like ?* sam?sung", "i like ?* samsung", "i like ?* sam sung"},
+                {"ilike*samsung", "i like ** sam?sung", "i like ** samsung", "i like ** sam sung"},
+                {"ilike samsung", "i like  * sam?sung", "i like  * samsung", "i like  * sam sung"},
+                {"ilike\tsamsung", "i like \t* sam?sung", "i like \t* samsung", "i like \t* sam sung"},
+                {"?ilike", "?* i like", "?* i like"},
+                {"ilike??", "i like ?* ?*", "i like ?* ?*"},
+        };
+        for (TrieNodeTypeEnum type : TrieNodeTypeEnum.values()) {
+            Dictionary dictionary = Dictionary.create(type);
+            for (Dictionary each : new Dictionary[]{dictionary, dictionary.freeze()}) {
+                for (String[] c : cases) {
+                    String message = type + " " + c[0];
+                    BreakResult result = each.breakLine(c[0]);
+                    Assert.assertEquals(message, c[1], result.toString());
+                    Assert.assertEquals(message, c.length - 2, result.caseCount());
+                    Assert.assertArrayEquals(message, Arrays.copyOfRange(c, 2, c.length), result.allCases());
+
+                    // the chars of the line are told from the marks
+                    int lineChars = 0;
+                    for (int i = 0; i < result.length(); i++) {
+                        lineChars += result.isMark(i) ? 0 : 1;
+                    }
+                    Assert.assertEquals(message, c[0].length(), lineChars);
+
+                    // the same by the sink, the copy and the compact form
+                    BreakResult sink = each.breakLine(c[0], new BreakResult(0));
+                    Assert.assertArrayEquals(message, result.allCases(), sink.allCases());
+                    Assert.assertArrayEquals(message, result.allCases(),
+                            new BreakResult(0).append(result).allCases());
+                    Assert.assertArrayEquals(message, result.allCases(),
+                            CompactBreakResult.of(c[0], result).toBreakResult().allCases());
+                }
+            }
+        }
+    }
+
+    /**
+     * the arrays of ArrayTrieNode cover the codes of the children, however large the chars are
+     */
+    @Test
+    public void arraySizeTest() {
+        String[] latin = TestSupport.randomWords(50_000, 3, 10, 20201014L);
+        String[] cyrillic = new String[latin.length];
+        for (int i = 0; i < latin.length; i++) {
+            char[] chars = latin[i].toCharArray();
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = (char) ('\u0430' + chars[j] - 'a');
+            }
+            cyrillic[i] = new String(chars);
+        }
+
+        long latinBytes = heapOf(TrieNodeTypeEnum.ARRAY, latin);
+        long cyrillicBytes = heapOf(TrieNodeTypeEnum.ARRAY, cyrillic);
+        LOGGER.info("ARRAY of {} words: latin {} KB, cyrillic {} KB", latin.length, latinBytes >> 10,
+                cyrillicBytes >> 10);
+        Assert.assertTrue(cyrillicBytes < latinBytes * 3 / 2);
+    }
+
+    /**
+     * with an alphabet of thousands of chars, a node of ARRAY does not have a slot for every char of the alphabet:
+     * a leaf has no array, a node of one child has an array of one, and a node of a few children far from each other
+     * keeps their codes, so it costs about the same as MAP
+     */
+    @Test
+    public void largeAlphabetHeapTest() {
+        Random random = new Random(20201016L);
+        String[] words = new String[20_000];
+        for (int i = 0; i < words.length; i++) {
+            char[] chars = new char[2 + random.nextInt(5)];
+            for (int j = 0; j < chars.length; j++) {
+                // 3000 CJK chars
+                chars[j] = (char) ('\u4e00' + random.nextInt(3000));
+            }
+            words[i] = new String(chars);
+        }
+
+        long arrayBytes = heapOf(TrieNodeTypeEnum.ARRAY, words);
+        long mapBytes = heapOf(TrieNodeTypeEnum.MAP, words);
+        LOGGER.info("{} words of 3000 chars: ARRAY {} bytes per word, MAP {} bytes per word", words.length,
+                arrayBytes / words.length, mapBytes / words.length);
+        // an array of the alphabet per node is more than 10 KB per node
+        Assert.assertTrue(arrayBytes / words.length < 2048);
+        Assert.assertTrue(arrayBytes < mapBytes * 2);
+    }
+
+    /**
+     * the bytes allocated to build a dictionary of the words
+     */
+    private static long heapOf(TrieNodeTypeEnum type, String[] words) {
+        long before = TestSupport.allocatedBytes();
+        Dictionary dictionary = Dictionary.create(type, words, false);
+        long after = TestSupport.allocatedBytes();
+        Assert.assertTrue(dictionary.contains(words[0]));
+        return after - before;
+    }
+
+}
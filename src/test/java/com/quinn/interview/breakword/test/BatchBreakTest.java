@@ -0,0 +1,138 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.BreakResult;
+import com.quinn.interview.breakword.model.Dictionary;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Test for breaking lines in batch
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class BatchBreakTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchBreakTest.class);
+
+    /**
+     * the results are the same as breakLine(line) one by one, in the order of the lines
+     */
+    @Test
+    public void sameResultTest() {
+        Random random = new Random(20201013L);
+        for (TrieNodeTypeEnum type : TrieNodeTypeEnum.values()) {
+            String[] words = TestSupport.randomWords(200, 1, 6, random.nextLong());
+            Dictionary dictionary = Dictionary.create(type, words, true);
+            List<String> lines = TestSupport.randomLines(words, 3000, 40, random);
+            // long lines among the short ones, and the lines out of the dictionary
+            lines.add(100, String.join("", TestSupport.randomLines(words, 2000, 40, random)));
+            lines.add(null);
+            lines.add("");
+            lines.add("ilike1mobile");
+
+            List<BreakResult> results = dictionary.breakLines(lines);
+            List<BreakResult> streamed = dictionary.breakLines(lines.stream()).collect(Collectors.toList());
+            Assert.assertEquals(lines.size(), results.size());
+            Assert.assertEquals(lines.size(), streamed.size());
+            for (int i = 0; i < lines.size(); i++) {
+                String expected = String.valueOf(dictionary.breakLine(lines.get(i)));
+                Assert.assertEquals(type + " " + lines.get(i), expected, String.valueOf(results.get(i)));
+                Assert.assertEquals(type + " " + lines.get(i), expected, String.valueOf(streamed.get(i)));
+            }
+        }
+
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY);
+        Assert.assertNull(dictionary.breakLines((List<String>) null));
+        Assert.assertTrue(dictionary.breakLines(Collections.emptyList()).isEmpty());
+        Assert.assertEquals(0, dictionary.breakLines(Collections.<String>emptyList().stream()).count());
+    }
+
+    /**
+     * the buffer a chunk takes from the pool of the batch is shorter than the longest line of the chunk:
+     * the chunks of 16K chars come in the order of the lines, and the longest line of every chunk is twice
+     * as long as the one before, so every chunk needs a longer buffer than the ones given back
+     */
+    @Test
+    public void longerThanPooledBufferTest() {
+        Random random = new Random(20201015L);
+        String[] words = TestSupport.randomWords(500, 1, 6, random.nextLong());
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, true);
+        List<String> lines = new ArrayList<>();
+        for (int longest = 100; longest <= 1 << 16; longest <<= 1) {
+            lines.addAll(TestSupport.randomLines(words, 800, 40, random));
+            StringBuilder line = new StringBuilder();
+            while (line.length() < longest) {
+                line.append(words[random.nextInt(words.length)]);
+            }
+            lines.add(line.toString());
+        }
+
+        for (int parallelism : new int[]{1, 4}) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                List<BreakResult> results = dictionary.breakLines(lines, pool);
+                Assert.assertEquals(lines.size(), results.size());
+                for (int i = 0; i < lines.size(); i++) {
+                    Assert.assertEquals(parallelism + " workers, line " + i,
+                            dictionary.breakLine(lines.get(i)).toString(), results.get(i).toString());
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * the time to break 200k lines by 1 to N workers
+     */
+    @Test
+    public void scalingTest() {
+        Random random = new Random(20201014L);
+        String[] words = TestSupport.randomWords(50_000, 3, 8, random.nextLong());
+        Dictionary frozen = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, false).freeze();
+        List<String> lines = TestSupport.randomLines(words, 200_000, 60, random);
+
+        // warm up
+        for (String line : lines) {
+            frozen.breakLine(line);
+        }
+        long start = System.nanoTime();
+        List<BreakResult> expected = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            expected.add(frozen.breakLine(line));
+        }
+        long oneByOne = System.nanoTime() - start;
+        LOGGER.info("{} lines broken one by one in {} ms", lines.size(), oneByOne / 1_000_000);
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int parallelism = 1; parallelism <= processors; parallelism <<= 1) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                frozen.breakLines(lines, pool);
+                start = System.nanoTime();
+                List<BreakResult> results = frozen.breakLines(lines, pool);
+                long time = System.nanoTime() - start;
+                LOGGER.info("{} lines broken in batch by {} workers in {} ms, {} times faster", lines.size(),
+                        parallelism, time / 1_000_000, String.format("%.2f", (double) oneByOne / time));
+
+                for (int i = 0; i < lines.size(); i += 1000) {
+                    Assert.assertEquals(expected.get(i).toString(), results.get(i).toString());
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+}
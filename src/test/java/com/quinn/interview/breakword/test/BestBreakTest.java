@@ -0,0 +1,274 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.Dictionary;
+import com.quinn.interview.breakword.model.WordLattice;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Test for the best break by the frequencies of words
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class BestBreakTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BestBreakTest.class);
+
+    private static final String[] CUSTOM_DIC = new String[]{"i", "like", "sam", "sung", "mobile", "icecream",
+            "man go", "mango", "and"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * the frequent words are preferred
+     */
+    @Test
+    public void frequencyTest() throws IOException {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, dictionaryFile(
+                "i:1000,like:500,sam:10,sung:10,samsung:1000,mobile:100\nice:100,cream:100,icecream:1,man go,mango:100,and:1000"),
+                false);
+        Assert.assertEquals("i like samsung mobile", render("ilikesamsungmobile", dictionary));
+        Assert.assertEquals("i like ice cream and mango", render("ilikeicecreamandmango", dictionary));
+
+        dictionary = Dictionary.create(TrieNodeTypeEnum.DAWG, dictionaryFile(
+                "i:1000,like:500,sam:1000,sung:1000,samsung:1,mobile:100,ice:1,cream:1,icecream:100,man go:100,mango,and:1000"),
+                false);
+        Assert.assertEquals("i like sam sung mobile", render("ilikesamsungmobile", dictionary));
+        Assert.assertEquals("i like icecream and mango", render("ilikeicecreamandmango", dictionary));
+        Assert.assertEquals("i like icecream and mango", render("ilikeicecreamandmango", dictionary.freeze()));
+    }
+
+    /**
+     * the frequencies are saved in the image, so the dictionary opened breaks the best the same way,
+     * whether it is saved before or after freezing
+     */
+    @Test
+    public void imageFrequencyTest() throws IOException {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.MAP, dictionaryFile(
+                "i:1000,like:500,sam:1000,sung:1000,samsung:1,mobile:100,ice:1,cream:1,icecream:100,man go:100,mango,and:1000"),
+                false);
+        Path image = folder.newFile("frequency.qdic").toPath();
+        dictionary.save(image);
+        Path frozenImage = folder.newFile("frozen.qdic").toPath();
+        dictionary.freeze().save(frozenImage);
+
+        for (Dictionary opened : new Dictionary[]{Dictionary.open(image), Dictionary.open(frozenImage)}) {
+            Assert.assertEquals("i like sam sung mobile", render("ilikesamsungmobile", opened));
+            Assert.assertEquals("i like icecream and mango", render("ilikeicecreamandmango", opened));
+            Assert.assertEquals(1000, opened.frequency("sam"));
+            Assert.assertEquals(100, opened.frequency("man go"));
+            Assert.assertEquals(1, opened.frequency("mango"));
+        }
+
+        // the image without frequencies breaks the fewest words
+        Path uniformImage = folder.newFile("uniform.qdic").toPath();
+        Dictionary.create(TrieNodeTypeEnum.ARRAY, CUSTOM_DIC, false).save(uniformImage);
+        Dictionary opened = Dictionary.open(uniformImage);
+        Assert.assertEquals("i like icecream and mango", render("ilikeicecreamandmango", opened));
+        Assert.assertEquals(1, opened.frequency("sam"));
+    }
+
+    /**
+     * the frequencies of the words in upper case are kept by the folded words, and the dictionary frozen
+     * keeps them by the ids: the dictionary frozen from still has them when it is changed and frozen again
+     */
+    @Test
+    public void frozenFrequencyTest() throws IOException {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, dictionaryFile(
+                "i:1000,Like:500,Sam:1000,Sung:1000,SamSung:1,mobile:100"), false);
+        Dictionary frozen = dictionary.freeze();
+        Assert.assertEquals(1000, frozen.frequency("sam"));
+        Assert.assertEquals(500, frozen.frequency("LIKE"));
+        Assert.assertEquals(1, frozen.frequency("samsung"));
+        Assert.assertEquals("i like sam sung mobile", render("ilikesamsungmobile", frozen));
+
+        dictionary.addWord("phone");
+        Assert.assertTrue(dictionary.removeWord("mobile"));
+        Assert.assertEquals("i like sam sung phone", render("ilikesamsungphone", dictionary));
+        Dictionary refrozen = dictionary.freeze();
+        Assert.assertEquals(1000, refrozen.frequency("sung"));
+        Assert.assertEquals(1, refrozen.frequency("phone"));
+        Assert.assertEquals(0, refrozen.frequency("mobile"));
+        Assert.assertEquals("i like sam sung phone", render("ilikesamsungphone", refrozen));
+    }
+
+    /**
+     * freezing does not change the dictionary frozen from: many words added after freezing get no frequency of
+     * another word, and the first frozen dictionary keeps its frequencies
+     */
+    @Test
+    public void freezeAgainTest() throws IOException {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, dictionaryFile(
+                "i:1000,Like:500,Sam:1000,Sung:1000,SamSung:1,mobile:100"), false);
+        Dictionary frozen = dictionary.freeze();
+        String[] added = TestSupport.randomWords(5000, 3, 8, 20201016L);
+        for (String word : added) {
+            dictionary.addWord(word);
+        }
+        Dictionary refrozen = dictionary.freeze();
+        for (String word : added) {
+            if (!"mobile".equals(word)) {
+                Assert.assertEquals(word, 1, refrozen.frequency(word));
+            }
+        }
+        Assert.assertEquals(500, refrozen.frequency("like"));
+        Assert.assertEquals(100, refrozen.frequency("mobile"));
+
+        dictionary.addWord("phone");
+        Dictionary third = dictionary.freeze();
+        Assert.assertEquals(1000, third.frequency("sam"));
+        Assert.assertEquals(1, third.frequency("phone"));
+        Assert.assertEquals(1000, frozen.frequency("sung"));
+        Assert.assertEquals(0, frozen.frequency("phone"));
+    }
+
+    /**
+     * the frequency up to Long.MAX_VALUE is read, a larger one is a part of the word
+     */
+    @Test
+    public void frequencyOverflowTest() throws IOException {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, dictionaryFile(
+                "max:9223372036854775807,over:9223372036854775808,far:9223372036854775817,big:99999999999999999999"),
+                false).freeze();
+        Assert.assertEquals(Long.MAX_VALUE, dictionary.frequency("max"));
+        for (String token : new String[]{"over:9223372036854775808", "far:9223372036854775817",
+                "big:99999999999999999999"}) {
+            Assert.assertTrue(token, dictionary.contains(token));
+            Assert.assertEquals(token, 1, dictionary.frequency(token));
+            Assert.assertEquals(token, 0, dictionary.frequency(token.substring(0, token.indexOf(':'))));
+        }
+    }
+
+    /**
+     * without frequencies, the fewest words are the best
+     */
+    @Test
+    public void uniformTest() {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, CUSTOM_DIC, true);
+        Assert.assertEquals("i like icecream and mango", render("ilikeicecreamandmango", dictionary));
+        Assert.assertArrayEquals(new int[]{1, 5, 12, 18}, dictionary.bestBreak("ilikesamsungmobile"));
+        Assert.assertEquals(0, dictionary.bestBreak("").length);
+
+        // the word added later is used
+        Assert.assertEquals("i like s u n", render("ilikesun", dictionary));
+        dictionary.addWord("sun");
+        Assert.assertEquals("i like sun", render("ilikesun", dictionary));
+    }
+
+    /**
+     * without frequencies, the best break has as few words as the shortest path of the lattice,
+     * for all node types
+     */
+    @Test
+    public void fewestWordsTest() throws IOException {
+        Random random = new Random(20201013L);
+        for (int round = 0; round < 20; round++) {
+            String[] words = TestSupport.randomWords(50 + random.nextInt(200), 1, 6, random.nextLong());
+            Dictionary array = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, true);
+            Path image = folder.newFile("random" + round + ".qdic").toPath();
+            array.save(image);
+            Dictionary[] dictionaries = new Dictionary[]{array, array.freeze(), Dictionary.open(image),
+                    Dictionary.create(TrieNodeTypeEnum.MAP, words, true),
+                    Dictionary.create(TrieNodeTypeEnum.DOUBLE_ARRAY, words, true),
+                    Dictionary.create(TrieNodeTypeEnum.DAWG, words, true)};
+
+            for (String input : TestSupport.randomLines(words, 200, 40, random)) {
+                WordLattice lattice = array.lattice(input);
+                int fewest = fewestWords(lattice);
+                for (Dictionary dictionary : dictionaries) {
+                    int[] ends = dictionary.bestBreak(input);
+                    Assert.assertEquals(input, input.length(), ends[ends.length - 1]);
+                    if (lattice.pathCount().signum() > 0) {
+                        Assert.assertEquals(input, fewest, ends.length);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * the time to break a line of 1 MB
+     */
+    @Test
+    public void benchmarkTest() throws IOException {
+        Random random = new Random(20201014L);
+        String[] words = TestSupport.randomWords(100_000, 1, 8, random.nextLong());
+        StringBuilder text = new StringBuilder();
+        for (String word : words) {
+            text.append(word).append(Dictionary.FREQUENCY_SPLIT).append(1 + random.nextInt(10_000))
+                    .append(Dictionary.WORD_SPLIT);
+        }
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, dictionaryFile(text.toString()), false);
+
+        StringBuilder line = new StringBuilder();
+        while (line.length() < 1 << 20) {
+            line.append(words[random.nextInt(words.length)]);
+        }
+        String input = line.toString();
+
+        dictionary.bestBreak(input);
+        long start = System.nanoTime();
+        int[] ends = dictionary.bestBreak(input);
+        long end = System.nanoTime();
+        dictionary.breakLine(input);
+        long breakStart = System.nanoTime();
+        dictionary.breakLine(input);
+        long breakEnd = System.nanoTime();
+        LOGGER.info("line of {} KB: best break of {} words in {} ms, breakLine in {} ms", input.length() >> 10,
+                ends.length, (end - start) / 1_000_000, (breakEnd - breakStart) / 1_000_000);
+
+        Assert.assertEquals(input.length(), ends[ends.length - 1]);
+    }
+
+    private String dictionaryFile(String text) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, text.getBytes("UTF-8"));
+        return file.toString();
+    }
+
+    private static String render(String line, Dictionary dictionary) {
+        int[] ends = dictionary.bestBreak(line);
+        StringBuilder broken = new StringBuilder();
+        int start = 0;
+        for (int end : ends) {
+            if (start > 0) {
+                broken.append(' ');
+            }
+            broken.append(line, start, end);
+            start = end;
+        }
+        return broken.toString();
+    }
+
+    /**
+     * the fewest words of the paths of the lattice
+     */
+    private static int fewestWords(WordLattice lattice) {
+        int[] fewest = new int[lattice.length() + 1];
+        Arrays.fill(fewest, Integer.MAX_VALUE);
+        fewest[0] = 0;
+        for (int i = 0; i < lattice.length(); i++) {
+            if (fewest[i] == Integer.MAX_VALUE) {
+                continue;
+            }
+            for (int e = lattice.firstEdge(i); e < lattice.endEdge(i); e++) {
+                fewest[lattice.end(e)] = Math.min(fewest[lattice.end(e)], fewest[i] + 1);
+            }
+        }
+        return fewest[lattice.length()];
+    }
+
+}
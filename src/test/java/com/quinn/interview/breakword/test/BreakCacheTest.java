@@ -0,0 +1,331 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.BreakCache;
+import com.quinn.interview.breakword.model.BreakResult;
+import com.quinn.interview.breakword.model.CacheStats;
+import com.quinn.interview.breakword.model.Dictionary;
+import com.quinn.interview.breakword.model.ReloadableDictionary;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Test for the cache of the results of breakLine()
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class BreakCacheTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BreakCacheTest.class);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * the results are the same with and without the cache, by all types, frozen or not
+     */
+    @Test
+    public void resultTest() {
+        Random random = new Random(20201014L);
+        String[] words = TestSupport.randomWords(2000, 2, 8, random.nextLong());
+        List<String> lines = TestSupport.randomLines(words, 300, 30, random);
+        for (TrieNodeTypeEnum type : TrieNodeTypeEnum.values()) {
+            Dictionary dictionary = Dictionary.create(type, words, false);
+            for (Dictionary each : new Dictionary[]{dictionary, dictionary.freeze()}) {
+                List<String> expected = new ArrayList<>();
+                for (String line : lines) {
+                    expected.add(each.breakLine(line).toString());
+                }
+                each.withCache(BreakCache.ofLines(10_000));
+                for (int round = 0; round < 3; round++) {
+                    for (int i = 0; i < lines.size(); i++) {
+                        Assert.assertEquals(type + " " + lines.get(i), expected.get(i),
+                                each.breakLine(lines.get(i)).toString());
+                    }
+                }
+                Assert.assertNull(each.breakLine(null));
+                Assert.assertEquals("", each.breakLine("").toString());
+
+                CacheStats stats = each.cache().stats();
+                long distinct = lines.stream().distinct().count();
+                Assert.assertEquals(distinct, stats.getLoads());
+                Assert.assertEquals(distinct, stats.getSize());
+                Assert.assertEquals(lines.size() * 3 - distinct, stats.getHits());
+                each.withCache(null);
+                Assert.assertNull(each.cache());
+            }
+        }
+    }
+
+    /**
+     * the cache is kept in its bound of lines or bytes
+     */
+    @Test
+    public void boundTest() {
+        Random random = new Random(20201014L);
+        String[] words = TestSupport.randomWords(2000, 2, 8, random.nextLong());
+        List<String> lines = TestSupport.randomLines(words, 5000, 30, random);
+        long distinct = lines.stream().distinct().count();
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, false).freeze();
+
+        BreakCache cache = BreakCache.ofLines(100);
+        dictionary.withCache(cache);
+        for (String line : lines) {
+            dictionary.breakLine(line);
+        }
+        CacheStats stats = cache.stats();
+        Assert.assertEquals(100, stats.getSize());
+        Assert.assertEquals(100, stats.getWeight());
+        Assert.assertEquals(stats.getLoads() - 100, stats.getEvictions());
+        Assert.assertTrue(stats.getLoads() >= distinct);
+
+        cache = BreakCache.ofBytes(64 * 1024);
+        dictionary.withCache(cache);
+        for (String line : lines) {
+            dictionary.breakLine(line);
+        }
+        stats = cache.stats();
+        LOGGER.info("cache of 64 KB: {}", stats);
+        Assert.assertTrue(stats.getWeight() <= 64 * 1024);
+        Assert.assertTrue(stats.getWeight() > 60 * 1024);
+        Assert.assertEquals(stats.getLoads() - stats.getSize(), stats.getEvictions());
+
+        try {
+            BreakCache.ofLines(0);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * the hot lines are kept while many lines seen once pass through the cache
+     */
+    @Test
+    public void scanTest() {
+        Random random = new Random(20201014L);
+        String[] words = TestSupport.randomWords(2000, 2, 8, random.nextLong());
+        List<String> hot = TestSupport.randomLines(words, 500, 30, random);
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, false).freeze();
+        BreakCache cache = BreakCache.ofLines(1000);
+        AtomicInteger hotLoads = new AtomicInteger();
+
+        int hotRequests = 0;
+        int scanned = 0;
+        for (int round = 0; round < 20; round++) {
+            for (String line : hot) {
+                cache.get(line, (l) -> {
+                    hotLoads.incrementAndGet();
+                    return dictionary.breakLine(l);
+                });
+            }
+            if (round == 1) {
+                hotLoads.set(0);
+            }
+            if (round > 1) {
+                hotRequests += hot.size();
+            }
+            // every line of the scan is seen once
+            for (int i = 0; i < 2000; i++) {
+                cache.get("scan" + scanned++, dictionary::breakLine);
+            }
+        }
+        double hitRate = 1 - (double) hotLoads.get() / hotRequests;
+        LOGGER.info("hit rate of the hot lines {} with {} lines scanned: {}", hitRate, scanned, cache.stats());
+        Assert.assertTrue(hitRate > 0.9);
+    }
+
+    /**
+     * the misses of the same line at the same time are broken once, the exception is thrown to all of them
+     */
+    @Test
+    public void singleFlightTest() throws Exception {
+        int threads = 8;
+        BreakCache cache = BreakCache.ofLines(100);
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY).freeze();
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<BreakResult>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> cache.get("ilikesamsung", (line) -> {
+                    loads.incrementAndGet();
+                    try {
+                        latch.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return dictionary.breakLine(line);
+                })));
+            }
+            waitMisses(cache, threads);
+            latch.countDown();
+            BreakResult first = futures.get(0).get();
+            for (Future<BreakResult> future : futures) {
+                Assert.assertSame(first, future.get());
+            }
+            Assert.assertEquals("i like sam?sung", first.toString());
+            Assert.assertEquals(1, loads.get());
+            CacheStats stats = cache.stats();
+            Assert.assertEquals(1, stats.getLoads());
+            Assert.assertEquals(threads - 1, stats.getCollapsedMisses());
+
+            CountDownLatch failing = new CountDownLatch(1);
+            futures.clear();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> cache.get("broken", (line) -> {
+                    try {
+                        failing.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    throw new IllegalStateException("break failed");
+                })));
+            }
+            waitMisses(cache, threads * 2);
+            failing.countDown();
+            for (Future<BreakResult> future : futures) {
+                try {
+                    future.get();
+                    Assert.fail();
+                } catch (java.util.concurrent.ExecutionException e) {
+                    Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+                }
+            }
+            // the exception is not cached
+            Assert.assertEquals("i like", cache.get("broken", (line) -> dictionary.breakLine("ilike")).toString());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * a hit is a copy of the result in the cache: the caller can append or clear it, and the next hit is the same
+     */
+    @Test
+    public void mutateHitTest() throws Exception {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY).freeze().withCache(BreakCache.ofLines(100));
+        assertHitIsCopy(dictionary::breakLine);
+        Assert.assertEquals(1, dictionary.cache().stats().getLoads());
+
+        Path file = folder.newFile("words.txt").toPath();
+        Files.write(file, "i,like,sam,sung,samsung".getBytes(StandardCharsets.UTF_8));
+        assertHitIsCopy(ReloadableDictionary.load(TrieNodeTypeEnum.ARRAY, file, false)
+                .withCache(BreakCache.ofLines(100))::breakLine);
+    }
+
+    private static void assertHitIsCopy(Function<String, BreakResult> breakLine) {
+        String expected = breakLine.apply("ilikesamsung").toString();
+        breakLine.apply("ilikesamsung").append(' ').appendLineChar('?');
+        Assert.assertEquals(expected, breakLine.apply("ilikesamsung").toString());
+        breakLine.apply("ilikesamsung").clear();
+        BreakResult hit = breakLine.apply("ilikesamsung");
+        Assert.assertEquals(expected, hit.toString());
+        Assert.assertEquals(2, hit.caseCount());
+        Assert.assertNotSame(hit, breakLine.apply("ilikesamsung"));
+    }
+
+    /**
+     * the cache is invalidated when the words of the dictionary are changed
+     */
+    @Test
+    public void invalidateTest() throws Exception {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.MAP, new String[]{"apple", "pie"}, false)
+                .withCache(BreakCache.ofLines(100));
+        Assert.assertNotEquals("banana pie", dictionary.breakLine("bananapie").toString());
+        dictionary.addWord("banana");
+        Assert.assertEquals("banana pie", dictionary.breakLine("bananapie").toString());
+        dictionary.removeWord("banana");
+        Assert.assertNotEquals("banana pie", dictionary.breakLine("bananapie").toString());
+        Assert.assertEquals(3, dictionary.cache().stats().getInvalidations());
+
+        Path file = folder.newFile("words.txt").toPath();
+        Files.write(file, "apple,pie".getBytes(StandardCharsets.UTF_8));
+        ReloadableDictionary reloadable = ReloadableDictionary.load(TrieNodeTypeEnum.ARRAY, file, false)
+                .withCache(BreakCache.ofBytes(1 << 20));
+        Assert.assertNotEquals("banana pie", reloadable.breakLine("bananapie").toString());
+        Assert.assertNotEquals("banana pie", reloadable.breakLine("bananapie").toString());
+        reloadable.addWords("banana");
+        Assert.assertEquals("banana pie", reloadable.breakLine("bananapie").toString());
+        Assert.assertNull(reloadable.breakLine(null));
+    }
+
+    /**
+     * the throughput of the lines of zipf distribution, with and without the cache
+     */
+    @Test
+    public void throughputTest() {
+        Random random = new Random(20201014L);
+        String[] words = TestSupport.randomWords(20_000, 2, 8, random.nextLong());
+        List<String> distinct = TestSupport.randomLines(words, 10_000, 60, random);
+        double[] cumulative = new double[distinct.size()];
+        double sum = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        String[] lines = new String[200_000];
+        for (int i = 0; i < lines.length; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            lines[i] = distinct.get(rank < 0 ? -rank - 1 : rank);
+        }
+
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, false).freeze();
+        for (int round = 0; round < 3; round++) {
+            dictionary.withCache(null);
+            long start = System.nanoTime();
+            long cases = 0;
+            for (String line : lines) {
+                cases += dictionary.breakLine(line).caseCount();
+            }
+            long trie = System.nanoTime() - start;
+
+            BreakCache cache = BreakCache.ofLines(1000);
+            dictionary.withCache(cache);
+            start = System.nanoTime();
+            long cachedCases = 0;
+            for (String line : lines) {
+                cachedCases += dictionary.breakLine(line).caseCount();
+            }
+            long cached = System.nanoTime() - start;
+
+            LOGGER.info("{} zipf lines: trie {} lines/ms, cache of 1000 lines {} lines/ms ({})", lines.length,
+                    lines.length * 1_000_000L / trie, lines.length * 1_000_000L / cached, cache.stats());
+            Assert.assertEquals(cases, cachedCases);
+            Assert.assertTrue(cache.stats().getHitRate() > 0.6);
+        }
+    }
+
+    /**
+     * wait until the num of misses of the cache
+     */
+    private static void waitMisses(BreakCache cache, long misses) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (cache.stats().getMisses() < misses) {
+            Assert.assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.Dictionary;
+import com.quinn.interview.breakword.pipeline.BreakPipeline;
+import com.quinn.interview.breakword.pipeline.PipelineStats;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test for breaking a file into another file by the pipeline
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class BreakPipelineTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BreakPipelineTest.class);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * every line of the output is the result of the line of the input, in the same order
+     */
+    @Test
+    public void sameResultTest() throws IOException {
+        Random random = new Random(20201013L);
+        String[] words = TestSupport.randomWords(300, 1, 6, random.nextLong());
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, true).freeze();
+        List<String> lines = TestSupport.randomLines(words, 50_000, 60, random);
+        lines.add(10, "");
+        lines.add(20, "ilike1mobile");
+        lines.add(30, "ilikesamsung\u4e2d\u6587");
+
+        Path input = folder.newFile().toPath();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < lines.size(); i++) {
+            // windows line separators and the last line without line separator
+            text.append(lines.get(i)).append(i % 3 == 0 ? "\r\n" : i < lines.size() - 1 ? "\n" : "");
+        }
+        Files.write(input, text.toString().getBytes(StandardCharsets.UTF_8));
+
+        // small queues and more workers than batches in a queue, to break the batches out of order
+        BreakPipeline pipeline = new BreakPipeline(dictionary, 4, 2);
+        Path output = folder.newFile().toPath();
+        PipelineStats stats = pipeline.run(input, output);
+        LOGGER.info("{}", stats);
+
+        List<String> results = Files.readAllLines(output, StandardCharsets.UTF_8);
+        Assert.assertEquals(lines.size(), stats.getLines());
+        Assert.assertEquals(lines.size(), results.size());
+        for (int i = 0; i < lines.size(); i++) {
+            Assert.assertEquals(lines.get(i), dictionary.breakLine(lines.get(i)).toString(), results.get(i));
+        }
+        Assert.assertTrue(stats.getMaxReadQueueDepth() <= 2);
+        Assert.assertTrue(stats.getMaxWriteQueueDepth() <= pipeline.maxInFlight());
+
+        // an empty file
+        Path empty = folder.newFile().toPath();
+        Assert.assertEquals(0, pipeline.run(empty, output).getLines());
+        Assert.assertEquals(0, Files.size(output));
+    }
+
+    /**
+     * the input file not exists
+     */
+    @Test(expected = RuntimeException.class)
+    public void fileNotExistsTest() throws IOException {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY).freeze();
+        new BreakPipeline(dictionary).run(folder.getRoot().toPath().resolve("none.txt"), folder.newFile().toPath());
+    }
+
+    /**
+     * break files of 8 MB and 64 MB, the memory used does not grow with the file
+     */
+    @Test
+    public void throughputTest() throws IOException {
+        Random random = new Random(20201014L);
+        String[] words = TestSupport.randomWords(50_000, 3, 8, random.nextLong());
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, false).freeze();
+        BreakPipeline pipeline = new BreakPipeline(dictionary);
+
+        for (int megabytes = 8; megabytes <= 64; megabytes <<= 3) {
+            Path input = folder.newFile().toPath();
+            try (BufferedWriter writer = Files.newBufferedWriter(input, StandardCharsets.UTF_8)) {
+                long chars = 0;
+                while (chars < (long) megabytes << 20) {
+                    for (String line : TestSupport.randomLines(words, 1000, 80, random)) {
+                        writer.write(line);
+                        writer.write('\n');
+                        chars += line.length() + 1;
+                    }
+                }
+            }
+
+            Path output = folder.newFile().toPath();
+            HeapSampler sampler = new HeapSampler();
+            sampler.start();
+            PipelineStats stats = pipeline.run(input, output);
+            sampler.interrupt();
+            LOGGER.info("{} MB: {}, peak heap {} MB", megabytes, stats, sampler.peak >> 20);
+
+            Assert.assertTrue(stats.getMaxReadQueueDepth() <= 16);
+            Assert.assertTrue(stats.getMaxWriteQueueDepth() <= pipeline.maxInFlight());
+            Files.delete(input);
+            Files.delete(output);
+        }
+    }
+
+    /**
+     * sample the heap used every 10 ms
+     */
+    private static final class HeapSampler extends Thread {
+
+        private volatile long peak;
+
+        HeapSampler() {
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            Runtime runtime = Runtime.getRuntime();
+            while (!isInterrupted()) {
+                peak = Math.max(peak, runtime.totalMemory() - runtime.freeMemory());
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.api.ITrieNode;
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.BreakResult;
+import com.quinn.interview.breakword.model.Dictionary;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Test for the cases of BreakResult
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class BreakResultTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BreakResultTest.class);
+
+    /**
+     * the stream of cases is the same as allCases(), sequential or parallel
+     */
+    @Test
+    public void casesTest() {
+        Random random = new Random(20201013L);
+        for (int round = 0; round < 20; round++) {
+            String[] words = TestSupport.randomWords(50 + random.nextInt(200), 1, 6, random.nextLong());
+            Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, true);
+
+            for (String input : TestSupport.randomLines(words, 100, 40, random)) {
+                BreakResult result = dictionary.breakLine(input);
+                String[] allCases = result.allCases();
+                Assert.assertArrayEquals(input, allCases, result.cases().toArray(String[]::new));
+                Assert.assertArrayEquals(input, allCases, result.cases().parallel().toArray(String[]::new));
+            }
+        }
+    }
+
+    /**
+     * the cases of a result with too many possible breaks to be held in memory are generated on demand
+     */
+    @Test
+    public void limitTest() {
+        BreakResult result = possibleBreaks(40);
+        Assert.assertArrayEquals(new String[]{"aaa", "a aa", "aa a", "a a a"},
+                possibleBreaks(2).cases().toArray(String[]::new));
+        Assert.assertEquals(result.toString().replace("?", ""), result.cases().findFirst().get());
+        Assert.assertEquals(1000, result.cases().limit(1000).distinct().count());
+        Assert.assertEquals(1L << 40, result.cases().spliterator().estimateSize());
+
+        // more than a long
+        BreakResult huge = possibleBreaks(100);
+        Assert.assertEquals(Long.MAX_VALUE, huge.cases().spliterator().estimateSize());
+        Assert.assertEquals(100, huge.cases().parallel().limit(100).distinct().count());
+        Assert.assertEquals(huge.cases().limit(10).collect(Collectors.toList()),
+                huge.cases().parallel().limit(10).collect(Collectors.toList()));
+    }
+
+    /**
+     * consume all cases of 2^24 in parallel
+     */
+    @Test
+    public void parallelTest() {
+        BreakResult result = possibleBreaks(24);
+        long start = System.nanoTime();
+        long sequential = result.cases().mapToLong(String::length).sum();
+        long middle = System.nanoTime();
+        long parallel = result.cases().parallel().mapToLong(String::length).sum();
+        long end = System.nanoTime();
+        LOGGER.info("{} cases consumed in {} ms, {} ms in parallel", 1 << 24, (middle - start) / 1_000_000,
+                (end - middle) / 1_000_000);
+
+        // every possible break is broken in half of the cases
+        Assert.assertEquals(25L * (1 << 24) + 24L * (1 << 23), sequential);
+        Assert.assertEquals(sequential, parallel);
+    }
+
+    /**
+     * the count and the cases got by index are the same as allCases()
+     */
+    @Test
+    public void caseAtTest() {
+        Random random = new Random(20201014L);
+        String[] words = TestSupport.randomWords(200, 1, 6, random.nextLong());
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, true);
+        for (String input : TestSupport.randomLines(words, 500, 40, random)) {
+            BreakResult result = dictionary.breakLine(input);
+            String[] allCases = result.allCases();
+            Assert.assertEquals(input, allCases.length, result.caseCount());
+            Assert.assertEquals(input, BigInteger.valueOf(allCases.length), result.exactCaseCount());
+            for (int i = 0; i < allCases.length; i++) {
+                Assert.assertEquals(input, allCases[i], result.caseAt(i));
+                Assert.assertEquals(input, allCases[i], result.caseAt(BigInteger.valueOf(i)));
+            }
+        }
+
+        BreakResult huge = possibleBreaks(100);
+        Assert.assertEquals(Long.MAX_VALUE, huge.caseCount());
+        Assert.assertEquals(BigInteger.ONE.shiftLeft(100), huge.exactCaseCount());
+        Assert.assertEquals(huge.toString().replace('?', ' '),
+                huge.caseAt(huge.exactCaseCount().subtract(BigInteger.ONE)));
+        Assert.assertEquals(huge.cases().skip(5).findFirst().get(), huge.caseAt(5));
+    }
+
+    /**
+     * the index out of the cases
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void caseOutOfBoundsTest() {
+        possibleBreaks(3).caseAt(8);
+    }
+
+    /**
+     * browse the pages of 2^40 cases
+     */
+    @Test
+    public void pagingTest() {
+        BreakResult small = possibleBreaks(5);
+        String[] allCases = small.allCases();
+        Assert.assertArrayEquals(Arrays.copyOfRange(allCases, 10, 20), small.cases(10, 10));
+        Assert.assertArrayEquals(Arrays.copyOfRange(allCases, 25, 32), small.cases(25, 10));
+        Assert.assertEquals(0, small.cases(32, 10).length);
+
+        BreakResult result = possibleBreaks(40);
+        long start = System.nanoTime();
+        int pages = 0;
+        for (long offset = 0; offset < result.caseCount(); offset += result.caseCount() / 1000) {
+            Assert.assertEquals(20, result.cases(offset, 20).length);
+            pages++;
+        }
+        LOGGER.info("{} pages of {} cases got in {} ms", pages, result.caseCount(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * "a?a?a ... a" of the num of possible breaks
+     */
+    private static BreakResult possibleBreaks(int num) {
+        BreakResult result = new BreakResult(num * 2 + 1);
+        result.append('a');
+        for (int i = 0; i < num; i++) {
+            result.append(ITrieNode.SPLIT_OF_POSSIBLE_BREAK).append('a');
+        }
+        return result;
+    }
+
+}
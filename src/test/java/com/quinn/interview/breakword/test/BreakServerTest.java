@@ -0,0 +1,243 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.Dictionary;
+import com.quinn.interview.breakword.server.BreakServer;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Test for the HTTP server to break lines
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class BreakServerTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BreakServerTest.class);
+
+    /**
+     * num of lines of a request of the load test
+     */
+    private static final int LINES_PER_REQUEST = 16;
+
+    /**
+     * a line, NDJSON lines, and the bad requests, with micro batching or not
+     */
+    @Test
+    public void breakTest() throws IOException {
+        breakTest(false);
+        breakTest(true);
+    }
+
+    private static void breakTest(boolean microBatching) throws IOException {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY);
+        BreakServer server = BreakServer.start(dictionary, 0, microBatching);
+        try {
+            String url = "http://localhost:" + server.port();
+            Assert.assertEquals(dictionary.breakLine("ilikesamsungmobile").toString(),
+                    post(url + BreakServer.BREAK_PATH, "text/plain", "ilikesamsungmobile\n"));
+            Assert.assertEquals("", post(url + BreakServer.BREAK_PATH, "text/plain", ""));
+            Assert.assertEquals("\"" + dictionary.breakLine("ilikeicecreamandmango") + "\"\n\""
+                            + dictionary.breakLine("ilike\"").toString().replace("\"", "\\\"") + "\"\n\"\"\n",
+                    post(url + BreakServer.BREAK_PATH, BreakServer.NDJSON,
+                            "\"ilikeicecreamandmango\"\n\"ilike\\\"\"\n\n\"\"\n"));
+
+            Assert.assertEquals(400, status(url + BreakServer.BREAK_PATH, "POST", BreakServer.NDJSON, "ilike"));
+            Assert.assertEquals(405, status(url + BreakServer.BREAK_PATH, "GET", null, null));
+
+            String stats = post(url + BreakServer.STATS_PATH, "text/plain", "");
+            Assert.assertTrue(stats, stats.startsWith("{\"requests\":5,\"lines\":5,"));
+            Assert.assertEquals(stats, microBatching, !stats.contains("\"batchers\":0,"));
+            Assert.assertEquals(5, server.latencies().count());
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * a body or NDJSON lines over the limits are refused, and the server still handles the next requests
+     */
+    @Test
+    public void limitTest() throws IOException {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY);
+        BreakServer server = BreakServer.start(dictionary, 0);
+        try {
+            String url = "http://localhost:" + server.port() + BreakServer.BREAK_PATH;
+            char[] body = new char[BreakServer.MAX_BODY_BYTES + 1];
+            Arrays.fill(body, 'a');
+            Assert.assertEquals(413, status(url, "POST", "text/plain", new String(body)));
+
+            StringBuilder lines = new StringBuilder();
+            for (int i = 0; i < BreakServer.MAX_LINES; i++) {
+                lines.append("\"ilike\"\n");
+            }
+            String response = post(url, BreakServer.NDJSON, lines.toString());
+            Assert.assertEquals(BreakServer.MAX_LINES, response.split("\n").length);
+            Assert.assertEquals(413, status(url, "POST", BreakServer.NDJSON, lines.append("\"ilike\"\n").toString()));
+
+            Assert.assertEquals(dictionary.breakLine("ilikesamsung").toString(),
+                    post(url, "text/plain", "ilikesamsung"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * the requests are handled by virtual threads on Java 21+
+     */
+    @Test
+    public void virtualThreadTest() throws Exception {
+        String version = System.getProperty("java.specification.version");
+        int feature = Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version);
+        Assume.assumeTrue("virtual threads are not supported by Java " + version, feature >= 21);
+
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY);
+        BreakServer server = BreakServer.start(dictionary, 0);
+        try {
+            Method isVirtual = Thread.class.getMethod("isVirtual");
+            Assert.assertEquals(Boolean.TRUE,
+                    server.executor().submit(() -> isVirtual.invoke(Thread.currentThread())).get());
+            Assert.assertEquals(dictionary.breakLine("ilikesamsung").toString(),
+                    post("http://localhost:" + server.port() + BreakServer.BREAK_PATH, "text/plain", "ilikesamsung"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * the throughput of 32 clients, with micro batching or not: every request is NDJSON of a few lines, so the time
+     * is mostly breaking the lines, and the batches are broken on all cores like the requests of the request threads
+     * <p>
+     * micro batching is not asserted to be faster: it was about 0.9 of the throughput of the request threads,
+     * which is why it is opt-in, the results of both are checked by load()
+     */
+    @Test
+    public void loadTest() throws Exception {
+        Random random = new Random(20201014L);
+        String[] words = TestSupport.randomWords(50_000, 3, 8, random.nextLong());
+        Dictionary frozen = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, false).freeze();
+        List<String> lines = TestSupport.randomLines(words, 1000, 200, random);
+
+        BreakServer naive = BreakServer.start(frozen, 0);
+        BreakServer batching = BreakServer.start(frozen, 0, true);
+        try {
+            long[] throughputs = new long[2];
+            // the first round warms up
+            for (int round = 0; round < 2; round++) {
+                for (int i = 0; i < 2; i++) {
+                    BreakServer server = i == 0 ? naive : batching;
+                    String url = "http://localhost:" + server.port();
+                    long start = System.nanoTime();
+                    int requests = load(url + BreakServer.BREAK_PATH, lines, 32, 50);
+                    long time = System.nanoTime() - start;
+                    throughputs[i] = requests * 1_000_000_000L / time;
+                    LOGGER.info("{}: {} requests of {} lines in {} ms, {} requests/s, p50 {} us, p99 {} us, stats {}",
+                            i == 0 ? "thread per request" : "micro batching", requests, LINES_PER_REQUEST,
+                            time / 1_000_000, throughputs[i], server.latencies().percentile(50),
+                            server.latencies().percentile(99), post(url + BreakServer.STATS_PATH, "text/plain", ""));
+                }
+            }
+            LOGGER.info("micro batching: {} of the throughput of the request threads by {} processors",
+                    String.format("%.2f", (double) throughputs[1] / throughputs[0]),
+                    Runtime.getRuntime().availableProcessors());
+        } finally {
+            naive.stop();
+            batching.stop();
+        }
+    }
+
+    /**
+     * post the lines by the clients as NDJSON of LINES_PER_REQUEST lines, check the results
+     *
+     * @return num of requests
+     */
+    private static int load(String url, List<String> lines, int clients, int requestsPerClient) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                futures.add(executor.submit(() -> {
+                    int errors = 0;
+                    for (int i = 0; i < requestsPerClient; i++) {
+                        StringBuilder body = new StringBuilder();
+                        for (int j = 0; j < LINES_PER_REQUEST; j++) {
+                            String line = lines.get(((client * requestsPerClient + i) * LINES_PER_REQUEST + j)
+                                    % lines.size());
+                            body.append('"').append(line).append("\"\n");
+                        }
+                        String response = post(url, BreakServer.NDJSON, body.toString());
+                        if (response.split("\n").length != LINES_PER_REQUEST) {
+                            errors++;
+                        }
+                    }
+                    return errors;
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                Assert.assertEquals(0, future.get().intValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return clients * requestsPerClient;
+    }
+
+    private static String post(String url, String contentType, String body) throws IOException {
+        HttpURLConnection connection = open(url, "POST", contentType, body);
+        Assert.assertEquals(200, connection.getResponseCode());
+        try (InputStream input = connection.getInputStream()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+                bytes.write(buffer, 0, read);
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static int status(String url, String method, String contentType, String body) throws IOException {
+        HttpURLConnection connection = open(url, method, contentType, body);
+        int status = connection.getResponseCode();
+        connection.disconnect();
+        return status;
+    }
+
+    private static HttpURLConnection open(String url, String method, String contentType, String body)
+            throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", contentType);
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            // a streamed request is never sent again silently, so the stats count every request once
+            connection.setFixedLengthStreamingMode(bytes.length);
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(bytes);
+            }
+        }
+        return connection;
+    }
+
+}
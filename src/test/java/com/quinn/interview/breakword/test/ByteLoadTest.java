@@ -0,0 +1,160 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.Dictionary;
+import com.quinn.interview.util.BaseUtil;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test for reading the dictionary file at byte level
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class ByteLoadTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ByteLoadTest.class);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * the dictionary is the same as the dictionary of the words read by lines and split
+     */
+    @Test
+    public void sameAsLinesTest() throws IOException {
+        Random random = new Random(20201014L);
+        StringBuilder text = new StringBuilder();
+        String[] words = TestSupport.randomWords(20_000, 1, 10, random.nextLong());
+        for (int i = 0; i < words.length; i++) {
+            text.append(words[i]);
+            switch (random.nextInt(12)) {
+                case 0:
+                    text.append(':').append(random.nextInt(10_000));
+                    break;
+                case 1:
+                    text.append(",,");
+                    break;
+                case 2:
+                    text.append("\r\n");
+                    break;
+                case 3:
+                    text.append("\n\n");
+                    break;
+                default:
+                    break;
+            }
+            text.append(i % 20 == 0 ? "\n" : ",");
+        }
+        // the words which are not letters only, the frequencies which are not, and a word larger than the buffer
+        text.append("\nman go:10,Mango,x-y:3,a:b,:5,c:,d:99999999999999999999\n,x,,\n");
+        text.append("e:9223372036854775807,f:9223372036854775808\n");
+        for (int i = 0; i < 100_000; i++) {
+            text.append((char) ('a' + random.nextInt(26)));
+        }
+        Path file = folder.newFile("words.txt").toPath();
+        Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+
+        String[] lineWords = readByLines(file);
+        List<String> lines = TestSupport.randomLines(words, 300, 40, random);
+        for (TrieNodeTypeEnum type : TrieNodeTypeEnum.values()) {
+            Dictionary expected = Dictionary.create(type, lineWords, true);
+            Dictionary actual = Dictionary.create(type, file.toString(), true);
+            Assert.assertEquals(type.toString(), expected.wordCount(), actual.wordCount());
+            for (String word : lineWords) {
+                Assert.assertTrue(type + " " + word, actual.contains(word));
+            }
+            for (String line : lines) {
+                Assert.assertEquals(type + " " + line, expected.breakLine(line).toString(),
+                        actual.breakLine(line).toString());
+            }
+            Dictionary frozen = actual.freeze();
+            Assert.assertEquals(10, frozen.frequency("man go"));
+            Assert.assertEquals(3, frozen.frequency("x-y"));
+            Assert.assertEquals(1, frozen.frequency("a:b"));
+            Assert.assertEquals(Long.MAX_VALUE, frozen.frequency("e"));
+            Assert.assertEquals(1, frozen.frequency("f:9223372036854775808"));
+        }
+    }
+
+    /**
+     * the words which are not ASCII are decoded as UTF-8
+     */
+    @Test
+    public void utf8Test() throws IOException {
+        Path file = folder.newFile("utf8.txt").toPath();
+        Files.write(file, "caf\u00e9:3,\u00e9t\u00e9\nna\u00efve".getBytes(StandardCharsets.UTF_8));
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.MAP, file.toString(), false);
+        Assert.assertEquals(3, dictionary.wordCount());
+        Assert.assertTrue(dictionary.contains("\u00e9t\u00e9"));
+        Assert.assertTrue(dictionary.contains("na\u00efve"));
+        Assert.assertEquals(3, dictionary.freeze().frequency("caf\u00e9"));
+    }
+
+    /**
+     * the time to load a dictionary file at byte level, and by BaseUtil.readLargeFile()
+     */
+    @Test
+    public void loadTimeTest() throws IOException {
+        String[] words = TestSupport.randomWords(500_000, 3, 12, 20201014L);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words.length; i++) {
+            text.append(words[i]).append(i % 100 == 99 ? "\n" : ",");
+        }
+        Path file = folder.newFile("large.txt").toPath();
+        Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+
+        for (TrieNodeTypeEnum type : new TrieNodeTypeEnum[]{TrieNodeTypeEnum.ARRAY, TrieNodeTypeEnum.MAP}) {
+            long lineMillis = Long.MAX_VALUE;
+            long byteMillis = Long.MAX_VALUE;
+            for (int round = 0; round < 3; round++) {
+                // the garbage of the last dictionary is not collected in the time of the next one
+                System.gc();
+                long start = System.nanoTime();
+                int lineWords = Dictionary.create(type, readByLines(file), false).wordCount();
+                lineMillis = Math.min(lineMillis, (System.nanoTime() - start) / 1_000_000);
+                System.gc();
+                start = System.nanoTime();
+                int byteWords = Dictionary.create(type, file.toString(), false).wordCount();
+                byteMillis = Math.min(byteMillis, (System.nanoTime() - start) / 1_000_000);
+                Assert.assertEquals(lineWords, byteWords);
+            }
+            LOGGER.info("{} of {} words ({} KB): {} ms by lines, {} ms by bytes", type, words.length,
+                    Files.size(file) >> 10, lineMillis, byteMillis);
+        }
+    }
+
+    /**
+     * the words read by BaseUtil.readLargeFile() and split, the frequencies are removed
+     */
+    private static String[] readByLines(Path file) {
+        List<String> words = new ArrayList<>();
+        BaseUtil.readLargeFile(file.toString(), (line) -> {
+            if (BaseUtil.isEmpty(line)) {
+                return;
+            }
+            for (String word : line.split(Dictionary.WORD_SPLIT)) {
+                int split = word.lastIndexOf(':');
+                boolean frequency = word.matches(".+:[0-9]+")
+                        && new BigInteger(word.substring(split + 1)).bitLength() < Long.SIZE;
+                words.add(frequency ? word.substring(0, split) : word);
+            }
+        });
+        return words.toArray(new String[0]);
+    }
+
+}
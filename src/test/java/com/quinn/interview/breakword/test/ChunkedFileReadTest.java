@@ -0,0 +1,183 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.api.ByteFilePartHandler;
+import com.quinn.interview.util.BaseUtil;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test for reading a large file chunk by chunk in parallel
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class ChunkedFileReadTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChunkedFileReadTest.class);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * the lines merged in order are the same as the lines read by the Scanner, however large the chunks are
+     */
+    @Test
+    public void linesTest() throws IOException {
+        Random random = new Random(20201014L);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            int length = random.nextInt(10) == 0 ? 300 : random.nextInt(20);
+            for (int j = 0; j < length; j++) {
+                text.append(random.nextInt(50) == 0 ? '\u00e9' : (char) ('a' + random.nextInt(26)));
+            }
+            text.append(random.nextInt(5) == 0 ? "\r\n" : "\n");
+        }
+        text.append("the last line without line end");
+        Path file = folder.newFile("lines.txt").toPath();
+        Files.write(file, text.toString().getBytes(StandardCharsets.UTF_8));
+
+        List<String> expected = new ArrayList<>();
+        BaseUtil.readLargeFile(file.toString(), expected::add);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int chunkBytes : new int[]{1, 7, 64, 1000, 1 << 20}) {
+                List<String> actual = new ArrayList<>();
+                List<Integer> chunks = new ArrayList<>();
+                BaseUtil.readLargeFile(file, new LineCollector(), pool, (chunk) -> {
+                    chunks.add(chunk.index);
+                    actual.addAll(chunk.lines);
+                }, chunkBytes);
+                Assert.assertEquals("chunk " + chunkBytes, expected, actual);
+                for (int i = 0; i < chunks.size(); i++) {
+                    Assert.assertEquals(i, (int) chunks.get(i));
+                }
+                if (chunkBytes == 1000) {
+                    Assert.assertTrue(chunks.size() > 10);
+                }
+            }
+
+            Path empty = folder.newFile("empty.txt").toPath();
+            List<String> none = new ArrayList<>();
+            BaseUtil.readLargeFile(empty, new LineCollector(), pool, (chunk) -> none.addAll(chunk.lines));
+            Assert.assertTrue(none.isEmpty());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * a file which can not be read
+     */
+    @Test(expected = RuntimeException.class)
+    public void missingFileTest() {
+        BaseUtil.readLargeFile(folder.getRoot().toPath().resolve("missing.txt"), new LineCollector());
+    }
+
+    /**
+     * the throughput of the Scanner, and of the chunks with and without decoding the lines
+     */
+    @Test
+    public void throughputTest() throws IOException {
+        Path file = folder.newFile("large.txt").toPath();
+        Random random = new Random(20201014L);
+        byte[] line = new byte[81];
+        try (OutputStream output = Files.newOutputStream(file)) {
+            for (int i = 0; i < 400_000; i++) {
+                for (int j = 0; j < line.length - 1; j++) {
+                    line[j] = (byte) ('a' + random.nextInt(26));
+                }
+                line[line.length - 1] = '\n';
+                output.write(line);
+            }
+        }
+        double megabytes = Files.size(file) / 1048576.0;
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            AtomicLong chars = new AtomicLong();
+            BaseUtil.readLargeFile(file.toString(), (string) -> chars.addAndGet(string.length()));
+            double scanner = megabytes * 1e9 / (System.nanoTime() - start);
+
+            start = System.nanoTime();
+            AtomicLong bytes = new AtomicLong();
+            BaseUtil.readLargeFile(file, new ByteFilePartHandler<long[]>() {
+                @Override
+                public long[] startChunk(int index, long offset) {
+                    return new long[1];
+                }
+
+                @Override
+                public void handle(long[] chunk, ByteBuffer buffer, int from, int to) {
+                    chunk[0] += to - from;
+                }
+
+                @Override
+                public void endChunk(long[] chunk) {
+                    bytes.addAndGet(chunk[0]);
+                }
+            });
+            double raw = megabytes * 1e9 / (System.nanoTime() - start);
+
+            start = System.nanoTime();
+            AtomicLong decoded = new AtomicLong();
+            BaseUtil.readLargeFile(file, new LineCollector(), ForkJoinPool.commonPool(),
+                    (chunk) -> decoded.addAndGet(chunk.chars));
+            double decoding = megabytes * 1e9 / (System.nanoTime() - start);
+
+            LOGGER.info("{} MB: Scanner {} MB/s, chunks {} MB/s, chunks decoded {} MB/s ({} threads)",
+                    (int) megabytes, (int) scanner, (int) raw, (int) decoding, ForkJoinPool.getCommonPoolParallelism());
+            Assert.assertEquals(chars.get(), bytes.get());
+            Assert.assertEquals(chars.get(), decoded.get());
+        }
+    }
+
+    /**
+     * collect the lines of a chunk as Strings
+     */
+    private static final class LineCollector implements ByteFilePartHandler<LineCollector.Chunk> {
+
+        @Override
+        public Chunk startChunk(int index, long offset) {
+            return new Chunk(index);
+        }
+
+        @Override
+        public void handle(Chunk chunk, ByteBuffer bytes, int from, int to) {
+            String line = BaseUtil.decode(bytes, from, to);
+            chunk.lines.add(line);
+            chunk.chars += line.length();
+        }
+
+        private static final class Chunk {
+
+            private final int index;
+
+            private final List<String> lines = new ArrayList<>();
+
+            private long chars;
+
+            Chunk(int index) {
+                this.index = index;
+            }
+
+        }
+
+    }
+
+}
@@ -0,0 +1,187 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.BreakResult;
+import com.quinn.interview.breakword.model.CompactBreakResult;
+import com.quinn.interview.breakword.model.Dictionary;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test for the compact result: the breaks as bitsets over the line, and the words as views of the line
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class CompactBreakResultTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompactBreakResultTest.class);
+
+    /**
+     * the compact result converts to the same result, with the same cases and the same words
+     */
+    @Test
+    public void sameTest() {
+        Random random = new Random(20201014L);
+        String[] words = TestSupport.randomWords(500, 1, 6, random.nextLong());
+        List<String> lines = TestSupport.randomLines(words, 300, 40, random);
+        for (TrieNodeTypeEnum type : TrieNodeTypeEnum.values()) {
+            Dictionary dictionary = Dictionary.create(type, words, true);
+            for (Dictionary each : new Dictionary[]{dictionary, dictionary.freeze()}) {
+                for (String line : lines) {
+                    BreakResult result = each.breakLine(line);
+                    CompactBreakResult compact = each.breakLineCompact(line);
+                    Assert.assertEquals(line, result.toString(), compact.toString());
+                    Assert.assertEquals(line, result.caseCount(), compact.caseCount());
+                    Assert.assertSame(line, compact.line());
+                    if (result.caseCount() <= 256) {
+                        Assert.assertArrayEquals(line, result.allCases(), compact.allCases());
+                    }
+
+                    // the words of a case are the case without the error marks
+                    long cases = Math.min(result.caseCount(), 64);
+                    for (long i = 0; i < cases; i++) {
+                        Assert.assertEquals(line, result.caseAt(i).replace("*", ""), join(compact.words(i)));
+                    }
+                    Assert.assertEquals(line, result.toString().replace("*", "").replace('?', ' '),
+                            join(compact.words()));
+                }
+            }
+        }
+    }
+
+    /**
+     * the chars of the line which are the same as the marks, and the chars not in the alphabet
+     */
+    @Test
+    public void marksTest() {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY);
+        String[] lines = {"ilike,samsung", "ilike samsung!", "i like  samsung", "1ilike", "ilike9", "?ilike*",
+                "ilike?*samsung", "* ?", "x", " "};
+        for (String line : lines) {
+            BreakResult result = dictionary.breakLine(line);
+            CompactBreakResult compact = CompactBreakResult.of(line, result);
+            Assert.assertEquals(line, result.toString(), compact.toBreakResult().toString());
+            Assert.assertArrayEquals(line, result.allCases(), compact.allCases());
+        }
+
+        CompactBreakResult compact = dictionary.breakLineCompact("ilikesamsung");
+        Assert.assertEquals("i like sam?sung", compact.toString());
+        Assert.assertTrue(compact.isBreak(0));
+        Assert.assertFalse(compact.isPossibleBreak(0));
+        Assert.assertTrue(compact.isPossibleBreak(7));
+        Assert.assertFalse(compact.isError(11));
+        Assert.assertEquals(0, compact.nextBreak(0));
+        Assert.assertEquals(4, compact.nextBreak(1));
+        Assert.assertEquals(7, compact.nextBreak(5));
+        Assert.assertEquals(-1, compact.nextBreak(8));
+        Assert.assertEquals(1, compact.possibleBreakCount());
+        Assert.assertEquals(Arrays.asList("i", "like", "samsung"), Arrays.asList(compact.words(0).stream()
+                .map(CharSequence::toString).toArray()));
+        Assert.assertEquals("i like sam sung", join(compact.words(1)));
+        Assert.assertTrue(dictionary.breakLineCompact("emailz").isError(5));
+    }
+
+    /**
+     * the words of the cases of a line of more possible breaks than a long index has,
+     * the same as BreakResult.caseAt(BigInteger)
+     */
+    @Test
+    public void manyPossibleBreaksTest() {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            builder.append("ilikesamsung");
+        }
+        String line = builder.toString();
+        BreakResult result = dictionary.breakLine(line);
+        CompactBreakResult compact = dictionary.breakLineCompact(line);
+        Assert.assertEquals(100, compact.possibleBreakCount());
+        Assert.assertEquals(result.exactCaseCount(), compact.exactCaseCount());
+
+        Random random = new Random(20201015L);
+        for (int i = 0; i < 20; i++) {
+            BigInteger index = new BigInteger(100, random);
+            Assert.assertEquals(index.toString(), result.caseAt(index).replace("*", ""), join(compact.words(index)));
+        }
+        // the breaks after the 63rd of the last case
+        BigInteger last = compact.exactCaseCount().subtract(BigInteger.ONE);
+        Assert.assertEquals(result.toString().replace('?', ' '), join(compact.words(last)));
+        // a long index is the same as the BigInteger of it
+        for (long index : new long[]{0, 1, Long.MAX_VALUE - 1, 1L << 62, (1L << 62) - 1}) {
+            Assert.assertEquals(result.caseAt(index), join(compact.words(index)));
+            Assert.assertEquals(join(compact.words(BigInteger.valueOf(index))), join(compact.words(index)));
+        }
+    }
+
+    /**
+     * an index out of the cases
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void outOfCasesTest() {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY);
+        CompactBreakResult compact = dictionary.breakLineCompact("ilikesamsung");
+        compact.words(BigInteger.valueOf(2));
+    }
+
+    /**
+     * the result of another line
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void otherLineTest() {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY);
+        CompactBreakResult.of("ilikesamsunk", dictionary.breakLine("ilikesamsung"));
+    }
+
+    /**
+     * the words are views of the line, not copies
+     */
+    @Test
+    public void viewTest() {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY);
+        StringBuilder line = new StringBuilder("ilikesamsung");
+        List<CharSequence> words = dictionary.breakLineCompact(line).words();
+        Assert.assertEquals("like", words.get(1).toString());
+        line.setCharAt(1, 'L');
+        Assert.assertEquals("Like", words.get(1).toString());
+    }
+
+    /**
+     * the memory of the marks of a long line: the bytes allocated for the result and the compact result
+     */
+    @Test
+    public void memoryTest() {
+        Random random = new Random(20201014L);
+        String[] words = TestSupport.randomWords(2000, 2, 8, random.nextLong());
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < 1 << 20) {
+            builder.append(words[random.nextInt(words.length)]);
+        }
+        String line = builder.toString();
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, false).freeze();
+
+        long before = TestSupport.allocatedBytes();
+        BreakResult result = dictionary.breakLine(line);
+        long resultBytes = TestSupport.allocatedBytes() - before;
+        before = TestSupport.allocatedBytes();
+        CompactBreakResult compact = CompactBreakResult.of(line, result);
+        long compactBytes = TestSupport.allocatedBytes() - before;
+
+        LOGGER.info("marks of a line of {} chars: result {} KB, compact {} KB ({} words)", line.length(),
+                resultBytes >> 10, compactBytes >> 10, compact.words().size());
+        Assert.assertEquals(result.toString(), compact.toString());
+        Assert.assertTrue(compactBytes * 4 < resultBytes);
+    }
+
+    private static String join(List<CharSequence> words) {
+        return String.join(" ", words);
+    }
+
+}
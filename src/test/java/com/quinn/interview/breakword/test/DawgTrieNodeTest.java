@@ -0,0 +1,164 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.BreakResult;
+import com.quinn.interview.breakword.model.Dictionary;
+import com.quinn.interview.util.BaseUtil;
+import com.quinn.interview.util.PrintUtil;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Test for the dictionary with DawgTrieNode
+ * the result must be the same as the dictionary with ArrayTrieNode, with much fewer nodes
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class DawgTrieNodeTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DawgTrieNodeTest.class);
+
+    private static final String[] CUSTOM_DIC = new String[]{"i", "like", "sam", "sung", "mobile", "icecream",
+            "man go", "mango", "and"};
+
+    private static final String[] SUFFIXES = new String[]{"", "s", "ed", "er", "ers", "ing", "ings", "ly", "ness",
+            "less", "able", "ation", "ations"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * test cases of CustomDictionaryTest
+     */
+    @Test
+    public void customDictionaryTest() {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.DAWG, CUSTOM_DIC, true);
+
+        String input = "ilikeicecreamandmango";
+        String[] expected = new String[]{"i like icecream and man go", "i like icecream and mango",
+                "i like ice cream and man go", "i like ice cream and mango"};
+
+        BreakResult result = dictionary.breakLine(input);
+        String[] allCases = result.allCases();
+        PrintUtil.print(allCases, "Result of DawgTrieNodeTest.customDictionaryTest is:");
+
+        Assert.assertTrue(BaseUtil.arrayHasSameElement(expected, allCases));
+    }
+
+    /**
+     * test that the word added after the first break is found
+     */
+    @Test
+    public void addWordAfterBreakTest() {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.DAWG);
+        Assert.assertArrayEquals(new String[]{"i like sun*"}, dictionary.breakLine("ilikesun").allCases());
+
+        dictionary.addWord("sun");
+        Assert.assertArrayEquals(new String[]{"i like sun"}, dictionary.breakLine("ilikesun").allCases());
+    }
+
+    /**
+     * the words are added and removed (in any case) after compiling, between the breaks and before them
+     */
+    @Test
+    public void changeAfterCompileTest() {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.DAWG, CUSTOM_DIC, false);
+        Assert.assertEquals("i like man?go", dictionary.breakLine("ilikemango").toString());
+
+        Assert.assertTrue(dictionary.removeWord("MANGO"));
+        Assert.assertFalse(dictionary.removeWord("mango"));
+        Assert.assertEquals("i like man go", dictionary.breakLine("ilikemango").toString());
+
+        dictionary.addWord("Mango");
+        dictionary.addWord("sun");
+        Assert.assertTrue(dictionary.removeWord("sun"));
+        dictionary.addWord("Sun");
+        Assert.assertTrue(dictionary.removeWord("like"));
+        Dictionary expected = Dictionary.create(TrieNodeTypeEnum.ARRAY, new String[]{"i", "sam", "sung", "mobile",
+                "icecream", "man go", "mango", "and", "sun"}, false);
+        Assert.assertEquals(expected.breakLine("ilikemangosun").toString(),
+                dictionary.breakLine("ilikemangosun").toString());
+
+        dictionary.addWord("like");
+        dictionary.compact();
+        expected.addWord("like");
+        Assert.assertEquals(expected.breakLine("ilikemangosun").toString(),
+                dictionary.breakLine("ilikemangosun").toString());
+    }
+
+    /**
+     * compare with ArrayTrieNode by random dictionaries and random lines made up of their words,
+     * also the frozen dictionary and the image of it
+     */
+    @Test
+    public void sameAsArrayTest() throws IOException {
+        Random random = new Random(20201013L);
+        for (int round = 0; round < 20; round++) {
+            String[] words = TestSupport.randomWords(50 + random.nextInt(200), 1, 6, random.nextLong());
+            Dictionary array = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, true);
+            Dictionary dawg = Dictionary.create(TrieNodeTypeEnum.DAWG, words, true);
+            Dictionary frozen = dawg.freeze();
+            Path image = folder.newFile("random" + round + ".qdic").toPath();
+            dawg.save(image);
+            Dictionary opened = Dictionary.open(image);
+
+            for (String input : TestSupport.randomLines(words, 200, 40, random)) {
+                String[] expected = array.breakLine(input).allCases();
+                Assert.assertArrayEquals(input, expected, dawg.breakLine(input).allCases());
+                Assert.assertArrayEquals(input, expected, frozen.breakLine(input).allCases());
+                Assert.assertArrayEquals(input, expected, opened.breakLine(input).allCases());
+            }
+        }
+    }
+
+    /**
+     * compare the nodes of the trie and the DAWG of words sharing suffixes (read from the header of the image)
+     */
+    @Test
+    public void nodeCountTest() throws IOException {
+        String[] stems = TestSupport.randomWords(20_000, 3, 8, 20201014L);
+        String[] words = new String[stems.length * SUFFIXES.length];
+        for (int i = 0; i < stems.length; i++) {
+            for (int j = 0; j < SUFFIXES.length; j++) {
+                words[i * SUFFIXES.length + j] = stems[i] + SUFFIXES[j];
+            }
+        }
+
+        Path trieImage = folder.newFile("trie.qdic").toPath();
+        Dictionary.create(TrieNodeTypeEnum.ARRAY, words, false).save(trieImage);
+        long start = System.nanoTime();
+        Dictionary dawg = Dictionary.create(TrieNodeTypeEnum.DAWG, words, false);
+        long built = System.nanoTime();
+        Path dawgImage = folder.newFile("dawg.qdic").toPath();
+        dawg.save(dawgImage);
+
+        int trieNodes = nodesOf(trieImage);
+        int dawgNodes = nodesOf(dawgImage);
+        LOGGER.info("{} words: trie of {} nodes ({} KB), DAWG of {} nodes ({} KB) built in {} ms", words.length,
+                trieNodes, Files.size(trieImage) >> 10, dawgNodes, Files.size(dawgImage) >> 10,
+                (built - start) / 1_000_000);
+
+        Assert.assertTrue(dawgNodes * 3 < trieNodes);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(Arrays.asList(dawg.breakLine(words[i]).allCases()).contains(words[i]));
+        }
+    }
+
+    private static int nodesOf(Path image) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(image)).order(ByteOrder.LITTLE_ENDIAN).getInt(8);
+    }
+
+}
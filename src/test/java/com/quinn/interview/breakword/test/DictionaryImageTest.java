@@ -0,0 +1,138 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.BreakResult;
+import com.quinn.interview.breakword.model.Dictionary;
+import com.quinn.interview.util.BaseUtil;
+import com.quinn.interview.util.PrintUtil;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Test for the binary image of dictionary
+ * the dictionary opened from the image must break lines the same as the dictionary saved
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class DictionaryImageTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DictionaryImageTest.class);
+
+    private static final String[] CUSTOM_DIC = new String[]{"i", "like", "sam", "sung", "mobile", "icecream",
+            "man go", "mango", "and"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * test cases of CustomDictionaryTest
+     */
+    @Test
+    public void saveAndOpenTest() throws IOException {
+        Path image = folder.newFile("custom.qdic").toPath();
+        Dictionary.create(TrieNodeTypeEnum.ARRAY, CUSTOM_DIC, true).save(image);
+        Dictionary dictionary = Dictionary.open(image);
+        Assert.assertTrue(dictionary.isFrozen());
+
+        String input = "ilikeicecreamandmango";
+        String[] expected = new String[]{"i like icecream and man go", "i like icecream and mango",
+                "i like ice cream and man go", "i like ice cream and mango"};
+
+        BreakResult result = dictionary.breakLine(input);
+        String[] allCases = result.allCases();
+        PrintUtil.print(allCases, "Result of DictionaryImageTest.saveAndOpenTest is:");
+
+        Assert.assertTrue(BaseUtil.arrayHasSameElement(expected, allCases));
+    }
+
+    /**
+     * the opened dictionary can not add any new word
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void addWordTest() throws IOException {
+        Path image = folder.newFile("std.qdic").toPath();
+        Dictionary.create(TrieNodeTypeEnum.MAP).freeze().save(image);
+        Dictionary.open(image).addWord("sun");
+    }
+
+    /**
+     * the file which is not an image can not be opened
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void notImageTest() throws IOException {
+        Path image = folder.newFile("std.dict").toPath();
+        Files.write(image, "i,like,sam,sung,samsung,mobile,ice,cream,mango,and".getBytes("UTF-8"));
+        Dictionary.open(image);
+    }
+
+    /**
+     * compare with the dictionary saved by random dictionaries and random lines,
+     * the opened dictionary can also be saved again
+     */
+    @Test
+    public void sameAsSavedTest() throws IOException {
+        Random random = new Random(20201013L);
+        for (int round = 0; round < 10; round++) {
+            String[] words = TestSupport.randomWords(50 + random.nextInt(200), 1, 6, random.nextLong());
+            Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.MAP, words, true);
+            Path image = folder.newFile("random" + round + ".qdic").toPath();
+            dictionary.save(image);
+            Dictionary opened = Dictionary.open(image);
+            Path copy = folder.newFile("copy" + round + ".qdic").toPath();
+            opened.save(copy);
+            Dictionary copied = Dictionary.open(copy);
+
+            for (String input : TestSupport.randomLines(words, 200, 40, random)) {
+                String[] expected = dictionary.breakLine(input).allCases();
+                Assert.assertArrayEquals(input, expected, opened.breakLine(input).allCases());
+                Assert.assertArrayEquals(input, expected, copied.breakLine(input).allCases());
+            }
+        }
+    }
+
+    /**
+     * compare the time to load a large dictionary from text and to open its image
+     */
+    @Test
+    public void startupTest() throws IOException {
+        String[] words = TestSupport.randomWords(1_000_000, 3, 12, 20201014L);
+        File text = folder.newFile("large.dict");
+        try (PrintWriter writer = new PrintWriter(text, "UTF-8")) {
+            for (int i = 0; i < words.length; i++) {
+                writer.print(words[i]);
+                writer.print(i % 16 == 15 ? "\n" : Dictionary.WORD_SPLIT);
+            }
+        }
+
+        long start = System.nanoTime();
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, text.getPath(), false);
+        long loaded = System.nanoTime();
+
+        Path image = folder.newFile("large.qdic").toPath();
+        dictionary.save(image);
+
+        long openStart = System.nanoTime();
+        Dictionary opened = Dictionary.open(image);
+        long openEnd = System.nanoTime();
+        LOGGER.info("{} words: loaded from text in {} ms, image of {} KB opened in {} us", words.length,
+                (loaded - start) / 1_000_000, Files.size(image) >> 10, (openEnd - openStart) / 1_000);
+
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(Arrays.asList(opened.breakLine(words[i]).allCases()).contains(words[i]));
+        }
+    }
+
+}
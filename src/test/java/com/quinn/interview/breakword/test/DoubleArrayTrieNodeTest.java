@@ -0,0 +1,116 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.BreakResult;
+import com.quinn.interview.breakword.model.Dictionary;
+import com.quinn.interview.util.BaseUtil;
+import com.quinn.interview.util.PrintUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Test for the dictionary with DoubleArrayTrieNode
+ * the result must be the same as the dictionary with ArrayTrieNode
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class DoubleArrayTrieNodeTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DoubleArrayTrieNodeTest.class);
+
+    private static final String[] CUSTOM_DIC = new String[]{"i", "like", "sam", "sung", "mobile", "icecream",
+            "man go", "mango", "and"};
+
+    /**
+     * test cases of CustomDictionaryTest
+     */
+    @Test
+    public void customDictionaryTest() {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.DOUBLE_ARRAY, CUSTOM_DIC, true);
+
+        String input = "ilikeicecreamandmango";
+        String[] expected = new String[]{"i like icecream and man go", "i like icecream and mango",
+                "i like ice cream and man go", "i like ice cream and mango"};
+
+        BreakResult result = dictionary.breakLine(input);
+        String[] allCases = result.allCases();
+        PrintUtil.print(allCases, "Result of DoubleArrayTrieNodeTest.customDictionaryTest is:");
+
+        Assert.assertTrue(BaseUtil.arrayHasSameElement(expected, allCases));
+    }
+
+    /**
+     * test that the word added after the first break is found
+     */
+    @Test
+    public void addWordAfterBreakTest() {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.DOUBLE_ARRAY);
+        Assert.assertArrayEquals(new String[]{"i like sun*"}, dictionary.breakLine("ilikesun").allCases());
+
+        dictionary.addWord("sun");
+        Assert.assertArrayEquals(new String[]{"i like sun"}, dictionary.breakLine("ilikesun").allCases());
+    }
+
+    /**
+     * compare with ArrayTrieNode by random dictionaries and random lines made up of their words
+     */
+    @Test
+    public void sameAsArrayTest() {
+        Random random = new Random(20201013L);
+        for (int round = 0; round < 20; round++) {
+            String[] words = TestSupport.randomWords(50 + random.nextInt(200), 1, 6, random.nextLong());
+            Dictionary array = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, true);
+            Dictionary doubleArray = Dictionary.create(TrieNodeTypeEnum.DOUBLE_ARRAY, words, true);
+
+            for (int i = 0; i < 200; i++) {
+                StringBuilder line = new StringBuilder();
+                int length = 1 + random.nextInt(40);
+                while (line.length() < length) {
+                    line.append(random.nextInt(8) == 0 ? String.valueOf((char) ('a' + random.nextInt(26)))
+                            : words[random.nextInt(words.length)]);
+                }
+                String input = line.toString();
+                Assert.assertArrayEquals(input, array.breakLine(input).allCases(),
+                        doubleArray.breakLine(input).allCases());
+            }
+        }
+    }
+
+    /**
+     * build a dictionary of a million words from file
+     */
+    @Test
+    public void largeFileTest() throws IOException {
+        String[] words = TestSupport.randomWords(1_000_000, 3, 12, 20201014L);
+        File file = File.createTempFile("dict_large", ".dict");
+        file.deleteOnExit();
+        try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
+            for (int i = 0; i < words.length; i++) {
+                writer.print(words[i]);
+                writer.print(i % 16 == 15 ? "\n" : Dictionary.WORD_SPLIT);
+            }
+        }
+
+        long start = System.nanoTime();
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.DOUBLE_ARRAY, file.getPath(), false);
+        long loaded = System.nanoTime();
+        BreakResult result = dictionary.breakLine(words[0] + words[1]);
+        LOGGER.info("{} words: file loaded and double array compiled in {} ms", words.length,
+                (loaded - start) / 1_000_000);
+
+        Assert.assertTrue(Arrays.asList(result.allCases()).contains(words[0] + " " + words[1]));
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(Arrays.asList(dictionary.breakLine(words[i]).allCases()).contains(words[i]));
+        }
+    }
+
+}
@@ -0,0 +1,182 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.BreakResult;
+import com.quinn.interview.breakword.model.Dictionary;
+import com.quinn.interview.util.BaseUtil;
+import com.quinn.interview.util.PrintUtil;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Test for the frozen dictionary
+ * the result must be the same as the dictionary before freezing
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class FrozenDictionaryTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FrozenDictionaryTest.class);
+
+    private static final String[] CUSTOM_DIC = new String[]{"i", "like", "sam", "sung", "mobile", "icecream",
+            "man go", "mango", "and"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * test cases of CustomDictionaryTest
+     */
+    @Test
+    public void customDictionaryTest() {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, CUSTOM_DIC, true).freeze();
+        Assert.assertTrue(dictionary.isFrozen());
+
+        String input = "ilikeicecreamandmango";
+        String[] expected = new String[]{"i like icecream and man go", "i like icecream and mango",
+                "i like ice cream and man go", "i like ice cream and mango"};
+
+        BreakResult result = dictionary.breakLine(input);
+        String[] allCases = result.allCases();
+        PrintUtil.print(allCases, "Result of FrozenDictionaryTest.customDictionaryTest is:");
+
+        Assert.assertTrue(BaseUtil.arrayHasSameElement(expected, allCases));
+    }
+
+    /**
+     * the frozen dictionary can not add any new word
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void addWordTest() {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.MAP).freeze();
+        dictionary.addWord("mobile");
+        dictionary.addWord("sun");
+    }
+
+    /**
+     * compare with the dictionary before freezing by random dictionaries and random lines
+     */
+    @Test
+    public void sameAsBeforeFreezingTest() {
+        Random random = new Random(20201013L);
+        for (int round = 0; round < 20; round++) {
+            String[] words = TestSupport.randomWords(50 + random.nextInt(200), 1, 6, random.nextLong());
+            Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, true);
+            Dictionary frozen = dictionary.freeze();
+
+            for (String input : TestSupport.randomLines(words, 200, 40, random)) {
+                Assert.assertArrayEquals(input, dictionary.breakLine(input).allCases(),
+                        frozen.breakLine(input).allCases());
+            }
+        }
+    }
+
+    /**
+     * break lines by many threads with one frozen dictionary
+     */
+    @Test
+    public void concurrentReadTest() throws Exception {
+        Random random = new Random(20201014L);
+        String[] words = TestSupport.randomWords(5000, 3, 8, random.nextLong());
+        Dictionary frozen = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, false).freeze();
+        List<String> lines = TestSupport.randomLines(words, 2000, 60, random);
+        List<String[]> expected = new ArrayList<>();
+        for (String line : lines) {
+            expected.add(frozen.breakLine(line).allCases());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < lines.size(); i++) {
+                        if (!BaseUtil.arrayHasSameElement(expected.get(i), frozen.breakLine(lines.get(i)).allCases())) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                Assert.assertTrue(future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * compare heap and throughput before and after freezing
+     * <p>
+     * the used heap after GC is only logged, the assertion is on exact sizes: most of the bytes allocated by create()
+     * are the nodes kept by the trie, and the frozen trie is its arrays, which are the image saved (the bytes
+     * allocated by freeze() are only logged, most of them are dropped after building)
+     */
+    @Test
+    public void heapAndThroughputTest() throws IOException {
+        Random random = new Random(20201015L);
+        String[] words = TestSupport.randomWords(200_000, 3, 12, random.nextLong());
+        List<String> lines = TestSupport.randomLines(words, 20_000, 80, random);
+
+        long before = TestSupport.usedHeap();
+        long allocated = TestSupport.allocatedBytes();
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, false);
+        long arrayAllocated = TestSupport.allocatedBytes() - allocated;
+        long arrayHeap = TestSupport.usedHeap() - before;
+        double arrayThroughput = throughput(dictionary, lines);
+
+        allocated = TestSupport.allocatedBytes();
+        Dictionary frozen = dictionary.freeze();
+        long frozenAllocated = TestSupport.allocatedBytes() - allocated;
+        dictionary = null;
+        long frozenHeap = TestSupport.usedHeap() - before;
+        double frozenThroughput = throughput(frozen, lines);
+        Path image = folder.newFile("frozen.qdic").toPath();
+        frozen.save(image);
+        long frozenBytes = Files.size(image);
+
+        LOGGER.info("{} words, heap of dictionary (words set included): ARRAY {} KB, frozen {} KB", words.length,
+                arrayHeap >> 10, frozenHeap >> 10);
+        LOGGER.info("bytes allocated: create {} KB, freeze {} KB, arrays of the frozen trie {} KB",
+                arrayAllocated >> 10, frozenAllocated >> 10, frozenBytes >> 10);
+        LOGGER.info("breakLine throughput: ARRAY {} lines/s, frozen {} lines/s", (long) arrayThroughput,
+                (long) frozenThroughput);
+
+        Assert.assertTrue(frozenBytes < arrayAllocated);
+    }
+
+    private static double throughput(Dictionary dictionary, List<String> lines) {
+        // warm up
+        for (int i = 0; i < 3; i++) {
+            for (String line : lines) {
+                dictionary.breakLine(line);
+            }
+        }
+
+        int rounds = 5;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            for (String line : lines) {
+                dictionary.breakLine(line);
+            }
+        }
+        return rounds * lines.size() * 1e9 / (System.nanoTime() - start);
+    }
+
+}
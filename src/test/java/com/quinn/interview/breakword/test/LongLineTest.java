@@ -0,0 +1,170 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.Dictionary;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Test for the very long lines (concatenated logs, urls ...)
+ * the line is broken in a loop, so the stack depth does not grow with the length of line
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class LongLineTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LongLineTest.class);
+
+    private static final int[] LENGTHS = new int[]{1 << 10, 10 << 10, 100 << 10, 1 << 20, 10 << 20};
+
+    /**
+     * a line of the same letter, every letter is a word and can also follow the last one
+     */
+    @Test
+    public void sameLetterTest() {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 1 << 20; i++) {
+            line.append('a');
+        }
+        String input = line.toString();
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, new String[]{"a", "aa", "aaa"}, false);
+
+        String expected = dictionary.breakLine(input).toString();
+        Assert.assertEquals(input, expected.replaceAll("[ ?*]", ""));
+        Assert.assertEquals(expected, dictionary.freeze().breakLine(input).toString());
+    }
+
+    /**
+     * all the node types break the long lines the same
+     */
+    @Test
+    public void sameAsArrayTest() {
+        Random random = new Random(20201013L);
+        String[] words = TestSupport.randomWords(2000, 3, 8, random.nextLong());
+        Dictionary array = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, false);
+        Dictionary[] others = new Dictionary[]{Dictionary.create(TrieNodeTypeEnum.MAP, words, false),
+                Dictionary.create(TrieNodeTypeEnum.DOUBLE_ARRAY, words, false),
+                Dictionary.create(TrieNodeTypeEnum.DAWG, words, false), array.freeze()};
+
+        for (int length = 1 << 10; length <= 1 << 20; length <<= 2) {
+            String input = randomLine(words, length, random);
+            String expected = array.breakLine(input).toString();
+            Assert.assertEquals(input, expected.replaceAll("[ ?*]", ""));
+            for (Dictionary other : others) {
+                Assert.assertEquals(expected, other.breakLine(input).toString());
+            }
+        }
+    }
+
+    /**
+     * the time to break the lines from 1 KB to 10 MB
+     */
+    @Test
+    public void benchmarkTest() {
+        Random random = new Random(20201014L);
+        String[] words = TestSupport.randomWords(100_000, 3, 10, random.nextLong());
+        Dictionary array = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, false);
+        Dictionary frozen = array.freeze();
+        Dictionary dawg = Dictionary.create(TrieNodeTypeEnum.DAWG, words, false);
+
+        for (int length : LENGTHS) {
+            String input = randomLine(words, length, random);
+            // break about 4M chars for every length
+            int rounds = Math.max(1, (4 << 20) / length);
+            LOGGER.info("line of {} KB: ARRAY {} MB/s, frozen {} MB/s, DAWG {} MB/s", length >> 10,
+                    mbPerSecond(array, input, rounds), mbPerSecond(frozen, input, rounds),
+                    mbPerSecond(dawg, input, rounds));
+        }
+    }
+
+    /**
+     * the lines of the same letter with the words of every length up to the longest word (a, aa, aaa ...):
+     * every position is ambiguous, the time per char does not grow with the length of line
+     * (it is linear in the length of line times the length of the longest word)
+     * <p>
+     * all the node types break by the same algorithm, so they all break the lines the same,
+     * and the time is measured on the object graph (ARRAY) and on the flat arrays (frozen)
+     */
+    @Test
+    public void adversarialTest() {
+        for (int longest : new int[]{8, 64, 256}) {
+            String[] words = new String[longest];
+            StringBuilder word = new StringBuilder();
+            for (int i = 0; i < longest; i++) {
+                words[i] = word.append('a').toString();
+            }
+            Dictionary array = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, false);
+            Dictionary frozen = array.freeze();
+            Dictionary[] others = new Dictionary[]{frozen, Dictionary.create(TrieNodeTypeEnum.MAP, words, false),
+                    Dictionary.create(TrieNodeTypeEnum.DOUBLE_ARRAY, words, false),
+                    Dictionary.create(TrieNodeTypeEnum.DAWG, words, false)};
+
+            long firstArrayNanos = 0;
+            long firstFrozenNanos = 0;
+            for (int length = 1 << 14; length <= 1 << 18; length <<= 2) {
+                char[] chars = new char[length];
+                Arrays.fill(chars, 'a');
+                String input = new String(chars);
+                String expected = array.breakLine(input).toString();
+                for (Dictionary other : others) {
+                    Assert.assertEquals(expected, other.breakLine(input).toString());
+                }
+
+                long arrayNanos = nanosPerKiloChars(array, input);
+                long frozenNanos = nanosPerKiloChars(frozen, input);
+                LOGGER.info("line of {} 'a', words of 1 to {} 'a': ARRAY {} ns/char, frozen {} ns/char", length,
+                        longest, arrayNanos / 1000.0, frozenNanos / 1000.0);
+                if (firstArrayNanos == 0) {
+                    firstArrayNanos = arrayNanos;
+                    firstFrozenNanos = frozenNanos;
+                } else {
+                    Assert.assertTrue(arrayNanos < firstArrayNanos * 4);
+                    Assert.assertTrue(frozenNanos < firstFrozenNanos * 4);
+                }
+            }
+        }
+    }
+
+    /**
+     * the least nanoseconds of 3 rounds to break 1000 chars of the line
+     */
+    private static long nanosPerKiloChars(Dictionary dictionary, String input) {
+        long least = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            Assert.assertNotNull(dictionary.breakLine(input));
+            least = Math.min(least, System.nanoTime() - start);
+        }
+        return least * 1000 / input.length();
+    }
+
+    /**
+     * million chars (bytes of the ascii line) broken per second
+     */
+    private static long mbPerSecond(Dictionary dictionary, String input, int rounds) {
+        dictionary.breakLine(input);
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            Assert.assertNotNull(dictionary.breakLine(input));
+        }
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        return (long) input.length() * rounds * 1_000 / elapsed;
+    }
+
+    private static String randomLine(String[] words, int length, Random random) {
+        StringBuilder line = new StringBuilder(length + 16);
+        while (line.length() < length) {
+            line.append(random.nextInt(16) == 0 ? String.valueOf((char) ('a' + random.nextInt(26)))
+                    : words[random.nextInt(words.length)]);
+        }
+        line.setLength(length);
+        return line.toString();
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.BreakResult;
+import com.quinn.interview.breakword.model.Dictionary;
+import com.quinn.interview.util.BaseUtil;
+import com.quinn.interview.util.PrintUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test for the dictionary with MapTrieNode
+ * the result must be the same as the dictionary with ArrayTrieNode
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class MapTrieNodeTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MapTrieNodeTest.class);
+
+    private static final String[] CUSTOM_DIC = new String[]{"i", "like", "sam", "sung", "mobile", "icecream",
+            "man go", "mango", "and"};
+
+    private static final String[] INPUTS = new String[]{"ilikeicecreamandmango", "ilikesamsungmobile", "ilikesun",
+            "givenavalidsentencewithoutanyspacesbetweenthewordsandadictionaryofvalidenglishwordsfindallpossibleways"
+                    + "tobreakthesentenceinindividualdictionarywords"};
+
+    /**
+     * test cases of StandardDictionaryTest
+     */
+    @Test
+    public void standardDictionaryTest() {
+        assertSameAsArray(Dictionary.create(TrieNodeTypeEnum.ARRAY), Dictionary.create(TrieNodeTypeEnum.MAP));
+        assertSameAsArray(Dictionary.create(TrieNodeTypeEnum.ARRAY, "dict_std.dict", false),
+                Dictionary.create(TrieNodeTypeEnum.MAP, "dict_std.dict", false));
+        assertSameAsArray(Dictionary.create(TrieNodeTypeEnum.ARRAY, "dict_001.dict", false),
+                Dictionary.create(TrieNodeTypeEnum.MAP, "dict_001.dict", false));
+    }
+
+    /**
+     * test cases of CustomDictionaryTest
+     */
+    @Test
+    public void customDictionaryTest() {
+        assertSameAsArray(Dictionary.create(TrieNodeTypeEnum.ARRAY, CUSTOM_DIC, false),
+                Dictionary.create(TrieNodeTypeEnum.MAP, CUSTOM_DIC, false));
+        assertSameAsArray(Dictionary.create(TrieNodeTypeEnum.ARRAY, CUSTOM_DIC, true),
+                Dictionary.create(TrieNodeTypeEnum.MAP, CUSTOM_DIC, true));
+    }
+
+    /**
+     * test the expected cases directly
+     */
+    @Test
+    public void twoCaseTest() {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.MAP, CUSTOM_DIC, true);
+
+        String input = "ilikeicecreamandmango";
+        String[] expected = new String[]{"i like icecream and man go", "i like icecream and mango",
+                "i like ice cream and man go", "i like ice cream and mango"};
+
+        BreakResult result = dictionary.breakLine(input);
+        String[] allCases = result.allCases();
+        PrintUtil.print(allCases, "Result of MapTrieNodeTest.twoCaseTest is:");
+
+        Assert.assertTrue(BaseUtil.arrayHasSameElement(expected, allCases));
+    }
+
+    /**
+     * compare the heap cost per word of the two node types with a random dictionary, by the retained heap
+     * (the difference is more than 10 MB, far more than the error of measuring it after GC, see TestSupport.usedHeap()):
+     * the array of ARRAY only covers the codes of the children, so for the words of the letters
+     * (the children are close in the alphabet) it costs no more than the table of MAP
+     */
+    @Test
+    public void heapPerWordTest() {
+        String[] words = TestSupport.randomWords(200_000, 3, 12, 20201014L);
+
+        long arrayBytes = heapOf(TrieNodeTypeEnum.ARRAY, words);
+        long mapBytes = heapOf(TrieNodeTypeEnum.MAP, words);
+        LOGGER.info("heap per word of {} random words: ARRAY {} bytes, MAP {} bytes", words.length,
+                arrayBytes / words.length, mapBytes / words.length);
+
+        Assert.assertTrue(arrayBytes < mapBytes);
+    }
+
+    private static void assertSameAsArray(Dictionary array, Dictionary map) {
+        for (String input : INPUTS) {
+            Assert.assertArrayEquals(array.breakLine(input).allCases(), map.breakLine(input).allCases());
+        }
+    }
+
+    /**
+     * measure the retained heap of a dictionary (the words array is excluded)
+     */
+    private static long heapOf(TrieNodeTypeEnum type, String[] words) {
+        long before = TestSupport.usedHeap();
+        Dictionary dictionary = Dictionary.create(type, words, false);
+        long after = TestSupport.usedHeap();
+        Assert.assertNotNull(dictionary.breakLine(words[0]));
+        return after - before;
+    }
+
+}
@@ -0,0 +1,199 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.Dictionary;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Test for loading the dictionary from many files
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class MultiFileDictionaryTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MultiFileDictionaryTest.class);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * the dictionary of the files is the same as the dictionary of a file of all their lines
+     */
+    @Test
+    public void sameAsSingleFileTest() throws IOException {
+        Random random = new Random(20201014L);
+        String[] words = TestSupport.randomWords(3000, 1, 8, random.nextLong());
+        List<Path> files = new ArrayList<>();
+        StringBuilder all = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int j = i; j < words.length; j += 8) {
+                text.append(words[j]);
+                if (random.nextInt(4) == 0) {
+                    text.append(':').append(1 + random.nextInt(1000));
+                }
+                text.append(j % 80 < 8 ? "\n" : ",");
+            }
+            // the words of more than one file, the space words, and the words not starting with a letter
+            text.append("\n").append(words[random.nextInt(words.length)]).append(",man go:50,-mango,, x\n");
+            files.add(write("dict_" + i + ".dict", text.toString()));
+            all.append(text);
+        }
+        Path single = write("all.txt", all.toString());
+        List<String> lines = TestSupport.randomLines(words, 300, 40, random);
+        lines.add("ilikemangoicecream");
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (TrieNodeTypeEnum type : TrieNodeTypeEnum.values()) {
+                Dictionary expected = Dictionary.create(type, single.toString(), true);
+                Dictionary actual = Dictionary.create(type, files, true, pool);
+                Assert.assertEquals(type.toString(), expected.wordCount(), actual.wordCount());
+                for (String line : lines) {
+                    Assert.assertEquals(type + " " + line, expected.breakLine(line).toString(),
+                            actual.breakLine(line).toString());
+                    Assert.assertArrayEquals(type + " " + line, expected.bestBreak(line), actual.bestBreak(line));
+                }
+                Assert.assertTrue(actual.contains("-mango"));
+                Assert.assertEquals(50, actual.freeze().frequency("man go"));
+
+                // the dictionary can still be changed
+                actual.addWord("zzzzzzzzz");
+                Assert.assertEquals("zzzzzzzzz", actual.breakLine("zzzzzzzzz").toString());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * the words which do not start with a letter (e.g CJK words, digits) are spread over the buckets too,
+     * the dictionary is the same whatever the num of workers
+     */
+    @Test
+    public void nonLetterWordsTest() throws IOException {
+        Random random = new Random(20201015L);
+        String[] words = new String[4000];
+        char[] chars = new char[6];
+        for (int i = 0; i < words.length; i++) {
+            int length = 1 + random.nextInt(chars.length);
+            for (int j = 0; j < length; j++) {
+                // CJK chars, with a digit or a letter now and then
+                int kind = random.nextInt(10);
+                chars[j] = kind == 0 ? (char) ('0' + random.nextInt(10))
+                        : kind == 1 ? (char) ('A' + random.nextInt(26)) : (char) ('\u4e00' + random.nextInt(500));
+            }
+            words[i] = new String(chars, 0, length);
+        }
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            files.add(write("cjk_" + i + ".dict",
+                    String.join(",", Arrays.copyOfRange(words, words.length / 4 * i, words.length / 4 * (i + 1)))
+                            + ",man go,"));
+        }
+        Path single = write("all.txt", String.join(",", words) + ",man go,");
+        List<String> lines = TestSupport.randomLines(words, 200, 30, random);
+
+        for (TrieNodeTypeEnum type : new TrieNodeTypeEnum[]{TrieNodeTypeEnum.ARRAY, TrieNodeTypeEnum.MAP}) {
+            Dictionary expected = Dictionary.create(type, single.toString(), false);
+            for (int parallelism : new int[]{1, 3, 8}) {
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                try {
+                    Dictionary actual = Dictionary.create(type, files, false, pool);
+                    Assert.assertEquals(type + " " + parallelism, expected.wordCount(), actual.wordCount());
+                    for (String line : lines) {
+                        Assert.assertEquals(type + " " + line, expected.breakLine(line).toString(),
+                                actual.breakLine(line).toString());
+                    }
+                    Assert.assertTrue(actual.contains("man go"));
+                    Assert.assertTrue(actual.contains(words[0].toLowerCase()));
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        }
+    }
+
+    /**
+     * the files matching the glob, in the order of their names
+     */
+    @Test
+    public void globTest() throws IOException {
+        write("dict_002.dict", "mango:10");
+        write("dict_001.dict", "mango:1000,samsung");
+        write("other.txt", "icecream");
+        Path directory = folder.getRoot().toPath();
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.MAP, directory, "dict_*.dict", true);
+        Assert.assertEquals(11, dictionary.wordCount());
+        Assert.assertEquals(10, dictionary.freeze().frequency("mango"));
+        Assert.assertFalse(dictionary.contains("icecream"));
+
+        Assert.assertEquals(0, Dictionary.create(TrieNodeTypeEnum.MAP, directory, "none_*", false).wordCount());
+    }
+
+    /**
+     * a file which can not be read fails the loading
+     */
+    @Test(expected = RuntimeException.class)
+    public void missingFileTest() {
+        Dictionary.create(TrieNodeTypeEnum.ARRAY,
+                Collections.singletonList(folder.getRoot().toPath().resolve("missing.dict")), false);
+    }
+
+    /**
+     * the time to load many files by one thread and by the common pool
+     */
+    @Test
+    public void loadTimeTest() throws IOException {
+        String[] words = TestSupport.randomWords(400_000, 3, 12, 20201014L);
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            int from = words.length / 16 * i;
+            files.add(write("shard_" + i + ".dict",
+                    String.join(",", Arrays.copyOfRange(words, from, from + words.length / 16))));
+        }
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            for (TrieNodeTypeEnum type : new TrieNodeTypeEnum[]{TrieNodeTypeEnum.ARRAY, TrieNodeTypeEnum.MAP}) {
+                // warm up
+                Dictionary.create(type, files, false, single);
+                long start = System.nanoTime();
+                Dictionary one = Dictionary.create(type, files, false, single);
+                long oneMillis = (System.nanoTime() - start) / 1_000_000;
+                start = System.nanoTime();
+                Dictionary parallel = Dictionary.create(type, files, false);
+                long parallelMillis = (System.nanoTime() - start) / 1_000_000;
+                LOGGER.info("{} of {} words in {} files: {} ms by 1 thread, {} ms by {} threads", type, words.length,
+                        files.size(), oneMillis, parallelMillis, ForkJoinPool.getCommonPoolParallelism());
+                Assert.assertEquals(one.wordCount(), parallel.wordCount());
+            }
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    private Path write(String name, String text) throws IOException {
+        Path file = folder.getRoot().toPath().resolve(name);
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.Dictionary;
+import com.quinn.interview.breakword.model.ReloadableDictionary;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Test for reloading the dictionary
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class ReloadableDictionaryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * the dictionary is reloaded when the file is changed
+     */
+    @Test
+    public void watchTest() throws Exception {
+        Path file = folder.newFile("words.txt").toPath();
+        write(file, "apple,pie");
+        try (ReloadableDictionary dictionary = ReloadableDictionary.load(TrieNodeTypeEnum.ARRAY, file, false)
+                .watch()) {
+            Dictionary snapshot = dictionary.current();
+            Assert.assertTrue(snapshot.isFrozen());
+            Assert.assertEquals("apple pie", dictionary.breakLine("applepie").toString());
+            Assert.assertNotEquals("banana pie", dictionary.breakLine("bananapie").toString());
+
+            write(file, "apple,pie\nbanana");
+            waitVersion(dictionary, 2);
+            Assert.assertEquals("banana pie", dictionary.breakLine("bananapie").toString());
+            // the snapshot held is not changed
+            Assert.assertEquals("apple pie", snapshot.breakLine("applepie").toString());
+            Assert.assertNotEquals("banana pie", snapshot.breakLine("bananapie").toString());
+
+            // the words added are kept when the file is reloaded
+            dictionary.addWords("cherry");
+            Assert.assertEquals("cherry pie", dictionary.breakLine("cherrypie").toString());
+            write(file, "pie");
+            waitVersion(dictionary, 4);
+            Assert.assertEquals("cherry pie", dictionary.breakLine("cherrypie").toString());
+            Assert.assertNotEquals("apple pie", dictionary.breakLine("applepie").toString());
+        }
+    }
+
+    /**
+     * the lines are broken while the dictionary is reloaded again and again,
+     * every result is the result of one of the dictionaries (never a half built one)
+     */
+    @Test
+    public void concurrentReloadTest() throws Exception {
+        Random random = new Random(20201014L);
+        String[] words = TestSupport.randomWords(2000, 2, 8, random.nextLong());
+        Path file = folder.newFile().toPath();
+        write(file, String.join(",", words));
+        Dictionary full = Dictionary.create(TrieNodeTypeEnum.ARRAY, file.toString(), false);
+        Dictionary half = Dictionary.create(TrieNodeTypeEnum.ARRAY, Arrays.copyOf(words, 1000), false);
+        List<String> lines = TestSupport.randomLines(words, 500, 40, random);
+
+        ReloadableDictionary dictionary = ReloadableDictionary.load(TrieNodeTypeEnum.ARRAY, file, false);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    int checked = 0;
+                    while (running.get()) {
+                        for (String line : lines) {
+                            String result = dictionary.breakLine(line).toString();
+                            Assert.assertTrue(line, result.equals(full.breakLine(line).toString())
+                                    || result.equals(half.breakLine(line).toString()));
+                            checked++;
+                        }
+                    }
+                    return checked;
+                }));
+            }
+
+            for (int i = 0; i < 20; i++) {
+                write(file, String.join(",", i % 2 == 0 ? Arrays.copyOf(words, 1000) : words));
+                dictionary.reload();
+            }
+            running.set(false);
+            for (Future<Integer> future : futures) {
+                Assert.assertTrue(future.get() > 0);
+            }
+            Assert.assertEquals(21, dictionary.version());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * the version of a snapshot is always the version it is published with:
+     * every version adds a word, so the words of a snapshot are told by its version
+     */
+    @Test
+    public void snapshotVersionTest() throws Exception {
+        Path file = folder.newFile().toPath();
+        write(file, "apple,pie");
+        ReloadableDictionary dictionary = ReloadableDictionary.load(TrieNodeTypeEnum.ARRAY, file, false);
+        int base = dictionary.current().wordCount();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    int checked = 0;
+                    while (running.get()) {
+                        ReloadableDictionary.Snapshot snapshot = dictionary.snapshot();
+                        Assert.assertEquals(base + snapshot.version() - 1, snapshot.dictionary().wordCount());
+                        checked++;
+                    }
+                    return checked;
+                }));
+            }
+
+            for (int i = 0; i < 50; i++) {
+                dictionary.addWords("word" + (char) ('a' + i % 26) + (char) ('a' + i / 26));
+            }
+            running.set(false);
+            for (Future<Integer> future : futures) {
+                Assert.assertTrue(future.get() > 0);
+            }
+            Assert.assertEquals(51, dictionary.version());
+            Assert.assertSame(dictionary.current(), dictionary.snapshot().dictionary());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void write(Path file, String text) throws IOException {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void waitVersion(ReloadableDictionary dictionary, long version) throws InterruptedException {
+        for (int i = 0; i < 500 && dictionary.version() < version; i++) {
+            Thread.sleep(20);
+        }
+        Assert.assertTrue("version " + dictionary.version(), dictionary.version() >= version);
+    }
+
+}
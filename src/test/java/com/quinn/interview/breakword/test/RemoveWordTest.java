@@ -0,0 +1,122 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.Dictionary;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Test for removing words from the dictionary
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class RemoveWordTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RemoveWordTest.class);
+
+    /**
+     * the dictionary after removing is the same as the dictionary created without the words removed
+     */
+    @Test
+    public void removeTest() {
+        Random random = new Random(20201013L);
+        for (TrieNodeTypeEnum type : TrieNodeTypeEnum.values()) {
+            for (int round = 0; round < 10; round++) {
+                Set<String> words = new LinkedHashSet<>(Arrays.asList(
+                        TestSupport.randomWords(50 + random.nextInt(200), 1, 6, random.nextLong())));
+                words.add("man go");
+                Dictionary dictionary = Dictionary.create(type, words.toArray(new String[0]), false);
+                List<String> lines = TestSupport.randomLines(words.toArray(new String[0]), 100, 40, random);
+
+                List<String> removed = new ArrayList<>();
+                for (String word : words) {
+                    if (random.nextBoolean()) {
+                        removed.add(word);
+                    }
+                }
+                for (String word : removed) {
+                    Assert.assertTrue(word, dictionary.removeWord(word));
+                    Assert.assertFalse(word, dictionary.removeWord(word));
+                }
+                words.removeAll(removed);
+                Assert.assertFalse(dictionary.removeWord("notaword"));
+
+                Dictionary expected = Dictionary.create(type, words.toArray(new String[0]), false);
+                assertSameBreak(type, expected, dictionary, lines);
+                dictionary.compact();
+                assertSameBreak(type, expected, dictionary, lines);
+
+                // the words removed can be added again
+                for (String word : removed) {
+                    dictionary.addWord(word);
+                }
+                words.addAll(removed);
+                assertSameBreak(type, Dictionary.create(type, words.toArray(new String[0]), false), dictionary,
+                        lines);
+            }
+        }
+    }
+
+    /**
+     * the frozen dictionary can not be changed
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void frozenTest() {
+        Dictionary.create(TrieNodeTypeEnum.MAP).freeze().removeWord("like");
+    }
+
+    /**
+     * the heap after removing 90% of the words, and after compacting
+     * <p>
+     * the used heap after GC is only logged, the assertion is on the bytes allocated: compact() rebuilds the trie of
+     * the words left, so the bytes allocated by it bound the compacted heap, which is less than the full trie
+     */
+    @Test
+    public void heapTest() {
+        String[] words = TestSupport.randomWords(200_000, 3, 10, 20201014L);
+        for (TrieNodeTypeEnum type : new TrieNodeTypeEnum[]{TrieNodeTypeEnum.ARRAY, TrieNodeTypeEnum.MAP}) {
+            long empty = TestSupport.usedHeap();
+            long allocated = TestSupport.allocatedBytes();
+            Dictionary dictionary = Dictionary.create(type, words, false);
+            long fullAllocated = TestSupport.allocatedBytes() - allocated;
+            long full = TestSupport.usedHeap() - empty;
+            for (int i = 0; i < words.length; i++) {
+                if (i % 10 != 0) {
+                    dictionary.removeWord(words[i]);
+                }
+            }
+            long removed = TestSupport.usedHeap() - empty;
+            allocated = TestSupport.allocatedBytes();
+            dictionary.compact();
+            long compactAllocated = TestSupport.allocatedBytes() - allocated;
+            long compacted = TestSupport.usedHeap() - empty;
+            LOGGER.info("{} of {} words: {} KB, {} KB after removing 90%, {} KB after compacting", type,
+                    words.length, full >> 10, removed >> 10, compacted >> 10);
+            LOGGER.info("{} bytes allocated: create {} KB, compact {} KB", type, fullAllocated >> 10,
+                    compactAllocated >> 10);
+
+            Assert.assertNotNull(dictionary.breakLine(words[0]));
+            Assert.assertTrue(compactAllocated * 2 < fullAllocated);
+        }
+    }
+
+    private static void assertSameBreak(TrieNodeTypeEnum type, Dictionary expected, Dictionary actual,
+                                        List<String> lines) {
+        for (String line : lines) {
+            Assert.assertEquals(type + " " + line, expected.breakLine(line).toString(),
+                    actual.breakLine(line).toString());
+            Assert.assertArrayEquals(type + " " + line, expected.bestBreak(line), actual.bestBreak(line));
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.BreakResult;
+import com.quinn.interview.breakword.model.Dictionary;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test for breaking the lines of char arrays, CharSequences and Latin-1 bytes into a result reused by the caller
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class SinkBreakTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SinkBreakTest.class);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * every input breaks the same as breakLine(String), by all types, frozen, opened or not
+     */
+    @Test
+    public void sameTest() {
+        Random random = new Random(20201014L);
+        String[] words = TestSupport.randomWords(2000, 2, 8, random.nextLong());
+        List<String> lines = TestSupport.randomLines(words, 200, 30, random);
+        lines.add("i like samsung");
+        lines.add("x");
+        Path image = folder.getRoot().toPath().resolve("sink.dic");
+        for (TrieNodeTypeEnum type : TrieNodeTypeEnum.values()) {
+            Dictionary dictionary = Dictionary.create(type, words, true);
+            Dictionary frozen = dictionary.freeze();
+            frozen.save(image);
+            for (Dictionary each : new Dictionary[]{dictionary, frozen, Dictionary.open(image)}) {
+                BreakResult sink = new BreakResult(0);
+                char[] buffer = new char[64];
+                for (String line : lines) {
+                    BreakResult expected = each.breakLine(line);
+                    String message = type + " " + line;
+
+                    // the line in the middle of a buffer
+                    line.getChars(0, line.length(), buffer, 3);
+                    assertSame(message, expected, each.breakLine(buffer, 3, line.length(), sink));
+                    assertSame(message, expected, each.breakLine(new StringBuilder(line), sink));
+                    assertSame(message, expected, each.breakLine(line, sink));
+
+                    byte[] bytes = ("##" + line).getBytes(StandardCharsets.ISO_8859_1);
+                    assertSame(message, expected, each.breakLine(bytes, 2, line.length(), sink));
+                    ByteBuffer heap = ByteBuffer.wrap(bytes, 2, line.length()).slice();
+                    assertSame(message, expected, each.breakLine(heap, sink));
+                    ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+                    direct.put(bytes).position(2);
+                    assertSame(message, expected, each.breakLine(direct, sink));
+                    Assert.assertEquals(2, direct.position());
+                }
+                Assert.assertEquals(0, each.breakLine(buffer, 0, 0, sink).length());
+                Assert.assertNull(each.breakLine((CharSequence) null, sink));
+            }
+        }
+    }
+
+    /**
+     * the range of the line must be in the buffer
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rangeTest() {
+        Dictionary.create(TrieNodeTypeEnum.ARRAY).breakLine(new char[8], 4, 5, new BreakResult(0));
+    }
+
+    /**
+     * breaking the lines into a reused result allocates nothing, by all types, frozen or not
+     */
+    @Test
+    public void allocationTest() {
+        Random random = new Random(20201014L);
+        String[] words = TestSupport.randomWords(2000, 2, 8, random.nextLong());
+        List<String> lines = TestSupport.randomLines(words, 100, 40, random);
+        char[][] chars = new char[lines.size()][];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = lines.get(i).toCharArray();
+        }
+
+        int rounds = 200;
+        for (TrieNodeTypeEnum type : TrieNodeTypeEnum.values()) {
+            Dictionary dictionary = Dictionary.create(type, words, false);
+            for (Dictionary each : new Dictionary[]{dictionary, dictionary.freeze()}) {
+                BreakResult sink = new BreakResult(0);
+                long checksum = 0;
+                for (int round = 0; round < rounds * 2; round++) {
+                    for (int i = 0; i < chars.length; i++) {
+                        checksum += each.breakLine(chars[i], 0, chars[i].length, sink).length();
+                        checksum += each.breakLine(lines.get(i), sink).length();
+                    }
+                }
+
+                long before = TestSupport.allocatedBytes();
+                for (int round = 0; round < rounds; round++) {
+                    for (int i = 0; i < chars.length; i++) {
+                        checksum += each.breakLine(chars[i], 0, chars[i].length, sink).length();
+                        checksum += each.breakLine(lines.get(i), sink).length();
+                    }
+                }
+                long sinkBytes = TestSupport.allocatedBytes() - before;
+
+                before = TestSupport.allocatedBytes();
+                for (int round = 0; round < rounds; round++) {
+                    for (String line : lines) {
+                        checksum += each.breakLine(line).length();
+                    }
+                }
+                long stringBytes = TestSupport.allocatedBytes() - before;
+
+                long calls = (long) rounds * chars.length;
+                LOGGER.info("{} {}: {} bytes per line into the sink, {} bytes per line of breakLine(String) ({})",
+                        type, each.isFrozen() ? "frozen" : "mutable", sinkBytes / (calls * 2.0),
+                        stringBytes / (double) calls, checksum);
+                // the bytes allocated by the measuring itself only
+                Assert.assertTrue(type + " " + sinkBytes, sinkBytes < 1024);
+            }
+        }
+    }
+
+    private static void assertSame(String message, BreakResult expected, BreakResult actual) {
+        Assert.assertEquals(message, expected.toString(), actual.toString());
+        Assert.assertEquals(message, expected.caseCount(), actual.caseCount());
+    }
+
+}
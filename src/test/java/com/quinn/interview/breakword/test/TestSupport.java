@@ -0,0 +1,97 @@
+package com.quinn.interview.breakword.test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * the fixtures shared by the tests: random words and lines, and the measuring of the memory
+ * <p>
+ * the memory is measured in two ways:
+ * 1 allocatedBytes(): the bytes allocated by the current thread, exact and not affected by GC,
+ * e.g the bytes allocated to build a structure
+ * 2 usedHeap(): the used heap after a few System.gc(), the retained heap of what is built between two calls,
+ * it depends on the collector and the timing by up to a few MB, so it is asserted only when the difference
+ * is far larger than that (e.g the heap of the node types in MapTrieNodeTest), and logged otherwise
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+final class TestSupport {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private TestSupport() {
+    }
+
+    /**
+     * random words (some may repeat) of a to z
+     *
+     * @param size      num of words
+     * @param minLength min length of a word
+     * @param maxLength max length of a word
+     * @param seed      seed of the random
+     * @return the words
+     */
+    static String[] randomWords(int size, int minLength, int maxLength, long seed) {
+        Random random = new Random(seed);
+        String[] words = new String[size];
+        char[] chars = new char[maxLength];
+        for (int i = 0; i < size; i++) {
+            int length = minLength + random.nextInt(maxLength - minLength + 1);
+            for (int j = 0; j < length; j++) {
+                chars[j] = (char) ('a' + random.nextInt(26));
+            }
+            words[i] = new String(chars, 0, length);
+        }
+        return words;
+    }
+
+    /**
+     * random lines of the words, with a random letter now and then (a wrong word)
+     *
+     * @param words     the words
+     * @param size      num of lines
+     * @param maxLength max length of a line, a line is at least as long as a random length in [1, maxLength]
+     * @param random    the random
+     * @return the lines
+     */
+    static List<String> randomLines(String[] words, int size, int maxLength, Random random) {
+        List<String> lines = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            StringBuilder line = new StringBuilder();
+            int length = 1 + random.nextInt(maxLength);
+            while (line.length() < length) {
+                line.append(random.nextInt(8) == 0 ? String.valueOf((char) ('a' + random.nextInt(26)))
+                        : words[random.nextInt(words.length)]);
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    /**
+     * the bytes allocated by the current thread so far, the difference of two calls is the bytes allocated between
+     *
+     * @return the bytes allocated by the current thread
+     */
+    static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * the used heap after a few System.gc(), see the error of it in the class doc
+     *
+     * @return the used heap
+     */
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.Dictionary;
+import com.quinn.interview.breakword.model.WordIndex;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Test for the ids of the words of the frozen dictionary
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class WordIndexTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WordIndexTest.class);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * the ids of n words are 0 to n - 1, and the words not in the index have no id
+     */
+    @Test
+    public void indexTest() {
+        for (int size : new int[]{0, 1, 2, 63, 64, 65, 1000, 100_000}) {
+            Set<String> words = new LinkedHashSet<>(Arrays.asList(
+                    TestSupport.randomWords(size, 1, 10, size)));
+            WordIndex index = WordIndex.build(words);
+            Assert.assertEquals(words.size(), index.size());
+
+            boolean[] used = new boolean[words.size()];
+            for (String word : words) {
+                int id = index.id(word);
+                Assert.assertTrue(word + " " + id, id >= 0 && id < used.length);
+                Assert.assertFalse(word + " " + id, used[id]);
+                used[id] = true;
+            }
+
+            int found = 0;
+            for (String word : TestSupport.randomWords(10_000, 11, 14, size + 1)) {
+                if (index.id(word) >= 0) {
+                    found++;
+                }
+            }
+            Assert.assertEquals(0, found);
+        }
+    }
+
+    /**
+     * the words of the frozen dictionaries of all types, and the dictionary opened from the image
+     */
+    @Test
+    public void frozenTest() throws IOException {
+        String[] words = TestSupport.randomWords(5000, 1, 8, 20201014L);
+        Set<String> distinct = new HashSet<>(Arrays.asList(words));
+        distinct.add("man go");
+        Path image = folder.newFile("words.qdic").toPath();
+        for (TrieNodeTypeEnum type : TrieNodeTypeEnum.values()) {
+            Dictionary dictionary = Dictionary.create(type, words, true);
+            Assert.assertTrue(dictionary.contains("man go"));
+            Assert.assertFalse(dictionary.contains("notaword"));
+            dictionary.save(image);
+            for (Dictionary frozen : new Dictionary[]{dictionary.freeze(), Dictionary.open(image)}) {
+                Assert.assertEquals(type.toString(), dictionary.wordCount(), frozen.wordCount());
+                boolean[] used = new boolean[frozen.wordCount()];
+                for (String word : distinct) {
+                    Assert.assertTrue(word, frozen.contains(word));
+                    int id = frozen.wordId(word);
+                    Assert.assertFalse(word + " " + id, used[id]);
+                    used[id] = true;
+                    Assert.assertEquals(word, 1, frozen.frequency(word));
+                }
+                Assert.assertTrue(frozen.contains("Man Go"));
+                for (String word : new String[]{"", "notawordatall", "man goes", "man go ", "man-go"}) {
+                    Assert.assertFalse(word, frozen.contains(word));
+                    Assert.assertEquals(word, -1, frozen.wordId(word));
+                    Assert.assertEquals(word, 0, frozen.frequency(word));
+                }
+
+                // adding a word which is in the dictionary already changes nothing
+                frozen.addWord("man go");
+            }
+        }
+    }
+
+    /**
+     * the frequencies of the dictionary file are kept by the ids of the words
+     */
+    @Test
+    public void frequencyTest() throws IOException {
+        Path file = folder.newFile("words.txt").toPath();
+        Files.write(file, "i:1000,like:500,sam,samsung:20\nman go:7".getBytes(StandardCharsets.UTF_8));
+        Dictionary frozen = Dictionary.create(TrieNodeTypeEnum.MAP, file.toString(), false).freeze();
+        Assert.assertEquals(1000, frozen.frequency("i"));
+        Assert.assertEquals(500, frozen.frequency("like"));
+        Assert.assertEquals(1, frozen.frequency("sam"));
+        Assert.assertEquals(20, frozen.frequency("samsung"));
+        Assert.assertEquals(7, frozen.frequency("man go"));
+        Assert.assertEquals(0, frozen.frequency("sung"));
+        Assert.assertArrayEquals(new int[]{1, 5, 12}, frozen.bestBreak("ilikesamsung"));
+    }
+
+    /**
+     * the words have no ids until the dictionary is frozen
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void mutableTest() {
+        Dictionary.create(TrieNodeTypeEnum.MAP).wordId("like");
+    }
+
+    /**
+     * the frozen dictionary can not add a new word
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void frozenAddTest() {
+        Dictionary.create(TrieNodeTypeEnum.MAP).freeze().addWord("notaword");
+    }
+
+    /**
+     * the heap of the index compared with the set of the words
+     * <p>
+     * the heap is only logged: the used heap after GC depends on the collector and the timing, and most of the bytes
+     * allocated to build the index are the hashes dropped after it is built
+     */
+    @Test
+    public void heapTest() {
+        String[] words = TestSupport.randomWords(200_000, 3, 12, 20201014L);
+        long empty = TestSupport.usedHeap();
+        Set<String> set = new HashSet<>(Arrays.asList(words));
+        long setBytes = TestSupport.usedHeap() - empty;
+        long allocated = TestSupport.allocatedBytes();
+        WordIndex index = WordIndex.build(set);
+        long buildBytes = TestSupport.allocatedBytes() - allocated;
+        long indexBytes = TestSupport.usedHeap() - empty - setBytes;
+        LOGGER.info("{} words: HashSet {} KB, index {} KB ({} bits per word), {} KB allocated to build it",
+                set.size(), setBytes >> 10, indexBytes >> 10, indexBytes * 8 / set.size(), buildBytes >> 10);
+
+        Assert.assertEquals(set.size(), index.size());
+        BitSet ids = new BitSet(set.size());
+        for (String word : set) {
+            ids.set(index.id(word));
+        }
+        Assert.assertEquals(set.size(), ids.cardinality());
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.quinn.interview.breakword.test;
+
+import com.quinn.interview.breakword.enums.TrieNodeTypeEnum;
+import com.quinn.interview.breakword.model.Dictionary;
+import com.quinn.interview.breakword.model.WordLattice;
+import com.quinn.interview.util.BaseUtil;
+import com.quinn.interview.util.PrintUtil;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test for the word lattice
+ * every path of the lattice must be a way to break the whole line into words of the dictionary, and vice versa
+ *
+ * @author Qunhua.Liao
+ * @since 2020-10-14
+ */
+public class WordLatticeTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WordLatticeTest.class);
+
+    private static final String[] CUSTOM_DIC = new String[]{"i", "like", "sam", "sung", "mobile", "icecream",
+            "man go", "mango", "and"};
+
+    private static final TrieNodeTypeEnum[] TYPES = TrieNodeTypeEnum.values();
+
+    /**
+     * test cases of CustomDictionaryTest
+     */
+    @Test
+    public void customDictionaryTest() {
+        String[] expected = new String[]{"i like icecream and man go", "i like icecream and mango",
+                "i like ice cream and man go", "i like ice cream and mango"};
+
+        for (TrieNodeTypeEnum type : TYPES) {
+            WordLattice lattice = Dictionary.create(type, CUSTOM_DIC, true).lattice("ilikeicecreamandmango");
+            String[] allPaths = allPaths(lattice).toArray(new String[0]);
+            PrintUtil.print(allPaths, "Result of WordLatticeTest.customDictionaryTest is:");
+
+            Assert.assertEquals(BigInteger.valueOf(4), lattice.pathCount());
+            Assert.assertTrue(BaseUtil.arrayHasSameElement(expected, allPaths));
+        }
+    }
+
+    /**
+     * the overlapping alternatives which can not be marked by BreakResult
+     */
+    @Test
+    public void overlappingTest() {
+        Dictionary dictionary = Dictionary.create(TrieNodeTypeEnum.ARRAY, new String[]{"a", "ab", "abc", "bc", "c"},
+                false);
+        WordLattice lattice = dictionary.lattice("abc");
+
+        Assert.assertEquals(BigInteger.valueOf(3), lattice.pathCount());
+        Assert.assertEquals(5, lattice.edgeCount());
+        Assert.assertEquals("a bc", lattice.toString(lattice.path(0)));
+        Assert.assertEquals("ab c", lattice.toString(lattice.path(1)));
+        Assert.assertEquals("abc", lattice.toString(lattice.path(2)));
+    }
+
+    /**
+     * the line can not be broken into words has no path
+     */
+    @Test
+    public void noPathTest() {
+        WordLattice lattice = Dictionary.create(TrieNodeTypeEnum.MAP).lattice("ilikesun");
+        Assert.assertEquals(BigInteger.ZERO, lattice.pathCount());
+        Assert.assertEquals("i", lattice.word(lattice.firstEdge(0)));
+        Assert.assertEquals(lattice.firstEdge(5), lattice.endEdge(5));
+    }
+
+    /**
+     * compare with all the ways to break found one by one, by random dictionaries and random lines
+     */
+    @Test
+    public void sameAsBruteForceTest() {
+        Random random = new Random(20201013L);
+        for (int round = 0; round < 20; round++) {
+            String[] words = TestSupport.randomWords(20 + random.nextInt(100), 1, 4, random.nextLong());
+            // some words with space
+            for (int i = 0; i < words.length; i += 10) {
+                words[i] = words[i] + " " + words[random.nextInt(words.length)];
+            }
+            Dictionary[] dictionaries = new Dictionary[TYPES.length + 1];
+            for (int i = 0; i < TYPES.length; i++) {
+                dictionaries[i] = Dictionary.create(TYPES[i], words, false);
+            }
+            dictionaries[TYPES.length] = dictionaries[0].freeze();
+
+            for (String input : TestSupport.randomLines(words, 50, 14, random)) {
+                input = input.replace(" ", "");
+                List<String> expected = new ArrayList<>();
+                bruteForce(words, input, 0, "", expected);
+                Collections.sort(expected);
+
+                for (Dictionary dictionary : dictionaries) {
+                    List<String> allPaths = allPaths(dictionary.lattice(input));
+                    Collections.sort(allPaths);
+                    Assert.assertEquals(input, expected, allPaths);
+                }
+            }
+        }
+    }
+
+    /**
+     * the lattice of the lines from 10 KB to 1 MB, the paths are too many for a long
+     */
+    @Test
+    public void longLineTest() {
+        Random random = new Random(20201014L);
+        String[] words = TestSupport.randomWords(100_000, 1, 8, random.nextLong());
+        Dictionary array = Dictionary.create(TrieNodeTypeEnum.ARRAY, words, false);
+        Dictionary frozen = array.freeze();
+
+        for (int length = 10 << 10; length <= 1 << 20; length *= 10) {
+            StringBuilder line = new StringBuilder();
+            while (line.length() < length) {
+                line.append(words[random.nextInt(words.length)]);
+            }
+            String input = line.toString();
+
+            for (Dictionary dictionary : new Dictionary[]{array, frozen}) {
+                dictionary.lattice(input);
+                long start = System.nanoTime();
+                WordLattice lattice = dictionary.lattice(input);
+                long built = System.nanoTime();
+                LOGGER.info("lattice of {} KB built in {} ms: {} edges", input.length() >> 10,
+                        (built - start) / 1_000_000, lattice.edgeCount());
+
+                Assert.assertEquals(input, lattice.toString(lattice.path(0)).replace(" ", ""));
+                Assert.assertEquals(input, lattice.toString(lattice.path(Long.MAX_VALUE - 1)).replace(" ", ""));
+            }
+        }
+
+        StringBuilder line = new StringBuilder();
+        while (line.length() < 10 << 10) {
+            line.append(words[random.nextInt(words.length)]);
+        }
+        Assert.assertTrue(array.lattice(line.toString()).pathCount().bitLength() > 64);
+    }
+
+    private static List<String> allPaths(WordLattice lattice) {
+        List<String> paths = new ArrayList<>();
+        for (long i = 0; i < lattice.pathCount().longValue(); i++) {
+            paths.add(lattice.toString(lattice.path(i)));
+        }
+        return paths;
+    }
+
+    /**
+     * find all the ways to break the line from the offset, one word by one word
+     */
+    private static void bruteForce(String[] words, String line, int offset, String broken, List<String> result) {
+        if (offset == line.length()) {
+            result.add(broken);
+            return;
+        }
+        List<String> tried = new ArrayList<>();
+        for (String word : words) {
+            if (tried.contains(word)) {
+                continue;
+            }
+            tried.add(word);
+            String letters = word.replace(" ", "");
+            if (line.startsWith(letters, offset)) {
+                bruteForce(words, line, offset + letters.length(), broken.isEmpty() ? word : broken + " " + word,
+                        result);
+            }
+        }
+    }
+
+}